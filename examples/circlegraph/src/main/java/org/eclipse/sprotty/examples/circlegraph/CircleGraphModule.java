@@ -16,6 +16,7 @@
 package org.eclipse.sprotty.examples.circlegraph;
 
 import org.eclipse.sprotty.DefaultDiagramServer;
+import org.eclipse.sprotty.IBoundsEstimator;
 import org.eclipse.sprotty.IDiagramExpansionListener;
 import org.eclipse.sprotty.IDiagramOpenListener;
 import org.eclipse.sprotty.IDiagramSelectionListener;
@@ -34,6 +35,7 @@ public class CircleGraphModule implements Module {
 		binder.bind(IDiagramServer.Provider.class).to(DiagramServerProvider.class);
 		binder.bind(DefaultDiagramServer.class).to(CircleGraphDiagramServer.class);
 		binder.bind(ILayoutEngine.class).to(GraphLayoutEngine.class);
+		binder.bind(IBoundsEstimator.class).to(IBoundsEstimator.NullImpl.class);
 		
 		binder.bind(IDiagramSelectionListener.class).to(IDiagramSelectionListener.NullImpl.class);
 		binder.bind(IDiagramExpansionListener.class).to(IDiagramExpansionListener.NullImpl.class);
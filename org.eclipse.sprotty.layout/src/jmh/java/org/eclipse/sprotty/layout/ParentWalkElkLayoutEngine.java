@@ -0,0 +1,125 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty.layout;
+
+import java.util.LinkedList;
+
+import org.eclipse.elk.graph.ElkGraphElement;
+import org.eclipse.elk.graph.ElkShape;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.sprotty.BoundsAware;
+import org.eclipse.sprotty.Point;
+import org.eclipse.sprotty.SModelElement;
+
+/**
+ * Layout engine with the former implementation of {@link ElkLayoutEngine#getOffset(SModelElement,
+ * ElkGraphElement, LayoutContext)}, which walks the parents of every element. Kept as the baseline
+ * for {@link TransferLayoutBenchmark}.
+ */
+public class ParentWalkElkLayoutEngine extends ElkLayoutEngine {
+
+	@Override
+	protected Point getOffset(SModelElement selem, ElkGraphElement elkElem, LayoutContext context) {
+		// Build a list of parents of the sprotty model element
+		LinkedList<SModelElement> sParents = null;
+		SModelElement currentSParent = selem;
+		while (currentSParent != null) {
+			currentSParent = context.parentMap.get(currentSParent);
+			if (currentSParent != null) {
+				ElkShape shapeForSParent = context.shapeMap.get(currentSParent);
+				if (shapeForSParent == elkElem.eContainer()) {
+					// Shortcut: the current sprotty parent matches the ELK container 
+					double x = 0, y = 0;
+					if (sParents != null) {
+						for (SModelElement sParent : sParents) {
+							if (sParent instanceof BoundsAware) {
+								Point position = ((BoundsAware) sParent).getPosition();
+								if (position != null) {
+									x -= position.getX();
+									y -= position.getY();
+								}
+							}
+						}
+					}
+					return new Point(x, y);
+				}
+				if (sParents == null)
+					sParents = new LinkedList<>();
+				sParents.addFirst(currentSParent);
+			}
+		}
+		
+		// Build a list of parents of the ELK graph element
+		LinkedList<EObject> elkParents = new LinkedList<>();
+		EObject currentElkParent = elkElem;
+		while (currentElkParent != null) {
+			currentElkParent = currentElkParent.eContainer();
+			if (currentElkParent != null) {
+				elkParents.addFirst(currentElkParent);
+			}
+		}
+		
+		boolean foundMismatch = false;
+		do {
+			// Find the next sprotty parent that is connected to a shape
+			ElkShape shapeForSParent = null;
+			int nextSParentIndex = 0;
+			while (shapeForSParent == null && nextSParentIndex < sParents.size()) {
+				shapeForSParent = context.shapeMap.get(sParents.get(nextSParentIndex++));
+			}
+			// Find the next ELK parent that is a shape
+			ElkShape elkParentShape = null;
+			while (elkParentShape == null && !elkParents.isEmpty()) {
+				EObject elkParent = elkParents.getFirst();
+				if (elkParent instanceof ElkShape)
+					elkParentShape = (ElkShape) elkParent;
+				else
+					elkParents.removeFirst();
+			}
+			// Remove the current parents if they match
+			if (shapeForSParent != null && shapeForSParent == elkParentShape) {
+				for (int i = 0; i < nextSParentIndex; i++) {
+					sParents.removeFirst();
+				}
+				elkParents.removeFirst();
+			} else {
+				foundMismatch = true;
+			}
+		} while (!foundMismatch && !sParents.isEmpty() && !elkParents.isEmpty());
+		
+		double x = 0, y = 0;
+		// Add the remaining ELK shapes to the offset
+		for (EObject elkParent : elkParents) {
+			if (elkParent instanceof ElkShape) {
+				ElkShape elkShape = (ElkShape) elkParent;
+				x += elkShape.getX();
+				y += elkShape.getY();
+			}
+		}
+		// Subtract the remaining sprotty shapes from the offset
+		for (SModelElement sParent : sParents) {
+			if (sParent instanceof BoundsAware) {
+				Point position = ((BoundsAware) sParent).getPosition();
+				if (position != null) {
+					x -= position.getX();
+					y -= position.getY();
+				}
+			}
+		}
+		return new Point(x, y);
+	}
+
+}
@@ -0,0 +1,145 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty.layout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.sprotty.Dimension;
+import org.eclipse.sprotty.Point;
+import org.eclipse.sprotty.SEdge;
+import org.eclipse.sprotty.SGraph;
+import org.eclipse.sprotty.SLabel;
+import org.eclipse.sprotty.SModelElement;
+import org.eclipse.sprotty.SNode;
+import org.eclipse.sprotty.SPort;
+import org.eclipse.sprotty.layout.ElkLayoutEngine.LayoutContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the transfer of a computed layout to the sprotty model using precomputed coordinate frames
+ * with the former implementation that walks the parents of every element, and with the transfer through
+ * a {@link org.eclipse.sprotty.CompactGraph}. The graph consists of
+ * nested nodes of the given depth, where each node has two child nodes, a label, a port, and an edge
+ * to the port of its first child.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransferLayoutBenchmark {
+
+	@Param({ "4", "8", "12" })
+	public int depth;
+
+	private final ElkLayoutEngine engine = new ElkLayoutEngine();
+
+	private final ElkLayoutEngine parentWalkEngine = new ParentWalkElkLayoutEngine();
+
+	private final ElkLayoutEngine compactEngine = new ElkLayoutEngine();
+
+	private SGraph graph;
+
+	private LayoutContext context;
+
+	private LayoutContext parentWalkContext;
+
+	private LayoutContext compactContext;
+
+	@Setup(Level.Trial)
+	public void createGraph() {
+		graph = new SGraph();
+		graph.setType("graph");
+		graph.setId("graph");
+		List<SModelElement> children = new ArrayList<>();
+		children.add(createNode("n", depth));
+		graph.setChildren(children);
+		compactEngine.setCompactTransfer(true);
+	}
+
+	@Setup(Level.Invocation)
+	public void transformGraph() {
+		// The coordinate frames are cached in the layout context, so each invocation needs a fresh one
+		context = engine.transformGraph(graph, null);
+		parentWalkContext = parentWalkEngine.transformGraph(graph, null);
+		compactContext = compactEngine.transformGraph(graph, null);
+	}
+
+	private SNode createNode(String id, int level) {
+		SNode node = new SNode();
+		node.setType("node");
+		node.setId(id);
+		node.setPosition(new Point(10, 10));
+		node.setSize(new Dimension(50, 30));
+		List<SModelElement> nodeChildren = new ArrayList<>();
+		SLabel label = new SLabel();
+		label.setType("label");
+		label.setId(id + ".label");
+		label.setText(id);
+		label.setPosition(new Point(5, 5));
+		nodeChildren.add(label);
+		SPort port = new SPort();
+		port.setType("port");
+		port.setId(id + ".port");
+		port.setSize(new Dimension(5, 5));
+		nodeChildren.add(port);
+		if (level > 1) {
+			nodeChildren.add(createNode(id + ".0", level - 1));
+			nodeChildren.add(createNode(id + ".1", level - 1));
+			SEdge edge = new SEdge();
+			edge.setType("edge");
+			edge.setId(id + ".edge");
+			edge.setSourceId(id + ".port");
+			edge.setTargetId(id + ".0.port");
+			nodeChildren.add(edge);
+		}
+		node.setChildren(nodeChildren);
+		return node;
+	}
+
+	@Benchmark
+	public LayoutContext precomputedFrames() {
+		engine.transferLayout(context);
+		return context;
+	}
+
+	@Benchmark
+	public LayoutContext parentWalk() {
+		parentWalkEngine.transferLayout(parentWalkContext);
+		return parentWalkContext;
+	}
+
+	@Benchmark
+	public LayoutContext compactGraph() {
+		compactEngine.transferLayout(compactContext);
+		return compactContext;
+	}
+
+}
@@ -0,0 +1,142 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty.layout;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.elk.graph.ElkConnectableShape;
+import org.eclipse.elk.graph.ElkNode;
+import org.eclipse.elk.graph.util.ElkGraphUtil;
+
+/**
+ * Index of the node hierarchy of an ELK graph for determining the containment of many edges. The nodes are
+ * numbered in depth-first order, and a sparse table over that order answers lowest common ancestor queries
+ * in constant time, so the containment of all edges is computed in {@code O(n log n + m)} instead of walking
+ * the ancestors of both end points for each edge.
+ *
+ * <p>The index reflects the hierarchy at the time of its creation. Nodes added later are not found.</p>
+ */
+public class EdgeContainmentIndex {
+
+	private final Map<ElkNode, Integer> indices = new IdentityHashMap<>();
+
+	private final ElkNode[] nodes;
+
+	private final int[] parents;
+
+	private final int[] depths;
+
+	/**
+	 * {@code sparseTable[k][i]} is the node with minimal depth among the nodes {@code i} to {@code i + 2^k - 1}.
+	 */
+	private final int[][] sparseTable;
+
+	public EdgeContainmentIndex(ElkNode root) {
+		int count = countNodes(root);
+		nodes = new ElkNode[count];
+		parents = new int[count];
+		depths = new int[count];
+		Deque<ElkNode> stack = new ArrayDeque<>();
+		stack.push(root);
+		int index = 0;
+		while (!stack.isEmpty()) {
+			ElkNode node = stack.pop();
+			nodes[index] = node;
+			Integer parent = index > 0 ? indices.get(node.getParent()) : null;
+			parents[index] = parent != null ? parent : -1;
+			depths[index] = parent != null ? depths[parent] + 1 : 0;
+			indices.put(node, index);
+			index++;
+			List<ElkNode> children = node.getChildren();
+			// Push in reverse order so the children are numbered in their original order
+			for (int i = children.size() - 1; i >= 0; i--) {
+				stack.push(children.get(i));
+			}
+		}
+		sparseTable = createSparseTable();
+	}
+
+	private static int countNodes(ElkNode node) {
+		int count = 1;
+		for (ElkNode child : node.getChildren()) {
+			count += countNodes(child);
+		}
+		return count;
+	}
+
+	private int[][] createSparseTable() {
+		int n = nodes.length;
+		int levels = 32 - Integer.numberOfLeadingZeros(n);
+		int[][] table = new int[levels][];
+		table[0] = new int[n];
+		for (int i = 0; i < n; i++) {
+			table[0][i] = i;
+		}
+		for (int k = 1; k < levels; k++) {
+			int half = 1 << (k - 1);
+			int[] previous = table[k - 1];
+			int[] current = new int[n - (1 << k) + 1];
+			for (int i = 0; i < current.length; i++) {
+				current[i] = shallower(previous[i], previous[i + half]);
+			}
+			table[k] = current;
+		}
+		return table;
+	}
+
+	private int shallower(int a, int b) {
+		return depths[a] <= depths[b] ? a : b;
+	}
+
+	/**
+	 * Return the most suitable container of an edge between the given shapes, following the same rules as
+	 * {@link ElkGraphUtil#findBestEdgeContainment(org.eclipse.elk.graph.ElkEdge)}: the common parent if
+	 * both end points are in the same graph, the ancestor if one end point contains the other, and the lowest
+	 * common ancestor otherwise. Returns {@code null} if an end point is not contained in the index or both
+	 * are the root of the graph.
+	 */
+	public ElkNode findBestContainment(ElkConnectableShape source, ElkConnectableShape target) {
+		Integer sourceIndex = indices.get(ElkGraphUtil.connectableShapeToNode(source));
+		Integer targetIndex = indices.get(ElkGraphUtil.connectableShapeToNode(target));
+		if (sourceIndex == null || targetIndex == null)
+			return null;
+		int s = sourceIndex;
+		int t = targetIndex;
+		if (s == t) {
+			int parent = parents[s];
+			return parent >= 0 ? nodes[parent] : null;
+		}
+		return nodes[lowestCommonAncestor(s, t)];
+	}
+
+	/**
+	 * Return the lowest common ancestor of two distinct nodes, which is one of the nodes itself if it
+	 * contains the other. All nodes numbered after the lower index up to the higher index are in the
+	 * subtree of the common ancestor, and the shallowest of them is one of its children.
+	 */
+	private int lowestCommonAncestor(int a, int b) {
+		int from = Math.min(a, b) + 1;
+		int to = Math.max(a, b);
+		int k = 31 - Integer.numberOfLeadingZeros(to - from + 1);
+		int shallowest = shallower(sparseTable[k][from], sparseTable[k][to - (1 << k) + 1]);
+		return parents[shallowest];
+	}
+
+}
@@ -0,0 +1,295 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty.layout;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.elk.core.data.LayoutMetaDataService;
+import org.eclipse.elk.core.data.LayoutOptionData;
+import org.eclipse.elk.graph.ElkBendPoint;
+import org.eclipse.elk.graph.ElkConnectableShape;
+import org.eclipse.elk.graph.ElkEdge;
+import org.eclipse.elk.graph.ElkEdgeSection;
+import org.eclipse.elk.graph.ElkGraphElement;
+import org.eclipse.elk.graph.ElkLabel;
+import org.eclipse.elk.graph.ElkNode;
+import org.eclipse.elk.graph.ElkPort;
+import org.eclipse.elk.graph.ElkShape;
+import org.eclipse.elk.graph.properties.IProperty;
+import org.eclipse.elk.graph.util.ElkGraphUtil;
+
+/**
+ * Compact binary encoding of ELK graphs and their computed layout, used to transfer graphs to an
+ * {@link ElkLayoutWorker} running in another process.
+ *
+ * <p>The graph encoding contains the geometry, the structure, and all registered layout options of the
+ * graph elements. Element identifiers, label texts, and properties that are not layout options are omitted,
+ * since they are not needed for computing the layout. Shapes are referenced by their index in a depth-first
+ * traversal of the graph. The layout encoding contains the geometry of all elements in the same order, so it
+ * can be applied to the original graph.</p>
+ */
+public class ElkGraphCodec {
+
+	private static final int GRAPH_MAGIC = 0x454C4B47;
+	private static final int LAYOUT_MAGIC = 0x454C4B4C;
+
+	/**
+	 * Write the given graph including all layout options.
+	 */
+	public void writeGraph(ElkNode graph, DataOutputStream out) throws IOException {
+		out.writeInt(GRAPH_MAGIC);
+		Map<ElkConnectableShape, Integer> shapeIndices = new IdentityHashMap<>();
+		List<ElkEdge> edges = new ArrayList<>();
+		writeNode(graph, out, shapeIndices, edges);
+		out.writeInt(edges.size());
+		for (ElkEdge edge : edges) {
+			out.writeInt(shapeIndices.get(edge.getContainingNode()));
+			writeShapeReferences(edge.getSources(), out, shapeIndices);
+			writeShapeReferences(edge.getTargets(), out, shapeIndices);
+			writeProperties(edge, out);
+			writeLabels(edge.getLabels(), out);
+		}
+	}
+
+	/**
+	 * Read a graph written with {@link #writeGraph(ElkNode, DataOutputStream)}.
+	 */
+	public ElkNode readGraph(DataInputStream in) throws IOException {
+		if (in.readInt() != GRAPH_MAGIC)
+			throw new IOException("Invalid graph encoding.");
+		List<ElkConnectableShape> shapes = new ArrayList<>();
+		ElkNode graph = readNode(null, in, shapes);
+		int edgeCount = in.readInt();
+		for (int i = 0; i < edgeCount; i++) {
+			ElkNode container = (ElkNode) shapes.get(in.readInt());
+			ElkEdge edge = ElkGraphUtil.createEdge(container);
+			readShapeReferences(edge.getSources(), in, shapes);
+			readShapeReferences(edge.getTargets(), in, shapes);
+			readProperties(edge, in);
+			readLabels(edge, in);
+		}
+		return graph;
+	}
+
+	/**
+	 * Write the computed layout of the given graph.
+	 */
+	public void writeLayout(ElkNode graph, DataOutputStream out) throws IOException {
+		out.writeInt(LAYOUT_MAGIC);
+		List<ElkEdge> edges = new ArrayList<>();
+		writeNodeLayout(graph, out, edges);
+		for (ElkEdge edge : edges) {
+			out.writeInt(edge.getSections().size());
+			for (ElkEdgeSection section : edge.getSections()) {
+				out.writeDouble(section.getStartX());
+				out.writeDouble(section.getStartY());
+				out.writeInt(section.getBendPoints().size());
+				for (ElkBendPoint bendPoint : section.getBendPoints()) {
+					out.writeDouble(bendPoint.getX());
+					out.writeDouble(bendPoint.getY());
+				}
+				out.writeDouble(section.getEndX());
+				out.writeDouble(section.getEndY());
+			}
+			for (ElkLabel label : edge.getLabels()) {
+				writeGeometry(label, out);
+			}
+		}
+	}
+
+	/**
+	 * Apply a layout written with {@link #writeLayout(ElkNode, DataOutputStream)} to the given graph, which
+	 * must have the same structure as the graph for which the layout was computed.
+	 */
+	public void readLayout(ElkNode graph, DataInputStream in) throws IOException {
+		if (in.readInt() != LAYOUT_MAGIC)
+			throw new IOException("Invalid layout encoding.");
+		List<ElkEdge> edges = new ArrayList<>();
+		readNodeLayout(graph, in, edges);
+		for (ElkEdge edge : edges) {
+			edge.getSections().clear();
+			int sectionCount = in.readInt();
+			for (int i = 0; i < sectionCount; i++) {
+				ElkEdgeSection section = ElkGraphUtil.createEdgeSection(edge);
+				section.setStartLocation(in.readDouble(), in.readDouble());
+				int bendPointCount = in.readInt();
+				for (int j = 0; j < bendPointCount; j++) {
+					ElkGraphUtil.createBendPoint(section, in.readDouble(), in.readDouble());
+				}
+				section.setEndLocation(in.readDouble(), in.readDouble());
+			}
+			for (ElkLabel label : edge.getLabels()) {
+				readGeometry(label, in);
+			}
+		}
+	}
+
+	private void writeNode(ElkNode node, DataOutputStream out, Map<ElkConnectableShape, Integer> shapeIndices,
+			List<ElkEdge> edges) throws IOException {
+		shapeIndices.put(node, shapeIndices.size());
+		writeGeometry(node, out);
+		writeProperties(node, out);
+		writeLabels(node.getLabels(), out);
+		out.writeInt(node.getPorts().size());
+		for (ElkPort port : node.getPorts()) {
+			shapeIndices.put(port, shapeIndices.size());
+			writeGeometry(port, out);
+			writeProperties(port, out);
+			writeLabels(port.getLabels(), out);
+		}
+		out.writeInt(node.getChildren().size());
+		for (ElkNode child : node.getChildren()) {
+			writeNode(child, out, shapeIndices, edges);
+		}
+		edges.addAll(node.getContainedEdges());
+	}
+
+	private ElkNode readNode(ElkNode parent, DataInputStream in, List<ElkConnectableShape> shapes) throws IOException {
+		ElkNode node = ElkGraphUtil.createNode(parent);
+		shapes.add(node);
+		readGeometry(node, in);
+		readProperties(node, in);
+		readLabels(node, in);
+		int portCount = in.readInt();
+		for (int i = 0; i < portCount; i++) {
+			ElkPort port = ElkGraphUtil.createPort(node);
+			shapes.add(port);
+			readGeometry(port, in);
+			readProperties(port, in);
+			readLabels(port, in);
+		}
+		int childCount = in.readInt();
+		for (int i = 0; i < childCount; i++) {
+			readNode(node, in, shapes);
+		}
+		return node;
+	}
+
+	private void writeNodeLayout(ElkNode node, DataOutputStream out, List<ElkEdge> edges) throws IOException {
+		writeGeometry(node, out);
+		for (ElkLabel label : node.getLabels()) {
+			writeGeometry(label, out);
+		}
+		for (ElkPort port : node.getPorts()) {
+			writeGeometry(port, out);
+			for (ElkLabel label : port.getLabels()) {
+				writeGeometry(label, out);
+			}
+		}
+		for (ElkNode child : node.getChildren()) {
+			writeNodeLayout(child, out, edges);
+		}
+		edges.addAll(node.getContainedEdges());
+	}
+
+	private void readNodeLayout(ElkNode node, DataInputStream in, List<ElkEdge> edges) throws IOException {
+		readGeometry(node, in);
+		for (ElkLabel label : node.getLabels()) {
+			readGeometry(label, in);
+		}
+		for (ElkPort port : node.getPorts()) {
+			readGeometry(port, in);
+			for (ElkLabel label : port.getLabels()) {
+				readGeometry(label, in);
+			}
+		}
+		for (ElkNode child : node.getChildren()) {
+			readNodeLayout(child, in, edges);
+		}
+		edges.addAll(node.getContainedEdges());
+	}
+
+	private void writeLabels(List<ElkLabel> labels, DataOutputStream out) throws IOException {
+		out.writeInt(labels.size());
+		for (ElkLabel label : labels) {
+			writeGeometry(label, out);
+			writeProperties(label, out);
+		}
+	}
+
+	private void readLabels(ElkGraphElement parent, DataInputStream in) throws IOException {
+		int labelCount = in.readInt();
+		for (int i = 0; i < labelCount; i++) {
+			ElkLabel label = ElkGraphUtil.createLabel(parent);
+			readGeometry(label, in);
+			readProperties(label, in);
+		}
+	}
+
+	private void writeGeometry(ElkShape shape, DataOutputStream out) throws IOException {
+		out.writeDouble(shape.getX());
+		out.writeDouble(shape.getY());
+		out.writeDouble(shape.getWidth());
+		out.writeDouble(shape.getHeight());
+	}
+
+	private void readGeometry(ElkShape shape, DataInputStream in) throws IOException {
+		shape.setLocation(in.readDouble(), in.readDouble());
+		shape.setDimensions(in.readDouble(), in.readDouble());
+	}
+
+	private void writeShapeReferences(List<ElkConnectableShape> shapes, DataOutputStream out,
+			Map<ElkConnectableShape, Integer> shapeIndices) throws IOException {
+		out.writeInt(shapes.size());
+		for (ElkConnectableShape shape : shapes) {
+			out.writeInt(shapeIndices.get(shape));
+		}
+	}
+
+	private void readShapeReferences(List<ElkConnectableShape> target, DataInputStream in,
+			List<ElkConnectableShape> shapes) throws IOException {
+		int count = in.readInt();
+		for (int i = 0; i < count; i++) {
+			target.add(shapes.get(in.readInt()));
+		}
+	}
+
+	private void writeProperties(ElkGraphElement element, DataOutputStream out) throws IOException {
+		LayoutMetaDataService metaDataService = LayoutMetaDataService.getInstance();
+		List<Map.Entry<IProperty<?>, Object>> options = new ArrayList<>();
+		for (Map.Entry<IProperty<?>, Object> entry : element.getAllProperties().entrySet()) {
+			if (entry.getValue() != null && metaDataService.getOptionData(entry.getKey().getId()) != null)
+				options.add(entry);
+		}
+		out.writeInt(options.size());
+		for (Map.Entry<IProperty<?>, Object> entry : options) {
+			out.writeUTF(entry.getKey().getId());
+			out.writeUTF(entry.getValue().toString());
+		}
+	}
+
+	private void readProperties(ElkGraphElement element, DataInputStream in) throws IOException {
+		LayoutMetaDataService metaDataService = LayoutMetaDataService.getInstance();
+		int count = in.readInt();
+		for (int i = 0; i < count; i++) {
+			String id = in.readUTF();
+			String value = in.readUTF();
+			LayoutOptionData optionData = metaDataService.getOptionData(id);
+			if (optionData != null) {
+				Object parsedValue = optionData.parseValue(value);
+				if (parsedValue != null)
+					element.setProperty(optionData, parsedValue);
+			}
+		}
+	}
+
+}
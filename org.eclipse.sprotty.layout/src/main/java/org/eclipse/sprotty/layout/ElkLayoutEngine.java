@@ -16,9 +16,13 @@
 package org.eclipse.sprotty.layout;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 
 import org.eclipse.elk.core.IGraphLayoutEngine;
 import org.eclipse.elk.core.RecursiveGraphLayoutEngine;
@@ -26,6 +30,7 @@ import org.eclipse.elk.core.data.ILayoutMetaDataProvider;
 import org.eclipse.elk.core.data.LayoutMetaDataService;
 import org.eclipse.elk.core.math.ElkPadding;
 import org.eclipse.elk.core.options.CoreOptions;
+import org.eclipse.elk.core.options.HierarchyHandling;
 import org.eclipse.elk.core.util.BasicProgressMonitor;
 import org.eclipse.elk.core.util.ElkUtil;
 import org.eclipse.elk.graph.ElkBendPoint;
@@ -44,9 +49,11 @@ import org.eclipse.elk.graph.util.ElkGraphUtil;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.sprotty.Action;
 import org.eclipse.sprotty.BoundsAware;
+import org.eclipse.sprotty.CompactGraph;
 import org.eclipse.sprotty.Dimension;
 import org.eclipse.sprotty.EdgeLayoutable;
 import org.eclipse.sprotty.ILayoutEngine;
+import org.eclipse.sprotty.LayoutAction;
 import org.eclipse.sprotty.LayoutContainer;
 import org.eclipse.sprotty.Point;
 import org.eclipse.sprotty.SEdge;
@@ -66,17 +73,54 @@ import com.google.common.collect.Maps;
  * {@link #initialize(ILayoutMetaDataProvider...)}. The arguments of that method should be all meta data
  * providers of the layout algorithms that should be used by this layout engine,
  * e.g. <code>org.eclipse.elk.alg.layered.options.LayeredMetaDataProvider</code>.</p>
+ * 
+ * <p>In {@link #setIncremental(boolean) incremental} mode the engine remembers the layout computed for each
+ * diagram and restores it for all compound nodes whose subgraph has not changed since, so only the changed
+ * hierarchy levels are laid out again.</p>
  */
 public class ElkLayoutEngine implements ILayoutEngine {
 	
 	public static final IProperty<String> P_TYPE = new Property<>("org.eclipse.sprotty.layout.type");
 	
+	/**
+	 * Set on the root of an ELK graph when the time budget was exceeded and the graph was laid out with the
+	 * fallback algorithm.
+	 */
+	public static final IProperty<Boolean> P_FALLBACK_APPLIED = new Property<>("org.eclipse.sprotty.layout.fallbackApplied", false);
+	
+	private static final Point ORIGIN = new Point();
+	
 	public static void initialize(ILayoutMetaDataProvider ...providers) {
 		LayoutMetaDataService.getInstance().registerLayoutMetaDataProviders(providers);
 	}
 	
+	/**
+	 * The maximal number of diagrams for which a layout snapshot is kept in incremental mode.
+	 */
+	public static final int MAX_SNAPSHOTS = 32;
+	
 	private IGraphLayoutEngine engine = new RecursiveGraphLayoutEngine();
 	
+	private boolean incremental;
+	
+	private boolean compactTransfer;
+	
+	private LayoutCache layoutCache;
+	
+	private long timeBudget;
+	
+	private String fallbackAlgorithm;
+	
+	private final ThreadLocal<BooleanSupplier> cancelIndicator = new ThreadLocal<>();
+	
+	private final Map<String, LayoutSnapshot> snapshots = Collections.synchronizedMap(
+			new LinkedHashMap<String, LayoutSnapshot>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, LayoutSnapshot> eldest) {
+					return size() > MAX_SNAPSHOTS;
+				}
+			});
+	
 	protected final ElkGraphFactory factory = ElkGraphFactory.eINSTANCE;
 	
 	/**
@@ -92,6 +136,35 @@ public class ElkLayoutEngine implements ILayoutEngine {
 		}
 	}
 
+	/**
+	 * Compute a layout for a graph that is aborted with a {@link CancellationException} as soon as the given
+	 * cancel indicator returns {@code true}. The indicator is available through {@link #getCancelIndicator()}
+	 * while {@link #layout(SModelRoot, Action)} is executed, so subclasses overriding that method support
+	 * cancellation without further changes.
+	 */
+	@Override
+	public void layout(SModelRoot root, Action cause, BooleanSupplier cancelIndicator) {
+		BooleanSupplier previous = this.cancelIndicator.get();
+		this.cancelIndicator.set(cancelIndicator);
+		try {
+			layout(root, cause);
+		} finally {
+			if (previous != null)
+				this.cancelIndicator.set(previous);
+			else
+				this.cancelIndicator.remove();
+		}
+	}
+	
+	/**
+	 * Return the cancel indicator of the layout running in the current thread. If the layout is not
+	 * cancellable, the returned indicator always returns {@code false}.
+	 */
+	protected BooleanSupplier getCancelIndicator() {
+		BooleanSupplier result = cancelIndicator.get();
+		return result != null ? result : () -> false;
+	}
+
 	/**
 	 * Compute a layout for a graph with the given configurator (or {@code null} to use only default settings).
 	 */
@@ -100,7 +173,7 @@ public class ElkLayoutEngine implements ILayoutEngine {
 		if (configurator != null) {
 			ElkUtil.applyVisitors(context.elkGraph, configurator);
 		}
-		applyEngine(context.elkGraph);
+		applyEngine(context);
 		transferLayout(context);
 	}
 	
@@ -259,7 +332,9 @@ public class ElkLayoutEngine implements ILayoutEngine {
 		if (source != null && target != null) {
 			elkEdge.getSources().add(source);
 			elkEdge.getTargets().add(target);
-			ElkNode container = ElkGraphUtil.findBestEdgeContainment(elkEdge);
+			ElkNode container = getContainmentIndex(context).findBestContainment(source, target);
+			if (container == null)
+				container = ElkGraphUtil.findBestEdgeContainment(elkEdge);
 			if (container != null)
 				elkEdge.setContainingNode(container);
 			else
@@ -267,6 +342,16 @@ public class ElkLayoutEngine implements ILayoutEngine {
 		}
 	}
 	
+	/**
+	 * Return the index of the node hierarchy used to determine the containment of edges. It is created
+	 * on first use, after all nodes of the ELK graph have been created.
+	 */
+	protected EdgeContainmentIndex getContainmentIndex(LayoutContext context) {
+		if (context.containmentIndex == null)
+			context.containmentIndex = new EdgeContainmentIndex(context.elkGraph);
+		return context.containmentIndex;
+	}
+	
 	/**
 	 * Create an ELK node for the given sprotty node.
 	 */
@@ -337,7 +422,8 @@ public class ElkLayoutEngine implements ILayoutEngine {
 	 * This requires the meta data providers of the referenced algorithms to be registered
 	 * using {@link #initialize(ILayoutMetaDataProvider...)} before any layout is performed, e.g. on
 	 * application start. Alternatively, you can use a specific layout algorithm directly, e.g.
-	 * <code>org.eclipse.elk.alg.layered.LayeredLayoutProvider</code>.
+	 * <code>org.eclipse.elk.alg.layered.LayeredLayoutProvider</code>. Use the {@link ParallelGraphLayoutEngine}
+	 * to lay out independent compound nodes concurrently.
 	 */
 	public void setEngine(IGraphLayoutEngine engine) {
 		if (engine == null)
@@ -350,17 +436,230 @@ public class ElkLayoutEngine implements ILayoutEngine {
 	}
 	
 	/**
-	 * Apply the layout engine that has been configured with {@link #setEngine(IGraphLayoutEngine)}.
+	 * Set the time budget of a layout computation, or zero for no limit. When the budget is exceeded,
+	 * the layout is computed again with the {@link #setFallbackAlgorithm(String) fallback algorithm} if one
+	 * is configured, and aborted with a {@link CancellationException} otherwise. Layout algorithms check
+	 * the budget only between their processing steps, so the actual duration can be longer.
+	 */
+	public void setTimeBudget(long timeBudget, TimeUnit unit) {
+		if (timeBudget < 0)
+			throw new IllegalArgumentException("The time budget must not be negative");
+		this.timeBudget = unit.toMillis(timeBudget);
+	}
+	
+	/**
+	 * The time budget of a layout computation in milliseconds, or zero for no limit.
+	 */
+	public long getTimeBudget() {
+		return timeBudget;
+	}
+	
+	/**
+	 * Set the id of a cheaper layout algorithm, e.g. <code>org.eclipse.elk.box</code>, that is applied to all
+	 * compound nodes when the {@link #setTimeBudget(long, TimeUnit) time budget} is exceeded.
+	 */
+	public void setFallbackAlgorithm(String fallbackAlgorithm) {
+		this.fallbackAlgorithm = fallbackAlgorithm;
+	}
+	
+	public String getFallbackAlgorithm() {
+		return fallbackAlgorithm;
+	}
+	
+	/**
+	 * Apply the layout engine that has been configured with {@link #setEngine(IGraphLayoutEngine)}. If the
+	 * fallback algorithm is applied, the root node is marked with {@link #P_FALLBACK_APPLIED}.
 	 */
 	protected void applyEngine(ElkNode elkGraph) {
-		getEngine().layout(elkGraph, new BasicProgressMonitor());
+		BooleanSupplier cancelIndicator = getCancelIndicator();
+		LayoutProgressMonitor monitor = new LayoutProgressMonitor(cancelIndicator, getTimeBudget());
+		getEngine().layout(elkGraph, monitor);
+		if (cancelIndicator.getAsBoolean())
+			throw new CancellationException("The layout has been cancelled.");
+		if (monitor.isBudgetExceeded()) {
+			String fallback = getFallbackAlgorithm();
+			if (fallback == null)
+				throw new CancellationException("The layout exceeded its time budget of " + getTimeBudget() + " ms.");
+			applyFallbackAlgorithm(elkGraph, fallback);
+			elkGraph.setProperty(P_FALLBACK_APPLIED, true);
+			getEngine().layout(elkGraph, new LayoutProgressMonitor(cancelIndicator, 0));
+			if (cancelIndicator.getAsBoolean())
+				throw new CancellationException("The layout has been cancelled.");
+		}
+	}
+	
+	/**
+	 * Configure the given fallback algorithm for the given node and all its compound descendants.
+	 */
+	protected void applyFallbackAlgorithm(ElkNode elkNode, String algorithm) {
+		elkNode.setProperty(CoreOptions.ALGORITHM, algorithm);
+		for (ElkNode child : elkNode.getChildren()) {
+			if (!child.getChildren().isEmpty())
+				applyFallbackAlgorithm(child, algorithm);
+		}
+	}
+	
+	/**
+	 * Enable or disable incremental layout. When enabled, the layout computed for a diagram is remembered,
+	 * and compound nodes whose subgraph is unchanged in the next layout request of the same diagram
+	 * are not laid out again. A {@link LayoutAction} of type {@code FULL} triggers a full layout.
+	 */
+	public void setIncremental(boolean incremental) {
+		this.incremental = incremental;
+		if (!incremental)
+			snapshots.clear();
+	}
+	
+	public boolean isIncremental() {
+		return incremental;
+	}
+	
+	/**
+	 * Return the key under which the layout snapshot of the given graph is remembered in incremental mode.
+	 * Since a snapshot is only reused for subgraphs with identical layout input, a shared key only affects
+	 * how often a snapshot can be reused, not the correctness of the layout.
+	 */
+	protected String getSnapshotKey(SGraph sgraph) {
+		return sgraph.getType() + ':' + sgraph.getId();
+	}
+	
+	/**
+	 * Set a cache for layout results, or {@code null} to disable caching. If the configured ELK graph of a
+	 * layout request is found in the cache, the cached layout is applied without running the layout engine.
+	 */
+	public void setLayoutCache(LayoutCache layoutCache) {
+		this.layoutCache = layoutCache;
+	}
+	
+	public LayoutCache getLayoutCache() {
+		return layoutCache;
+	}
+	
+	/**
+	 * Apply the layout engine to the graph of the given context, reusing layouts from the
+	 * {@link #setLayoutCache(LayoutCache) layout cache} and, in {@link #setIncremental(boolean) incremental}
+	 * mode, from the previous layout of the same diagram. A layout computed with the fallback algorithm is
+	 * neither cached nor remembered, so the next layout of the same graph tries the configured algorithm again.
+	 */
+	protected void applyEngine(LayoutContext context) {
+		LayoutCache cache = getLayoutCache();
+		String snapshotKey = getSnapshotKey(context.sgraph);
+		boolean incremental = isIncremental() && supportsIncrementalLayout(context.elkGraph);
+		if (isIncremental() && !incremental)
+			snapshots.remove(snapshotKey);
+		if (cache == null && !incremental) {
+			applyEngine(context.elkGraph);
+			context.fallbackApplied = context.elkGraph.getProperty(P_FALLBACK_APPLIED);
+			return;
+		}
+		boolean fullLayout = isFullLayoutRequested(context.cause);
+		Map<ElkGraphElement, String> ids = LayoutSnapshot.collectIds(context);
+		Map<String, Long> signatures = incremental
+				? LayoutSnapshot.computeSignatures(context.elkGraph, ids) : Collections.emptyMap();
+		String cacheKey = cache != null ? cache.computeKey(context.elkGraph, ids) : null;
+		LayoutSnapshot cached = cacheKey != null && !fullLayout ? cache.get(cacheKey) : null;
+		if (cached != null) {
+			cached.restoreAll(context.elkGraph, ids);
+		} else {
+			LayoutSnapshot previous = incremental && !fullLayout ? snapshots.get(snapshotKey) : null;
+			if (previous == null || previous.restoreUnchanged(context.elkGraph, ids, signatures)) {
+				applyEngine(context.elkGraph);
+				context.fallbackApplied = context.elkGraph.getProperty(P_FALLBACK_APPLIED);
+			}
+		}
+		if (context.fallbackApplied)
+			return;
+		LayoutSnapshot snapshot = LayoutSnapshot.record(ids, signatures);
+		if (incremental)
+			snapshots.put(snapshotKey, snapshot);
+		if (cacheKey != null && cached == null)
+			cache.put(cacheKey, snapshot);
+	}
+	
+	/**
+	 * Whether the given cause requests a full layout, ignoring any previously computed layout.
+	 */
+	protected boolean isFullLayoutRequested(Action cause) {
+		return cause instanceof LayoutAction
+				&& !LayoutAction.LayoutType.INCREMENTAL.toString().equals(((LayoutAction) cause).getLayoutType());
+	}
+	
+	/**
+	 * Whether unchanged subgraphs of the given graph can be skipped by freezing them with the fixed layout
+	 * algorithm. This requires the {@link RecursiveGraphLayoutEngine} and no node that lays out its
+	 * children together with its own content.
+	 */
+	protected boolean supportsIncrementalLayout(ElkNode elkNode) {
+		if (!(getEngine() instanceof RecursiveGraphLayoutEngine))
+			return false;
+		if (elkNode.getProperty(CoreOptions.HIERARCHY_HANDLING) == HierarchyHandling.INCLUDE_CHILDREN)
+			return false;
+		for (ElkNode child : elkNode.getChildren()) {
+			if (!child.getChildren().isEmpty() && !supportsIncrementalLayout(child))
+				return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Enable or disable the transfer of the computed layout through a {@link CompactGraph}. This avoids most
+	 * map lookups and intermediate objects for large graphs, but bypasses the element-specific transfer
+	 * methods such as {@link #transferNodeLayout(SNode, ElkNode, LayoutContext)}, so it must not be enabled
+	 * if a subclass overrides them.
+	 */
+	public void setCompactTransfer(boolean compactTransfer) {
+		this.compactTransfer = compactTransfer;
+	}
+	
+	public boolean isCompactTransfer() {
+		return compactTransfer;
 	}
 	
 	/**
 	 * Transfer the computed ELK layout back to the original sprotty graph.
 	 */
 	protected void transferLayout(LayoutContext context) {
-		transferLayout(context.sgraph, context);
+		if (isCompactTransfer())
+			transferLayout(CompactGraph.create(context.sgraph), context);
+		else
+			transferLayout(context.sgraph, context);
+	}
+	
+	/**
+	 * Transfer the computed ELK layout to the given compact representation of the sprotty graph and apply
+	 * it in a single top-down pass. The ELK positions are converted to absolute coordinates, which the
+	 * compact graph converts back to the coordinate systems of the sprotty parents.
+	 */
+	protected void transferLayout(CompactGraph graph, LayoutContext context) {
+		ElkNode elkGraph = context.elkGraph;
+		graph.setBounds(0, elkGraph.getX(), elkGraph.getY(), elkGraph.getWidth(), elkGraph.getHeight());
+		for (int i = 1; i < graph.size(); i++) {
+			ElkShape elkShape = context.shapeMap.get(graph.getElement(i));
+			if (elkShape != null) {
+				Point frame = getElkFrame(elkShape.eContainer(), context);
+				graph.setAbsoluteBounds(i, frame.getX() + elkShape.getX(), frame.getY() + elkShape.getY(),
+						elkShape.getWidth(), elkShape.getHeight());
+			}
+		}
+		for (int e = 0; e < graph.getEdgeCount(); e++) {
+			ElkEdge elkEdge = context.edgeMap.get(graph.getElement(graph.getEdgeElement(e)));
+			if (elkEdge != null && !elkEdge.getSections().isEmpty()) {
+				Point frame = getElkFrame(elkEdge.eContainer(), context);
+				ElkEdgeSection section = elkEdge.getSections().get(0);
+				double[] route = new double[2 * section.getBendPoints().size() + 4];
+				int k = 0;
+				route[k++] = frame.getX() + section.getStartX();
+				route[k++] = frame.getY() + section.getStartY();
+				for (ElkBendPoint bendPoint : section.getBendPoints()) {
+					route[k++] = frame.getX() + bendPoint.getX();
+					route[k++] = frame.getY() + bendPoint.getY();
+				}
+				route[k++] = frame.getX() + section.getEndX();
+				route[k++] = frame.getY() + section.getEndY();
+				graph.setAbsoluteRoute(e, route);
+			}
+		}
+		graph.apply();
 	}
 	
 	/**
@@ -455,95 +754,87 @@ public class ElkLayoutEngine implements ILayoutEngine {
 	/**
 	 * Compute the offset for applying a computed ELK layout to a sprotty model element. Such an offset can
 	 * occur when the two elements are put into containers with different coordinate systems.
+	 * 
+	 * <p>The offset is the difference between the absolute coordinate frames of the ELK container and the
+	 * sprotty parent. The frames are computed once per container and reused for all its children. Since the
+	 * layout is transferred top-down, the sprotty frames are computed after the positions of all parents
+	 * have been transferred.</p>
 	 */
 	protected Point getOffset(SModelElement selem, ElkGraphElement elkElem, LayoutContext context) {
-		// Build a list of parents of the sprotty model element
-		LinkedList<SModelElement> sParents = null;
-		SModelElement currentSParent = selem;
-		while (currentSParent != null) {
-			currentSParent = context.parentMap.get(currentSParent);
-			if (currentSParent != null) {
-				ElkShape shapeForSParent = context.shapeMap.get(currentSParent);
-				if (shapeForSParent == elkElem.eContainer()) {
-					// Shortcut: the current sprotty parent matches the ELK container 
-					double x = 0, y = 0;
-					if (sParents != null) {
-						for (SModelElement sParent : sParents) {
-							if (sParent instanceof BoundsAware) {
-								Point position = ((BoundsAware) sParent).getPosition();
-								if (position != null) {
-									x -= position.getX();
-									y -= position.getY();
-								}
-							}
-						}
-					}
-					return new Point(x, y);
-				}
-				if (sParents == null)
-					sParents = new LinkedList<>();
-				sParents.addFirst(currentSParent);
+		Point elkFrame = getElkFrame(elkElem.eContainer(), context);
+		Point sprottyFrame = getSprottyFrame(context.parentMap.get(selem), context);
+		return new Point(elkFrame.getX() - sprottyFrame.getX(), elkFrame.getY() - sprottyFrame.getY());
+	}
+	
+	/**
+	 * Return the absolute position of the coordinate system that the given ELK container defines for its
+	 * children. The root of the ELK graph defines the origin.
+	 */
+	private Point getElkFrame(EObject elkContainer, LayoutContext context) {
+		if (elkContainer == null || elkContainer.eContainer() == null)
+			return ORIGIN;
+		Point frame = context.elkFrames.get(elkContainer);
+		if (frame == null) {
+			frame = getElkFrame(elkContainer.eContainer(), context);
+			if (elkContainer instanceof ElkShape) {
+				ElkShape shape = (ElkShape) elkContainer;
+				frame = new Point(frame.getX() + shape.getX(), frame.getY() + shape.getY());
 			}
+			context.elkFrames.put(elkContainer, frame);
 		}
-		
-		// Build a list of parents of the ELK graph element
-		LinkedList<EObject> elkParents = new LinkedList<>();
-		EObject currentElkParent = elkElem;
-		while (currentElkParent != null) {
-			currentElkParent = currentElkParent.eContainer();
-			if (currentElkParent != null) {
-				elkParents.addFirst(currentElkParent);
+		return frame;
+	}
+	
+	/**
+	 * Return the absolute position of the coordinate system that the given sprotty element defines for its
+	 * children. The root of the sprotty model defines the origin.
+	 */
+	private Point getSprottyFrame(SModelElement sParent, LayoutContext context) {
+		if (sParent == null)
+			return ORIGIN;
+		SModelElement sGrandParent = context.parentMap.get(sParent);
+		if (sGrandParent == null)
+			return ORIGIN;
+		Point frame = context.sprottyFrames.get(sParent);
+		if (frame == null) {
+			frame = getSprottyFrame(sGrandParent, context);
+			if (sParent instanceof BoundsAware) {
+				Point position = ((BoundsAware) sParent).getPosition();
+				if (position != null)
+					frame = new Point(frame.getX() + position.getX(), frame.getY() + position.getY());
 			}
+			context.sprottyFrames.put(sParent, frame);
 		}
+		return frame;
+	}
+	
+	/**
+	 * Progress monitor that reports cancellation when the cancel indicator of the layout returns {@code true}
+	 * or the time budget is exceeded.
+	 */
+	protected static class LayoutProgressMonitor extends BasicProgressMonitor {
 		
-		boolean foundMismatch = false;
-		do {
-			// Find the next sprotty parent that is connected to a shape
-			ElkShape shapeForSParent = null;
-			int nextSParentIndex = 0;
-			while (shapeForSParent == null && nextSParentIndex < sParents.size()) {
-				shapeForSParent = context.shapeMap.get(sParents.get(nextSParentIndex++));
-			}
-			// Find the next ELK parent that is a shape
-			ElkShape elkParentShape = null;
-			while (elkParentShape == null && !elkParents.isEmpty()) {
-				EObject elkParent = elkParents.getFirst();
-				if (elkParent instanceof ElkShape)
-					elkParentShape = (ElkShape) elkParent;
-				else
-					elkParents.removeFirst();
-			}
-			// Remove the current parents if they match
-			if (shapeForSParent != null && shapeForSParent == elkParentShape) {
-				for (int i = 0; i < nextSParentIndex; i++) {
-					sParents.removeFirst();
-				}
-				elkParents.removeFirst();
-			} else {
-				foundMismatch = true;
-			}
-		} while (!foundMismatch && !sParents.isEmpty() && !elkParents.isEmpty());
+		private final BooleanSupplier cancelIndicator;
+		private final long deadline;
+		private volatile boolean budgetExceeded;
 		
-		double x = 0, y = 0;
-		// Add the remaining ELK shapes to the offset
-		for (EObject elkParent : elkParents) {
-			if (elkParent instanceof ElkShape) {
-				ElkShape elkShape = (ElkShape) elkParent;
-				x += elkShape.getX();
-				y += elkShape.getY();
-			}
+		public LayoutProgressMonitor(BooleanSupplier cancelIndicator, long timeBudget) {
+			this.cancelIndicator = cancelIndicator;
+			this.deadline = timeBudget > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeBudget) : 0;
 		}
-		// Subtract the remaining sprotty shapes from the offset
-		for (SModelElement sParent : sParents) {
-			if (sParent instanceof BoundsAware) {
-				Point position = ((BoundsAware) sParent).getPosition();
-				if (position != null) {
-					x -= position.getX();
-					y -= position.getY();
-				}
-			}
+		
+		@Override
+		public boolean isCanceled() {
+			if (cancelIndicator.getAsBoolean())
+				return true;
+			if (deadline != 0 && System.nanoTime() - deadline > 0)
+				budgetExceeded = true;
+			return budgetExceeded;
+		}
+		
+		public boolean isBudgetExceeded() {
+			return budgetExceeded;
 		}
-		return new Point(x, y);
 	}
 	
 	/**
@@ -556,6 +847,11 @@ public class ElkLayoutEngine implements ILayoutEngine {
 		public final Map<SModelElement, ElkShape> shapeMap = Maps.newLinkedHashMap();
 		public final Map<SEdge, ElkEdge> edgeMap = Maps.newLinkedHashMap();
 		public final Action cause;
+		/** Whether the time budget was exceeded and the fallback algorithm was applied. */
+		public boolean fallbackApplied;
+		private final Map<EObject, Point> elkFrames = Maps.newHashMap();
+		private final Map<SModelElement, Point> sprottyFrames = Maps.newHashMap();
+		private EdgeContainmentIndex containmentIndex;
 		
 		public LayoutContext(Action cause) {
 			this.cause = cause;
@@ -0,0 +1,89 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty.layout;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintStream;
+
+import org.eclipse.elk.core.IGraphLayoutEngine;
+import org.eclipse.elk.core.RecursiveGraphLayoutEngine;
+import org.eclipse.elk.core.data.ILayoutMetaDataProvider;
+import org.eclipse.elk.core.util.BasicProgressMonitor;
+import org.eclipse.elk.graph.ElkNode;
+
+/**
+ * Main class of a layout worker process started by {@link ElkLayoutWorkerProcess}. The worker reads graphs
+ * encoded with {@link ElkGraphCodec} from its standard input, lays them out, and writes the results to its
+ * standard output. Each result starts with a boolean that tells whether the layout succeeded; it is followed
+ * by the layout or by an error message. The worker terminates when its standard input is closed.
+ *
+ * <p>The program arguments are the fully qualified class names of the {@link ILayoutMetaDataProvider}s
+ * that should be registered, e.g. <code>org.eclipse.elk.alg.layered.options.LayeredMetaDataProvider</code>.</p>
+ */
+public class ElkLayoutWorker {
+
+	public static void main(String[] args) throws Exception {
+		// The standard output is reserved for the results, so redirect any other output,
+		// including output of the layout providers while they are initialized
+		PrintStream stdout = System.out;
+		System.setOut(System.err);
+		for (String providerClassName : args) {
+			ElkLayoutEngine.initialize((ILayoutMetaDataProvider) Class.forName(providerClassName)
+					.getDeclaredConstructor().newInstance());
+		}
+		DataInputStream in = new DataInputStream(new BufferedInputStream(System.in));
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stdout));
+		new ElkLayoutWorker().run(in, out);
+	}
+
+	private final ElkGraphCodec codec = new ElkGraphCodec();
+
+	private final IGraphLayoutEngine engine = new RecursiveGraphLayoutEngine();
+
+	/**
+	 * Process layout requests until the input stream is closed.
+	 */
+	public void run(DataInputStream in, DataOutputStream out) throws IOException {
+		while (true) {
+			ElkNode graph;
+			try {
+				graph = codec.readGraph(in);
+			} catch (EOFException exc) {
+				return;
+			}
+			ByteArrayOutputStream result = new ByteArrayOutputStream();
+			try {
+				engine.layout(graph, new BasicProgressMonitor());
+				codec.writeLayout(graph, new DataOutputStream(result));
+			} catch (Exception exc) {
+				out.writeBoolean(false);
+				out.writeUTF(String.valueOf(exc));
+				out.flush();
+				continue;
+			}
+			out.writeBoolean(true);
+			result.writeTo(out);
+			out.flush();
+		}
+	}
+
+}
@@ -0,0 +1,267 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty.layout;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ProcessBuilder.Redirect;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+
+import org.apache.log4j.Logger;
+import org.eclipse.elk.graph.ElkNode;
+
+/**
+ * Runs layouts in a separate JVM, so the memory consumed by layout algorithms and crashes caused by them
+ * are isolated from the diagram server. The worker process executes {@link ElkLayoutWorker} and is started
+ * lazily with the class path of the current process. If the worker process dies, it is restarted for the
+ * next layout.
+ *
+ * <p>The worker processes one layout at a time, so an instance of this class can be shared by multiple
+ * layout engines. Call {@link #close()} to terminate the worker process.</p>
+ *
+ * <p>The response of the worker is awaited on a separate reader thread, so a layout can be given a timeout
+ * and a cancel indicator. When either of them fires, the worker process is killed, since there is no other
+ * way to stop a layout algorithm that is running in it.</p>
+ */
+public class ElkLayoutWorkerProcess implements AutoCloseable {
+
+	private static final Logger LOG = Logger.getLogger(ElkLayoutWorkerProcess.class);
+
+	/**
+	 * Interval in milliseconds for polling the cancel indicator while waiting for the worker.
+	 */
+	private static final long POLL_INTERVAL = 50;
+
+	private final List<String> metaDataProviders;
+
+	private final ElkGraphCodec codec = new ElkGraphCodec();
+
+	private List<String> jvmArguments = new ArrayList<>();
+
+	private Process process;
+
+	private DataOutputStream toWorker;
+
+	private DataInputStream fromWorker;
+
+	private ExecutorService reader;
+
+	/**
+	 * Create a worker process that registers the given {@link org.eclipse.elk.core.data.ILayoutMetaDataProvider}
+	 * classes, which must be on the class path of the current process.
+	 */
+	public ElkLayoutWorkerProcess(String... metaDataProviderClassNames) {
+		this.metaDataProviders = Arrays.asList(metaDataProviderClassNames);
+	}
+
+	/**
+	 * Set additional arguments for the worker JVM, e.g. <code>-Xmx2g</code>. They are applied when the worker
+	 * process is started the next time.
+	 */
+	public void setJvmArguments(List<String> jvmArguments) {
+		this.jvmArguments = new ArrayList<>(jvmArguments);
+	}
+
+	public List<String> getJvmArguments() {
+		return jvmArguments;
+	}
+
+	/**
+	 * Lay out the given graph in the worker process and apply the result to it. If the worker process
+	 * dies during the layout, the layout is retried once with a new worker process.
+	 */
+	public void layout(ElkNode elkGraph) throws IOException {
+		layout(elkGraph, 0, () -> false);
+	}
+
+	/**
+	 * Lay out the given graph in the worker process and apply the result to it. If the worker process
+	 * dies during the layout, the layout is retried once with a new worker process within the same timeout.
+	 *
+	 * @param timeout
+	 *     the time in milliseconds to wait for the result, or zero for no limit
+	 * @param cancelIndicator
+	 *     polled while waiting for the result; the layout is aborted with a {@link CancellationException}
+	 *     as soon as it returns {@code true}
+	 * @return {@code false} if the timeout elapsed before the result was received, in which case the graph
+	 *     is left unchanged and the worker process is killed
+	 */
+	public synchronized boolean layout(ElkNode elkGraph, long timeout, BooleanSupplier cancelIndicator)
+			throws IOException {
+		if (timeout < 0)
+			throw new IllegalArgumentException("The timeout must not be negative");
+		long deadline = timeout > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout) : 0;
+		try {
+			return doLayout(elkGraph, deadline, cancelIndicator);
+		} catch (IOException exc) {
+			LOG.warn("Layout worker process failed, restarting it.", exc);
+			destroy();
+			return doLayout(elkGraph, deadline, cancelIndicator);
+		}
+	}
+
+	/**
+	 * Send the graph to the worker and apply its result. The deadline is a {@link System#nanoTime()} value,
+	 * or zero for no limit.
+	 */
+	protected boolean doLayout(ElkNode elkGraph, long deadline, BooleanSupplier cancelIndicator) throws IOException {
+		ensureStarted();
+		try {
+			codec.writeGraph(elkGraph, toWorker);
+			toWorker.flush();
+			DataInputStream in = fromWorker;
+			Future<Boolean> success = reader.submit(in::readBoolean);
+			if (!awaitResponse(success, deadline, cancelIndicator))
+				return false;
+			// The worker writes the whole result at once, so the rest of it is available without waiting
+			if (getResult(success))
+				codec.readLayout(elkGraph, in);
+			else
+				throw new IllegalStateException("Layout failed in worker process: " + in.readUTF());
+			return true;
+		} catch (IOException exc) {
+			destroy();
+			throw exc;
+		}
+	}
+
+	/**
+	 * Wait until the given response is available. The worker process is killed if the deadline passes or
+	 * the cancel indicator fires before that.
+	 */
+	protected boolean awaitResponse(Future<?> response, long deadline, BooleanSupplier cancelIndicator) {
+		while (!response.isDone()) {
+			if (cancelIndicator.getAsBoolean()) {
+				destroyForcibly();
+				throw new CancellationException("The layout has been cancelled.");
+			}
+			long wait = POLL_INTERVAL;
+			if (deadline != 0) {
+				long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+				if (remaining <= 0) {
+					LOG.warn("Layout worker process exceeded its timeout, killing it.");
+					destroyForcibly();
+					return false;
+				}
+				wait = Math.min(wait, remaining);
+			}
+			try {
+				response.get(wait, TimeUnit.MILLISECONDS);
+			} catch (TimeoutException | ExecutionException exc) {
+				// Check the deadline and the cancel indicator again, or report the failure below
+			} catch (InterruptedException exc) {
+				Thread.currentThread().interrupt();
+				destroyForcibly();
+				throw new CancellationException("The layout has been interrupted.");
+			}
+		}
+		return true;
+	}
+
+	private boolean getResult(Future<Boolean> response) throws IOException {
+		try {
+			return response.get();
+		} catch (ExecutionException exc) {
+			if (exc.getCause() instanceof IOException)
+				throw (IOException) exc.getCause();
+			throw new IOException(exc.getCause());
+		} catch (InterruptedException exc) {
+			Thread.currentThread().interrupt();
+			throw new CancellationException("The layout has been interrupted.");
+		}
+	}
+
+	/**
+	 * Whether the worker process is currently running.
+	 */
+	public synchronized boolean isAlive() {
+		return process != null && process.isAlive();
+	}
+
+	@Override
+	public synchronized void close() {
+		destroy();
+		if (reader != null) {
+			reader.shutdownNow();
+			reader = null;
+		}
+	}
+
+	protected void ensureStarted() throws IOException {
+		if (process != null && process.isAlive())
+			return;
+		destroy();
+		ProcessBuilder builder = new ProcessBuilder(createCommand());
+		builder.redirectError(Redirect.INHERIT);
+		process = builder.start();
+		if (reader == null) {
+			reader = Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "ELK layout worker reader");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		toWorker = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+		fromWorker = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+	}
+
+	protected List<String> createCommand() {
+		List<String> command = new ArrayList<>();
+		command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+		command.addAll(jvmArguments);
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(ElkLayoutWorker.class.getName());
+		command.addAll(metaDataProviders);
+		return command;
+	}
+
+	protected void destroy() {
+		if (process != null) {
+			process.destroy();
+			process = null;
+			toWorker = null;
+			fromWorker = null;
+		}
+	}
+
+	/**
+	 * Kill the worker process without giving it a chance to finish, which also unblocks the reader thread.
+	 */
+	protected void destroyForcibly() {
+		if (process != null) {
+			process.destroyForcibly();
+			process = null;
+			toWorker = null;
+			fromWorker = null;
+		}
+	}
+
+}
@@ -0,0 +1,303 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty.layout;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+import org.eclipse.elk.core.data.LayoutMetaDataService;
+import org.eclipse.elk.core.data.LayoutOptionData;
+import org.eclipse.elk.core.util.IDataObject;
+import org.eclipse.elk.graph.ElkConnectableShape;
+import org.eclipse.elk.graph.ElkEdge;
+import org.eclipse.elk.graph.ElkGraphElement;
+import org.eclipse.elk.graph.ElkLabel;
+import org.eclipse.elk.graph.ElkNode;
+import org.eclipse.elk.graph.ElkPort;
+import org.eclipse.elk.graph.ElkShape;
+import org.eclipse.elk.graph.properties.IProperty;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Bounded LRU cache of computed layouts, keyed by a SHA-256 hash of the canonical form of the configured ELK
+ * graph. Since the key covers the complete layout input including all layout options, a cached layout can be
+ * applied without running the layout algorithm. Optionally the entries are also stored in a local directory,
+ * so they survive a restart of the server.
+ *
+ * <p>Only registered layout options are part of the key, in the string form that ELK uses to serialize them.
+ * Other properties are ignored. A graph with a layout option value that has no such string form cannot be
+ * cached.</p>
+ *
+ * <p>A cache must only be shared between layout engines that use the same graph layout engine and algorithms.
+ * Files in the cache directory are not evicted automatically.</p>
+ */
+public class LayoutCache {
+
+	private static final Logger LOG = Logger.getLogger(LayoutCache.class);
+
+	public static final int DEFAULT_MAX_SIZE = 100;
+
+	private static final String FILE_EXTENSION = ".layout";
+
+	private final Map<String, LayoutSnapshot> entries;
+
+	private final Path directory;
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+
+	public LayoutCache() {
+		this(DEFAULT_MAX_SIZE, null);
+	}
+
+	public LayoutCache(int maxSize) {
+		this(maxSize, null);
+	}
+
+	/**
+	 * Create a cache that keeps at most {@code maxSize} layouts in memory and additionally stores all layouts
+	 * in the given directory (or only in memory if the directory is {@code null}).
+	 */
+	public LayoutCache(int maxSize, Path directory) {
+		if (maxSize <= 0)
+			throw new IllegalArgumentException("maxSize must be positive");
+		this.entries = Collections.synchronizedMap(new LinkedHashMap<String, LayoutSnapshot>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, LayoutSnapshot> eldest) {
+				return size() > maxSize;
+			}
+		});
+		this.directory = directory;
+	}
+
+	/**
+	 * Compute the cache key for the given ELK graph. Layout options must already be configured on the graph.
+	 * Returns {@code null} if the graph cannot be cached.
+	 */
+	public String computeKey(ElkNode elkGraph, Map<ElkGraphElement, String> ids) {
+		Hasher hasher = Hashing.sha256().newHasher();
+		if (!hashNode(hasher, elkGraph, ids))
+			return null;
+		return hasher.hash().toString();
+	}
+
+	/**
+	 * Return the layout stored for the given key, or {@code null} if there is none.
+	 */
+	public LayoutSnapshot get(String key) {
+		LayoutSnapshot snapshot = entries.get(key);
+		if (snapshot == null && directory != null) {
+			snapshot = load(key);
+			if (snapshot != null)
+				entries.put(key, snapshot);
+		}
+		if (snapshot != null)
+			hitCount.incrementAndGet();
+		else
+			missCount.incrementAndGet();
+		return snapshot;
+	}
+
+	/**
+	 * Store the layout for the given key.
+	 */
+	public void put(String key, LayoutSnapshot snapshot) {
+		entries.put(key, snapshot);
+		if (directory != null)
+			store(key, snapshot);
+	}
+
+	/**
+	 * Remove all layouts from memory. Layouts stored in the cache directory are kept.
+	 */
+	public void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * The number of layouts held in memory.
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	protected LayoutSnapshot load(String key) {
+		Path file = directory.resolve(key + FILE_EXTENSION);
+		if (!Files.isRegularFile(file))
+			return null;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			return LayoutSnapshot.read(in);
+		} catch (IOException exc) {
+			LOG.warn("Failed to read cached layout " + file, exc);
+			return null;
+		}
+	}
+
+	protected void store(String key, LayoutSnapshot snapshot) {
+		try {
+			Files.createDirectories(directory);
+			// Write to a temporary file first so concurrent readers never see a partial entry
+			Path tempFile = Files.createTempFile(directory, key, ".tmp");
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+				snapshot.write(out);
+			}
+			Files.move(tempFile, directory.resolve(key + FILE_EXTENSION), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException exc) {
+			LOG.warn("Failed to store cached layout in " + directory, exc);
+		}
+	}
+
+	/**
+	 * Hash the given node with its subgraph. Returns {@code false} if it contains an option value that
+	 * cannot be hashed; the state of the hasher is undefined in that case.
+	 */
+	private boolean hashNode(Hasher hasher, ElkNode node, Map<ElkGraphElement, String> ids) {
+		if (!hashShape(hasher, node, ids))
+			return false;
+		hasher.putInt(node.getPorts().size());
+		for (ElkPort port : node.getPorts()) {
+			if (!hashShape(hasher, port, ids))
+				return false;
+		}
+		hasher.putInt(node.getChildren().size());
+		for (ElkNode child : node.getChildren()) {
+			if (!hashNode(hasher, child, ids))
+				return false;
+		}
+		hasher.putInt(node.getContainedEdges().size());
+		for (ElkEdge edge : node.getContainedEdges()) {
+			hashString(hasher, ids.get(edge));
+			if (!hashProperties(hasher, edge))
+				return false;
+			hasher.putInt(edge.getSources().size());
+			for (ElkConnectableShape source : edge.getSources()) {
+				hashString(hasher, ids.get(source));
+			}
+			hasher.putInt(edge.getTargets().size());
+			for (ElkConnectableShape target : edge.getTargets()) {
+				hashString(hasher, ids.get(target));
+			}
+			if (!hashLabels(hasher, edge.getLabels(), ids))
+				return false;
+		}
+		return true;
+	}
+
+	private boolean hashShape(Hasher hasher, ElkShape shape, Map<ElkGraphElement, String> ids) {
+		hashString(hasher, ids.get(shape));
+		hasher.putDouble(shape.getX());
+		hasher.putDouble(shape.getY());
+		hasher.putDouble(shape.getWidth());
+		hasher.putDouble(shape.getHeight());
+		if (!hashProperties(hasher, shape))
+			return false;
+		if (shape instanceof ElkLabel)
+			hashString(hasher, ((ElkLabel) shape).getText());
+		return hashLabels(hasher, shape.getLabels(), ids);
+	}
+
+	private boolean hashLabels(Hasher hasher, List<ElkLabel> labels, Map<ElkGraphElement, String> ids) {
+		hasher.putInt(labels.size());
+		for (ElkLabel label : labels) {
+			if (!hashShape(hasher, label, ids))
+				return false;
+		}
+		return true;
+	}
+
+	private boolean hashProperties(Hasher hasher, ElkGraphElement element) {
+		LayoutMetaDataService metaDataService = LayoutMetaDataService.getInstance();
+		List<Map.Entry<LayoutOptionData, Object>> options = new ArrayList<>();
+		for (Map.Entry<IProperty<?>, Object> entry : element.getAllProperties().entrySet()) {
+			LayoutOptionData optionData = metaDataService.getOptionData(entry.getKey().getId());
+			if (optionData != null && entry.getValue() != null)
+				options.add(new AbstractMap.SimpleImmutableEntry<>(optionData, entry.getValue()));
+		}
+		// Sort the options by id to get a canonical order
+		options.sort(Comparator.comparing(entry -> entry.getKey().getId()));
+		hasher.putInt(options.size());
+		for (Map.Entry<LayoutOptionData, Object> entry : options) {
+			String value = serializeValue(entry.getKey(), entry.getValue());
+			if (value == null)
+				return false;
+			hashString(hasher, entry.getKey().getId());
+			hashString(hasher, value);
+		}
+		return true;
+	}
+
+	/**
+	 * Return the string form of a layout option value as it is parsed by
+	 * {@link LayoutOptionData#parseValue(String)}, or {@code null} if the value has none. Values of object
+	 * options are only serialized if they are {@link IDataObject}s, since other objects may use the identity
+	 * based {@link Object#toString()}, which would make the key differ for every layout.
+	 */
+	protected String serializeValue(LayoutOptionData optionData, Object value) {
+		switch (optionData.getType()) {
+			case BOOLEAN:
+			case INT:
+			case DOUBLE:
+			case STRING:
+			case ENUM:
+			case ENUMSET:
+				return value.toString();
+			case OBJECT:
+				return value instanceof IDataObject ? value.toString() : null;
+			default:
+				return null;
+		}
+	}
+
+	private void hashString(Hasher hasher, String value) {
+		if (value == null) {
+			hasher.putInt(-1);
+		} else {
+			hasher.putInt(value.length());
+			hasher.putUnencodedChars(value);
+		}
+	}
+
+}
@@ -0,0 +1,338 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty.layout;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.eclipse.elk.core.options.CoreOptions;
+import org.eclipse.elk.graph.ElkBendPoint;
+import org.eclipse.elk.graph.ElkConnectableShape;
+import org.eclipse.elk.graph.ElkEdge;
+import org.eclipse.elk.graph.ElkEdgeSection;
+import org.eclipse.elk.graph.ElkGraphElement;
+import org.eclipse.elk.graph.ElkLabel;
+import org.eclipse.elk.graph.ElkNode;
+import org.eclipse.elk.graph.ElkPort;
+import org.eclipse.elk.graph.ElkShape;
+import org.eclipse.elk.graph.properties.IProperty;
+import org.eclipse.elk.graph.util.ElkGraphUtil;
+import org.eclipse.sprotty.SEdge;
+import org.eclipse.sprotty.SModelElement;
+import org.eclipse.sprotty.layout.ElkLayoutEngine.LayoutContext;
+
+import com.google.common.collect.Maps;
+
+/**
+ * The result of a layout computation together with signatures of the layout input, used by
+ * {@link ElkLayoutEngine} for incremental layout and stored in the {@link LayoutCache}.
+ *
+ * <p>The signature of a compound node covers the complete input of its subtree, i.e. the geometry,
+ * layout options, labels, ports, and contained edges of the node and all its descendants. If the
+ * signature of a compound node equals the one recorded in the previous snapshot, the previously
+ * computed layout of its subtree is still valid and can be restored instead of being computed again.</p>
+ */
+public class LayoutSnapshot {
+
+	private static final String FIXED_ALGORITHM = "org.eclipse.elk.fixed";
+
+	private final Map<String, Long> signatures;
+	private final Map<String, double[]> geometry;
+
+	protected LayoutSnapshot(Map<String, Long> signatures, Map<String, double[]> geometry) {
+		this.signatures = signatures;
+		this.geometry = geometry;
+	}
+
+	/**
+	 * Map the ELK graph elements of the given context to the ids of their sprotty counterparts.
+	 */
+	public static Map<ElkGraphElement, String> collectIds(LayoutContext context) {
+		Map<ElkGraphElement, String> ids = new IdentityHashMap<>(context.shapeMap.size() + context.edgeMap.size());
+		for (Map.Entry<SModelElement, ElkShape> entry : context.shapeMap.entrySet()) {
+			if (entry.getKey().getId() != null)
+				ids.put(entry.getValue(), entry.getKey().getId());
+		}
+		for (Map.Entry<SEdge, ElkEdge> entry : context.edgeMap.entrySet()) {
+			if (entry.getKey().getId() != null)
+				ids.put(entry.getValue(), entry.getKey().getId());
+		}
+		return ids;
+	}
+
+	/**
+	 * Compute the signatures of the root node and all compound nodes of the given ELK graph.
+	 * Layout options must already be configured on the graph.
+	 */
+	public static Map<String, Long> computeSignatures(ElkNode elkGraph, Map<ElkGraphElement, String> ids) {
+		Map<String, Long> signatures = Maps.newHashMap();
+		hashNode(elkGraph, ids, signatures);
+		return signatures;
+	}
+
+	/**
+	 * Record the layout computed for the given ELK graph elements.
+	 */
+	public static LayoutSnapshot record(Map<ElkGraphElement, String> ids, Map<String, Long> signatures) {
+		Map<String, double[]> geometry = Maps.newHashMapWithExpectedSize(ids.size());
+		for (Map.Entry<ElkGraphElement, String> entry : ids.entrySet()) {
+			ElkGraphElement element = entry.getKey();
+			if (element instanceof ElkShape) {
+				ElkShape shape = (ElkShape) element;
+				geometry.put(entry.getValue(), new double[] { shape.getX(), shape.getY(), shape.getWidth(), shape.getHeight() });
+			} else if (element instanceof ElkEdge) {
+				geometry.put(entry.getValue(), recordSections((ElkEdge) element));
+			}
+		}
+		return new LayoutSnapshot(signatures, geometry);
+	}
+
+	/**
+	 * Restore the layout of all subgraphs of the given node whose signature has not changed since this
+	 * snapshot was recorded, and freeze them so the layout engine does not compute them again.
+	 *
+	 * @return {@code true} if the given node still needs to be laid out, {@code false} if its whole
+	 *     subtree has been restored
+	 */
+	public boolean restoreUnchanged(ElkNode node, Map<ElkGraphElement, String> ids, Map<String, Long> newSignatures) {
+		String id = ids.get(node);
+		if (id != null) {
+			Long oldSignature = signatures.get(id);
+			if (oldSignature != null && oldSignature.equals(newSignatures.get(id)) && geometry.containsKey(id)) {
+				restore(node, ids);
+				return false;
+			}
+		}
+		for (ElkNode child : node.getChildren()) {
+			if (!child.getChildren().isEmpty())
+				restoreUnchanged(child, ids, newSignatures);
+		}
+		return true;
+	}
+
+	/**
+	 * Restore the layout of the complete subtree of the given node.
+	 */
+	public void restoreAll(ElkNode node, Map<ElkGraphElement, String> ids) {
+		restore(node, ids);
+	}
+
+	/**
+	 * The number of compound nodes for which this snapshot holds a signature.
+	 */
+	public int getSignatureCount() {
+		return signatures.size();
+	}
+
+	protected void restore(ElkNode node, Map<ElkGraphElement, String> ids) {
+		restoreShape(node, ids);
+		for (ElkPort port : node.getPorts()) {
+			restoreShape(port, ids);
+		}
+		if (!node.getChildren().isEmpty()) {
+			// The fixed layout keeps the restored positions of the children, and the node keeps its restored size
+			node.setProperty(CoreOptions.ALGORITHM, FIXED_ALGORITHM);
+			node.setProperty(CoreOptions.NODE_SIZE_FIXED_GRAPH_SIZE, true);
+			for (ElkNode child : node.getChildren()) {
+				restore(child, ids);
+			}
+			for (ElkEdge edge : node.getContainedEdges()) {
+				restoreEdge(edge, ids);
+			}
+		}
+	}
+
+	protected void restoreShape(ElkShape shape, Map<ElkGraphElement, String> ids) {
+		double[] data = geometry.get(ids.get(shape));
+		if (data != null) {
+			shape.setLocation(data[0], data[1]);
+			shape.setDimensions(data[2], data[3]);
+		}
+		for (ElkLabel label : shape.getLabels()) {
+			restoreShape(label, ids);
+		}
+	}
+
+	protected void restoreEdge(ElkEdge edge, Map<ElkGraphElement, String> ids) {
+		double[] data = geometry.get(ids.get(edge));
+		if (data != null) {
+			edge.getSections().clear();
+			int i = 0;
+			int sectionCount = (int) data[i++];
+			for (int s = 0; s < sectionCount; s++) {
+				ElkEdgeSection section = ElkGraphUtil.createEdgeSection(edge);
+				section.setStartLocation(data[i++], data[i++]);
+				int bendPointCount = (int) data[i++];
+				for (int b = 0; b < bendPointCount; b++) {
+					ElkGraphUtil.createBendPoint(section, data[i++], data[i++]);
+				}
+				section.setEndLocation(data[i++], data[i++]);
+			}
+		}
+		for (ElkLabel label : edge.getLabels()) {
+			restoreShape(label, ids);
+		}
+	}
+
+	/**
+	 * Write this snapshot in a binary format that can be read with {@link #read(DataInputStream)}.
+	 */
+	public void write(DataOutputStream out) throws IOException {
+		out.writeInt(signatures.size());
+		for (Map.Entry<String, Long> entry : signatures.entrySet()) {
+			out.writeUTF(entry.getKey());
+			out.writeLong(entry.getValue());
+		}
+		out.writeInt(geometry.size());
+		for (Map.Entry<String, double[]> entry : geometry.entrySet()) {
+			out.writeUTF(entry.getKey());
+			double[] data = entry.getValue();
+			out.writeInt(data.length);
+			for (double value : data) {
+				out.writeDouble(value);
+			}
+		}
+	}
+
+	public static LayoutSnapshot read(DataInputStream in) throws IOException {
+		int signatureCount = in.readInt();
+		Map<String, Long> signatures = Maps.newHashMapWithExpectedSize(signatureCount);
+		for (int i = 0; i < signatureCount; i++) {
+			signatures.put(in.readUTF(), in.readLong());
+		}
+		int geometryCount = in.readInt();
+		Map<String, double[]> geometry = Maps.newHashMapWithExpectedSize(geometryCount);
+		for (int i = 0; i < geometryCount; i++) {
+			String id = in.readUTF();
+			double[] data = new double[in.readInt()];
+			for (int j = 0; j < data.length; j++) {
+				data[j] = in.readDouble();
+			}
+			geometry.put(id, data);
+		}
+		return new LayoutSnapshot(signatures, geometry);
+	}
+
+	private static double[] recordSections(ElkEdge edge) {
+		int length = 1;
+		for (ElkEdgeSection section : edge.getSections()) {
+			length += 5 + 2 * section.getBendPoints().size();
+		}
+		double[] data = new double[length];
+		int i = 0;
+		data[i++] = edge.getSections().size();
+		for (ElkEdgeSection section : edge.getSections()) {
+			data[i++] = section.getStartX();
+			data[i++] = section.getStartY();
+			data[i++] = section.getBendPoints().size();
+			for (ElkBendPoint bendPoint : section.getBendPoints()) {
+				data[i++] = bendPoint.getX();
+				data[i++] = bendPoint.getY();
+			}
+			data[i++] = section.getEndX();
+			data[i++] = section.getEndY();
+		}
+		return data;
+	}
+
+	private static long hashNode(ElkNode node, Map<ElkGraphElement, String> ids, Map<String, Long> signatures) {
+		Hasher hasher = new Hasher();
+		hashShape(hasher, node, ids);
+		for (ElkPort port : node.getPorts()) {
+			hashShape(hasher, port, ids);
+		}
+		for (ElkNode child : node.getChildren()) {
+			hasher.add(hashNode(child, ids, signatures));
+		}
+		for (ElkEdge edge : node.getContainedEdges()) {
+			hashEdge(hasher, edge, ids);
+		}
+		String id = ids.get(node);
+		if (id != null && (!node.getChildren().isEmpty() || node.getParent() == null))
+			signatures.put(id, hasher.hash);
+		return hasher.hash;
+	}
+
+	private static void hashShape(Hasher hasher, ElkShape shape, Map<ElkGraphElement, String> ids) {
+		hasher.add(ids.get(shape));
+		hasher.add(shape.getX());
+		hasher.add(shape.getY());
+		hasher.add(shape.getWidth());
+		hasher.add(shape.getHeight());
+		hashProperties(hasher, shape);
+		if (shape instanceof ElkLabel)
+			hasher.add(((ElkLabel) shape).getText());
+		for (ElkLabel label : shape.getLabels()) {
+			hashShape(hasher, label, ids);
+		}
+	}
+
+	private static void hashEdge(Hasher hasher, ElkEdge edge, Map<ElkGraphElement, String> ids) {
+		hasher.add(ids.get(edge));
+		hashProperties(hasher, edge);
+		for (ElkConnectableShape source : edge.getSources()) {
+			hasher.add(ids.get(source));
+		}
+		for (ElkConnectableShape target : edge.getTargets()) {
+			hasher.add(ids.get(target));
+		}
+		for (ElkLabel label : edge.getLabels()) {
+			hashShape(hasher, label, ids);
+		}
+	}
+
+	private static void hashProperties(Hasher hasher, ElkGraphElement element) {
+		// Combine the entries independently of their order
+		long sum = 0;
+		Map<IProperty<?>, Object> properties = element.getAllProperties();
+		for (Map.Entry<IProperty<?>, Object> entry : properties.entrySet()) {
+			Hasher entryHasher = new Hasher();
+			entryHasher.add(entry.getKey().getId());
+			entryHasher.add(String.valueOf(entry.getValue()));
+			sum += entryHasher.hash;
+		}
+		hasher.add(sum);
+		hasher.add(properties.size());
+	}
+
+	private static final class Hasher {
+
+		long hash = 0x9E3779B97F4A7C15L;
+
+		void add(long value) {
+			hash = Long.rotateLeft(hash ^ (value * 0xBF58476D1CE4E5B9L), 31) * 0x94D049BB133111EBL;
+		}
+
+		void add(double value) {
+			add(Double.doubleToLongBits(value));
+		}
+
+		void add(String value) {
+			if (value == null) {
+				add(-1L);
+			} else {
+				for (int i = 0; i < value.length(); i++) {
+					add((long) value.charAt(i));
+				}
+				add((long) value.length());
+			}
+		}
+	}
+
+}
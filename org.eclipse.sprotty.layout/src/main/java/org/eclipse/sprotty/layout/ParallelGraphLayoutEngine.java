@@ -0,0 +1,226 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty.layout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.eclipse.elk.core.RecursiveGraphLayoutEngine;
+import org.eclipse.elk.core.options.CoreOptions;
+import org.eclipse.elk.core.options.HierarchyHandling;
+import org.eclipse.elk.core.util.BasicProgressMonitor;
+import org.eclipse.elk.core.util.IElkProgressMonitor;
+import org.eclipse.elk.graph.ElkConnectableShape;
+import org.eclipse.elk.graph.ElkEdge;
+import org.eclipse.elk.graph.ElkNode;
+import org.eclipse.elk.graph.ElkPort;
+
+/**
+ * A {@link RecursiveGraphLayoutEngine} that lays out independent subgraphs concurrently.
+ *
+ * <p>A compound node is independent if no edge connects an element of its subgraph with an element
+ * outside of it. The subgraphs of independent compound nodes are laid out in parallel on a fork-join pool.
+ * Afterwards they are frozen with the fixed layout algorithm while the remaining hierarchy levels are
+ * laid out, so the result is the same as with sequential layout. Graphs that use the
+ * {@link HierarchyHandling#INCLUDE_CHILDREN INCLUDE_CHILDREN} hierarchy handling are always laid out
+ * sequentially.</p>
+ *
+ * <p>Use this engine with {@link ElkLayoutEngine#setEngine(org.eclipse.elk.core.IGraphLayoutEngine)}.</p>
+ */
+public class ParallelGraphLayoutEngine extends RecursiveGraphLayoutEngine {
+
+	private static final String FIXED_ALGORITHM = "org.eclipse.elk.fixed";
+
+	private ForkJoinPool pool;
+
+	public ParallelGraphLayoutEngine() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	public ParallelGraphLayoutEngine(ForkJoinPool pool) {
+		setPool(pool);
+	}
+
+	/**
+	 * Set the pool on which independent subgraphs are laid out. The default is the common pool.
+	 */
+	public void setPool(ForkJoinPool pool) {
+		if (pool == null)
+			throw new NullPointerException();
+		this.pool = pool;
+	}
+
+	public ForkJoinPool getPool() {
+		return pool;
+	}
+
+	@Override
+	public void layout(ElkNode layoutGraph, IElkProgressMonitor progressMonitor) {
+		List<ElkNode> subgraphs = hasIncludedChildren(layoutGraph)
+				? new ArrayList<>() : findIndependentSubgraphs(layoutGraph);
+		while (subgraphs.size() == 1) {
+			// A single subgraph gains nothing from being laid out separately, so look for parallelism inside it
+			subgraphs = findIndependentSubgraphs(subgraphs.get(0));
+		}
+		if (subgraphs.isEmpty()) {
+			super.layout(layoutGraph, progressMonitor);
+			return;
+		}
+
+		List<ForkJoinTask<?>> tasks = new ArrayList<>(subgraphs.size());
+		for (ElkNode subgraph : subgraphs) {
+			tasks.add(pool.submit(() -> layoutSubgraph(subgraph, progressMonitor)));
+		}
+		for (ForkJoinTask<?> task : tasks) {
+			task.join();
+		}
+		if (progressMonitor.isCanceled())
+			return;
+
+		List<FrozenNode> frozenNodes = new ArrayList<>();
+		try {
+			for (ElkNode subgraph : subgraphs) {
+				freeze(subgraph, frozenNodes);
+			}
+			super.layout(layoutGraph, progressMonitor);
+		} finally {
+			for (FrozenNode frozenNode : frozenNodes) {
+				frozenNode.restore();
+			}
+		}
+	}
+
+	/**
+	 * Lay out the given subgraph, which is independent of the rest of the graph. The subgraph layout is
+	 * cancelled together with the given monitor of the whole layout.
+	 */
+	protected void layoutSubgraph(ElkNode subgraph, IElkProgressMonitor progressMonitor) {
+		super.layout(subgraph, new BasicProgressMonitor() {
+			@Override
+			public boolean isCanceled() {
+				return progressMonitor.isCanceled();
+			}
+		});
+	}
+
+	/**
+	 * Find the topmost independent compound nodes below the given node.
+	 */
+	protected List<ElkNode> findIndependentSubgraphs(ElkNode node) {
+		List<ElkNode> result = new ArrayList<>();
+		collectIndependentSubgraphs(node, result);
+		return result;
+	}
+
+	private void collectIndependentSubgraphs(ElkNode node, List<ElkNode> result) {
+		for (ElkNode child : node.getChildren()) {
+			if (!child.getChildren().isEmpty()) {
+				if (isIndependent(child, child))
+					result.add(child);
+				else
+					collectIndependentSubgraphs(child, result);
+			}
+		}
+	}
+
+	/**
+	 * Return true if no edge connects the children of the given node (or their descendants)
+	 * with an element outside the subgraph of the given root.
+	 */
+	private boolean isIndependent(ElkNode node, ElkNode root) {
+		for (ElkNode child : node.getChildren()) {
+			if (!isInternal(child, root))
+				return false;
+			for (ElkPort port : child.getPorts()) {
+				if (!isInternal(port, root))
+					return false;
+			}
+			if (!isIndependent(child, root))
+				return false;
+		}
+		return true;
+	}
+
+	private boolean isInternal(ElkConnectableShape shape, ElkNode root) {
+		for (ElkEdge edge : shape.getOutgoingEdges()) {
+			for (ElkConnectableShape target : edge.getTargets()) {
+				if (!isContained(target, root))
+					return false;
+			}
+		}
+		for (ElkEdge edge : shape.getIncomingEdges()) {
+			for (ElkConnectableShape source : edge.getSources()) {
+				if (!isContained(source, root))
+					return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean isContained(ElkConnectableShape shape, ElkNode root) {
+		ElkNode node = shape instanceof ElkPort ? ((ElkPort) shape).getParent() : (ElkNode) shape;
+		while (node != null) {
+			if (node == root)
+				return true;
+			node = node.getParent();
+		}
+		return false;
+	}
+
+	private void freeze(ElkNode node, List<FrozenNode> frozenNodes) {
+		frozenNodes.add(new FrozenNode(node));
+		for (ElkNode child : node.getChildren()) {
+			if (!child.getChildren().isEmpty())
+				freeze(child, frozenNodes);
+		}
+	}
+
+	private boolean hasIncludedChildren(ElkNode node) {
+		if (node.getProperty(CoreOptions.HIERARCHY_HANDLING) == HierarchyHandling.INCLUDE_CHILDREN)
+			return true;
+		for (ElkNode child : node.getChildren()) {
+			if (!child.getChildren().isEmpty() && hasIncludedChildren(child))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * A compound node that keeps its computed layout while the rest of the graph is laid out.
+	 */
+	private static class FrozenNode {
+		final ElkNode node;
+		final String algorithm;
+		final Boolean fixedGraphSize;
+
+		FrozenNode(ElkNode node) {
+			this.node = node;
+			this.algorithm = node.hasProperty(CoreOptions.ALGORITHM) ? node.getProperty(CoreOptions.ALGORITHM) : null;
+			this.fixedGraphSize = node.hasProperty(CoreOptions.NODE_SIZE_FIXED_GRAPH_SIZE)
+					? node.getProperty(CoreOptions.NODE_SIZE_FIXED_GRAPH_SIZE) : null;
+			node.setProperty(CoreOptions.ALGORITHM, FIXED_ALGORITHM);
+			node.setProperty(CoreOptions.NODE_SIZE_FIXED_GRAPH_SIZE, true);
+		}
+
+		void restore() {
+			node.setProperty(CoreOptions.ALGORITHM, algorithm);
+			node.setProperty(CoreOptions.NODE_SIZE_FIXED_GRAPH_SIZE, fixedGraphSize);
+		}
+	}
+
+}
@@ -0,0 +1,76 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty.layout;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+import org.eclipse.elk.graph.ElkNode;
+
+/**
+ * An {@link ElkLayoutEngine} that computes the layout in an {@link ElkLayoutWorkerProcess}. The sprotty
+ * model is transformed and configured in the current process as usual, and only the resulting ELK graph
+ * is sent to the worker. The {@link #setEngine(org.eclipse.elk.core.IGraphLayoutEngine) graph layout engine}
+ * of this engine is not used; the worker always applies the recursive graph layout engine.
+ *
+ * <p>The {@link #setTimeBudget(long, java.util.concurrent.TimeUnit) time budget} and the cancel indicator
+ * are enforced by killing the worker process, so unlike in-process layouts they also interrupt a layout
+ * algorithm in the middle of a processing step. When the budget is exceeded, the layout is computed again
+ * with the {@link #setFallbackAlgorithm(String) fallback algorithm} in a new worker process, or aborted with
+ * a {@link CancellationException} if there is none.</p>
+ */
+public class RemoteElkLayoutEngine extends ElkLayoutEngine {
+
+	private ElkLayoutWorkerProcess workerProcess;
+
+	public RemoteElkLayoutEngine(ElkLayoutWorkerProcess workerProcess) {
+		setWorkerProcess(workerProcess);
+	}
+
+	public void setWorkerProcess(ElkLayoutWorkerProcess workerProcess) {
+		if (workerProcess == null)
+			throw new NullPointerException();
+		this.workerProcess = workerProcess;
+	}
+
+	public ElkLayoutWorkerProcess getWorkerProcess() {
+		return workerProcess;
+	}
+
+	@Override
+	protected void applyEngine(ElkNode elkGraph) {
+		BooleanSupplier cancelIndicator = getCancelIndicator();
+		if (cancelIndicator.getAsBoolean())
+			throw new CancellationException("The layout has been cancelled.");
+		try {
+			if (!getWorkerProcess().layout(elkGraph, getTimeBudget(), cancelIndicator)) {
+				String fallback = getFallbackAlgorithm();
+				if (fallback == null)
+					throw new CancellationException("The layout exceeded its time budget of " + getTimeBudget() + " ms.");
+				applyFallbackAlgorithm(elkGraph, fallback);
+				elkGraph.setProperty(P_FALLBACK_APPLIED, true);
+				getWorkerProcess().layout(elkGraph, 0, cancelIndicator);
+			}
+		} catch (IOException exc) {
+			throw new UncheckedIOException("Communication with the layout worker process failed.", exc);
+		}
+		if (cancelIndicator.getAsBoolean())
+			throw new CancellationException("The layout has been cancelled.");
+	}
+
+}
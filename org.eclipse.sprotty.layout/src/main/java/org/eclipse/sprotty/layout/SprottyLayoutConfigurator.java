@@ -16,7 +16,6 @@
 package org.eclipse.sprotty.layout;
 
 import java.util.Map;
-import java.util.regex.Pattern;
 
 import org.eclipse.elk.core.LayoutConfigurator;
 import org.eclipse.elk.graph.ElkGraphElement;
@@ -31,13 +30,43 @@ import com.google.common.collect.Maps;
  */
 public class SprottyLayoutConfigurator extends LayoutConfigurator {
 	
-	private static Pattern ID_REPLACE_PATTERN = Pattern.compile("\\W|^\\d");
-	
+	/**
+	 * Convert a sprotty id into a valid ELK identifier: every character that is not an ASCII letter, digit
+	 * or underscore, as well as a leading digit, is replaced by an underscore. If the id is already valid,
+	 * the same string is returned without allocating a copy.
+	 */
 	public static String toElkId(String sprottyId) {
 		if (sprottyId == null || sprottyId.isEmpty())
 			return null;
-		else
-			return ID_REPLACE_PATTERN.matcher(sprottyId).replaceAll("_");
+		int length = sprottyId.length();
+		int i = 0;
+		if (!isDigit(sprottyId.charAt(0))) {
+			while (i < length && isWordChar(sprottyId.charAt(i))) {
+				i++;
+			}
+			if (i == length)
+				return sprottyId;
+		}
+		StringBuilder result = new StringBuilder(length);
+		result.append(sprottyId, 0, i);
+		while (i < length) {
+			int codePoint = sprottyId.codePointAt(i);
+			if (i == 0 || !isWordChar(codePoint))
+				result.append('_');
+			else
+				result.append((char) codePoint);
+			// A supplementary character is replaced by a single underscore
+			i += Character.charCount(codePoint);
+		}
+		return result.toString();
+	}
+	
+	private static boolean isDigit(int c) {
+		return c >= '0' && c <= '9';
+	}
+	
+	private static boolean isWordChar(int c) {
+		return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || isDigit(c) || c == '_';
 	}
 	
     private final Map<String, MapPropertyHolder> idOptionMap = Maps.newHashMap();
@@ -79,10 +108,18 @@ public class SprottyLayoutConfigurator extends LayoutConfigurator {
     @Override
     public void visit(final ElkGraphElement element) {
         super.visit(element);
-        IPropertyHolder typeProperties = getPropertiesByType(element.getProperty(ElkLayoutEngine.P_TYPE));
-        applyProperties(element, typeProperties);
-        IPropertyHolder idProperties = getPropertiesById(element.getIdentifier());
-        applyProperties(element, idProperties);
+        // Skip the lookups entirely for configurators that don't use type or id options
+        if (!typeOptionMap.isEmpty()) {
+            String type = element.getProperty(ElkLayoutEngine.P_TYPE);
+            if (type != null)
+                applyProperties(element, typeOptionMap.get(type));
+        }
+        if (!idOptionMap.isEmpty()) {
+            // Identifiers created by the ElkLayoutEngine are already valid, so this does not allocate
+            String id = toElkId(element.getIdentifier());
+            if (id != null)
+                applyProperties(element, idOptionMap.get(id));
+        }
     }
     
     @Override
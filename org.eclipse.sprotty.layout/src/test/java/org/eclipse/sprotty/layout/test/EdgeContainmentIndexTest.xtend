@@ -0,0 +1,61 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty.layout.test
+
+import java.util.List
+import org.eclipse.elk.graph.ElkConnectableShape
+import org.eclipse.elk.graph.ElkNode
+import org.eclipse.elk.graph.util.ElkGraphUtil
+import org.eclipse.sprotty.layout.EdgeContainmentIndex
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+class EdgeContainmentIndexTest {
+
+	@Test
+	def void testSameContainmentAsElkGraphUtil() {
+		val graph = ElkGraphUtil.createGraph
+		val List<ElkConnectableShape> shapes = newArrayList
+		createNodes(graph, 3, shapes)
+		val index = new EdgeContainmentIndex(graph)
+		for (source : shapes) {
+			for (target : shapes) {
+				val edge = ElkGraphUtil.createSimpleEdge(source, target)
+				assertSame(ElkGraphUtil.findBestEdgeContainment(edge), index.findBestContainment(source, target))
+			}
+		}
+	}
+
+	@Test
+	def void testUnknownNode() {
+		val graph = ElkGraphUtil.createGraph
+		val node = ElkGraphUtil.createNode(graph)
+		val index = new EdgeContainmentIndex(graph)
+		assertNull(index.findBestContainment(node, ElkGraphUtil.createNode(graph)))
+	}
+
+	private def void createNodes(ElkNode parent, int depth, List<ElkConnectableShape> shapes) {
+		for (i : 0 ..< 2) {
+			val node = ElkGraphUtil.createNode(parent)
+			shapes += node
+			shapes += ElkGraphUtil.createPort(node)
+			if (depth > 1)
+				createNodes(node, depth - 1, shapes)
+		}
+	}
+
+}
@@ -0,0 +1,70 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty.layout.test
+
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import org.eclipse.elk.core.RecursiveGraphLayoutEngine
+import org.eclipse.elk.core.options.CoreOptions
+import org.eclipse.elk.core.util.BasicProgressMonitor
+import org.eclipse.elk.graph.ElkNode
+import org.eclipse.elk.graph.util.ElkGraphUtil
+import org.eclipse.sprotty.layout.ElkGraphCodec
+import org.eclipse.sprotty.layout.ElkLayoutWorker
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+class ElkGraphCodecTest {
+	
+	@Test
+	def void testWorkerRoundTrip() {
+		val expected = createGraph
+		new RecursiveGraphLayoutEngine().layout(expected, new BasicProgressMonitor)
+		
+		val codec = new ElkGraphCodec
+		val graph = createGraph
+		val request = new ByteArrayOutputStream
+		codec.writeGraph(graph, new DataOutputStream(request))
+		val response = new ByteArrayOutputStream
+		new ElkLayoutWorker().run(new DataInputStream(new ByteArrayInputStream(request.toByteArray)),
+			new DataOutputStream(response))
+		val in = new DataInputStream(new ByteArrayInputStream(response.toByteArray))
+		assertTrue(in.readBoolean)
+		codec.readLayout(graph, in)
+		
+		assertEquals(expected.toGeometry, graph.toGeometry)
+	}
+	
+	private def createGraph() {
+		val graph = ElkGraphUtil.createGraph
+		graph.setProperty(CoreOptions.ALGORITHM, 'org.eclipse.elk.box')
+		for (i : 0 ..< 3) {
+			val node = ElkGraphUtil.createNode(graph)
+			node.setDimensions(10 * (i + 1), 20)
+			ElkGraphUtil.createPort(node).setDimensions(5, 5)
+		}
+		ElkGraphUtil.createSimpleEdge(graph.children.get(0).ports.head, graph.children.get(1).ports.head)
+		return graph
+	}
+	
+	private def String toGeometry(ElkNode graph) {
+		'''«graph.width»x«graph.height»«FOR node : graph.children» («node.x»,«node.y»)«ENDFOR»'''
+	}
+	
+}
@@ -16,33 +16,54 @@
 package org.eclipse.sprotty.layout.test
 
 import com.google.inject.Inject
+import java.util.List
+import java.util.concurrent.CancellationException
+import java.util.concurrent.TimeUnit
+import org.eclipse.elk.alg.layered.options.LayeredMetaDataProvider
+import org.eclipse.elk.core.RecursiveGraphLayoutEngine
 import org.eclipse.elk.core.math.ElkPadding
 import org.eclipse.elk.core.math.KVector
 import org.eclipse.elk.core.math.KVectorChain
 import org.eclipse.elk.core.options.CoreOptions
+import org.eclipse.elk.core.util.IElkProgressMonitor
 import org.eclipse.elk.graph.ElkNode
+import org.eclipse.elk.graph.properties.Property
 import org.eclipse.sprotty.Action
 import org.eclipse.sprotty.Dimension
+import org.eclipse.sprotty.LayoutAction
 import org.eclipse.sprotty.Point
 import org.eclipse.sprotty.SCompartment
 import org.eclipse.sprotty.SEdge
 import org.eclipse.sprotty.SGraph
 import org.eclipse.sprotty.SLabel
+import org.eclipse.sprotty.SModelElement
+import org.eclipse.sprotty.SModelIndex
 import org.eclipse.sprotty.SModelRoot
 import org.eclipse.sprotty.SNode
 import org.eclipse.sprotty.SPort
 import org.eclipse.sprotty.layout.ElkLayoutEngine
+import org.eclipse.sprotty.layout.LayoutCache
+import org.eclipse.sprotty.layout.ParallelGraphLayoutEngine
 import org.eclipse.sprotty.layout.SprottyLayoutConfigurator
+import org.junit.BeforeClass
+import org.junit.Rule
 import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+import static org.junit.Assert.*
 
 class ElkLayoutEngineTest extends AbstractElkTest {
 	
+	static val LAYERED = 'org.eclipse.elk.layered'
+	
 	private static class TestEngine extends ElkLayoutEngine {
 		
+		public String algorithm = 'org.eclipse.elk.fixed'
+		
 		def getConfigurator() {
 			val config = new SprottyLayoutConfigurator
 			config.configure(ElkNode)
-				.setProperty(CoreOptions.ALGORITHM, 'org.eclipse.elk.fixed')
+				.setProperty(CoreOptions.ALGORITHM, algorithm)
 				.setProperty(CoreOptions.PADDING, new ElkPadding)
 			return config
 		}
@@ -61,10 +82,24 @@ class ElkLayoutEngineTest extends AbstractElkTest {
 			return transformGraph(model, null).elkGraph
 		}
 		
+		public ElkNode laidOutGraph
+		
+		override protected applyEngine(ElkNode elkGraph) {
+			laidOutGraph = elkGraph
+			super.applyEngine(elkGraph)
+		}
+		
 	}
 	
 	@Inject TestEngine engine
 	
+	@Rule public val temporaryFolder = new TemporaryFolder
+	
+	@BeforeClass
+	static def void initializeLayered() {
+		ElkLayoutEngine.initialize(new LayeredMetaDataProvider)
+	}
+	
 	@Test
 	def void testTransformGraphElements() {
 		val model = new SGraph [
@@ -486,6 +521,297 @@ class ElkLayoutEngineTest extends AbstractElkTest {
 		''')
 	}
 	
+	@Test
+	def void testIncrementalLayout() {
+		engine.incremental = true
+		engine.layout(createCompoundGraph('Foo'), null as Action)
+		assertNotNull(engine.laidOutGraph)
+		
+		// Nothing has changed, so the previous layout is restored completely
+		engine.laidOutGraph = null
+		engine.layout(createCompoundGraph('Foo'), null as Action)
+		assertNull(engine.laidOutGraph)
+		
+		// Only the second compound node has changed
+		engine.layout(createCompoundGraph('Bar'), null as Action)
+		assertTrue(engine.laidOutGraph.children.get(0).getProperty(CoreOptions.NODE_SIZE_FIXED_GRAPH_SIZE))
+		assertFalse(engine.laidOutGraph.children.get(1).getProperty(CoreOptions.NODE_SIZE_FIXED_GRAPH_SIZE))
+		
+		// A full layout action ignores the previous layout
+		engine.layout(createCompoundGraph('Bar'), new LayoutAction)
+		assertFalse(engine.laidOutGraph.children.get(0).getProperty(CoreOptions.NODE_SIZE_FIXED_GRAPH_SIZE))
+	}
+	
+	@Test
+	def void testIncrementalLayoutKeepsRoutes() {
+		engine.algorithm = LAYERED
+		engine.incremental = true
+		val previous = createCompoundGraph('Foo')
+		engine.layout(previous, null as Action)
+		val innerRoute = previous.getEdge('g/node0/edge0').routingPoints
+		assertFalse(innerRoute.empty)
+		
+		// The routes inside the unchanged compound node are restored from the previous layout
+		val model = createCompoundGraph('Bar')
+		engine.layout(model, null as Action)
+		assertTrue(engine.laidOutGraph.children.get(0).getProperty(CoreOptions.NODE_SIZE_FIXED_GRAPH_SIZE))
+		assertEquals(innerRoute.toString, model.getEdge('g/node0/edge0').routingPoints.toString)
+		assertFalse(model.getEdge('g/node1/edge0').routingPoints.empty)
+		assertFalse(model.getEdge('g/edge0').routingPoints.empty)
+		
+		// The result is the same as with a full layout
+		val expected = createCompoundGraph('Bar')
+		engine.layout(expected, new LayoutAction)
+		assertEquals(expected.toString, model.toString)
+	}
+	
+	@Test
+	def void testParallelLayout() {
+		val expected = createCompoundGraph('Foo')
+		engine.layout(expected, null as Action)
+		engine.engine = new ParallelGraphLayoutEngine
+		val model = createCompoundGraph('Foo')
+		engine.layout(model, null as Action)
+		assertEquals(expected.toString, model.toString)
+	}
+	
+	@Test
+	def void testParallelLayoutRoutes() {
+		engine.algorithm = LAYERED
+		val expected = createCompoundGraph('Foo')
+		engine.layout(expected, null as Action)
+		assertFalse(expected.getEdge('g/node0/edge0').routingPoints.empty)
+		assertFalse(expected.getEdge('g/node1/edge0').routingPoints.empty)
+		
+		engine.engine = new ParallelGraphLayoutEngine
+		val model = createCompoundGraph('Foo')
+		engine.layout(model, null as Action)
+		for (id : #['g/node0/edge0', 'g/node1/edge0', 'g/edge0']) {
+			assertEquals(id, expected.getEdge(id).routingPoints.toString, model.getEdge(id).routingPoints.toString)
+		}
+		assertEquals(expected.toString, model.toString)
+	}
+	
+	@Test
+	def void testLayoutCache() {
+		val directory = temporaryFolder.newFolder('layout-cache').toPath
+		engine.layoutCache = new LayoutCache(10, directory)
+		val expected = createCompoundGraph('Foo')
+		engine.layout(expected, null as Action)
+		assertNotNull(engine.laidOutGraph)
+		
+		// The same input graph is found in the cache
+		engine.laidOutGraph = null
+		val model = createCompoundGraph('Foo')
+		engine.layout(model, null as Action)
+		assertNull(engine.laidOutGraph)
+		assertEquals(expected.toString, model.toString)
+		
+		// A new cache reads the layout from the cache directory
+		engine.layoutCache = new LayoutCache(10, directory)
+		engine.layout(createCompoundGraph('Foo'), null as Action)
+		assertNull(engine.laidOutGraph)
+		assertEquals(1, engine.layoutCache.hitCount)
+		
+		// A changed graph is laid out
+		engine.layout(createCompoundGraph('Bar'), null as Action)
+		assertNotNull(engine.laidOutGraph)
+	}
+	
+	@Test
+	def void testLayoutCacheIgnoresOtherProperties() {
+		engine.layoutCache = new LayoutCache(10)
+		// The string form of this property differs for every layout, but it is not a layout option
+		val property = new Property<Object>('org.eclipse.sprotty.layout.test.identity')
+		engine.layout(createCompoundGraph('Foo'), [
+			configureById('g/node0').setProperty(property, new Object)
+		])
+		engine.laidOutGraph = null
+		engine.layout(createCompoundGraph('Foo'), [
+			configureById('g/node0').setProperty(property, new Object)
+		])
+		assertNull(engine.laidOutGraph)
+		assertEquals(1, engine.layoutCache.hitCount)
+	}
+	
+	@Test
+	def void testFallbackLayoutIsNotReused() {
+		val slowEngine = new SlowEngine
+		engine.engine = slowEngine
+		engine.setTimeBudget(10, TimeUnit.MILLISECONDS)
+		engine.fallbackAlgorithm = 'org.eclipse.elk.box'
+		engine.incremental = true
+		engine.layoutCache = new LayoutCache(10)
+		engine.layout(createCompoundGraph('Foo'), null as Action)
+		assertEquals(#['org.eclipse.elk.fixed', 'org.eclipse.elk.box'], slowEngine.algorithms)
+		
+		// Neither the cache nor the incremental snapshot provides the fallback layout
+		slowEngine.algorithms.clear
+		val model = createCompoundGraph('Foo')
+		engine.layout(model, null as Action)
+		assertEquals(#['org.eclipse.elk.fixed'], slowEngine.algorithms)
+		assertEquals(0, engine.layoutCache.hitCount)
+		
+		// The layout computed with the configured algorithm is cached
+		slowEngine.algorithms.clear
+		engine.layout(createCompoundGraph('Foo'), null as Action)
+		assertTrue(slowEngine.algorithms.empty)
+		assertEquals(1, engine.layoutCache.hitCount)
+	}
+	
+	/**
+	 * Exceeds the time budget in its first layout.
+	 */
+	private static class SlowEngine extends RecursiveGraphLayoutEngine {
+		public val List<String> algorithms = newArrayList
+		boolean slow = true
+		
+		override layout(ElkNode layoutGraph, IElkProgressMonitor monitor) {
+			algorithms += layoutGraph.getProperty(CoreOptions.ALGORITHM)
+			if (slow) {
+				slow = false
+				Thread.sleep(50)
+				assertTrue(monitor.isCanceled)
+			}
+			super.layout(layoutGraph, monitor)
+		}
+	}
+	
+	@Test(expected = CancellationException)
+	def void testCancelledLayout() {
+		engine.layout(createCompoundGraph('Foo'), null, [true])
+	}
+	
+	@Test
+	def void testCompactTransfer() {
+		val (SprottyLayoutConfigurator)=>void initialize = [
+			val bendPoint = new KVectorChain(new KVector(20, 20), new KVector(35, 25), new KVector(50, 20))
+			configureById('g/node0/edge1').setProperty(CoreOptions.BEND_POINTS, bendPoint)
+		]
+		val expected = createCrossHierarchyGraph
+		engine.layout(expected, initialize)
+		engine.compactTransfer = true
+		val model = createCrossHierarchyGraph
+		engine.layout(model, initialize)
+		assertEquals(expected.toString, model.toString)
+	}
+	
+	private def createCrossHierarchyGraph() {
+		new SGraph [
+			id = 'g'
+			children = #[
+				new SNode [
+					id = 'g/node0'
+					position = new Point(10, 10)
+					children = #[
+						new SNode [
+							id = 'g/node0/node0'
+							position = new Point(10, 10)
+							children = #[
+								new SPort [
+									id = 'g/node0/node0/port'
+									position = new Point(5, 5)
+									size = new Dimension(2, 2)
+								]
+							]
+						],
+						new SEdge [
+							id = 'g/node0/edge1'
+							sourceId = 'g/node0/node0'
+							targetId = 'g/node1/node0'
+						]
+					]
+				],
+				new SNode [
+					id = 'g/node1'
+					position = new Point(40, 10)
+					children = #[
+						new SCompartment [
+							id = 'g/node1/comp'
+							position = new Point(5, 5)
+							children = #[
+								new SNode [
+									id = 'g/node1/node0'
+									position = new Point(10, 10)
+									children = #[
+										new SLabel [
+											id = 'g/node1/node0/label'
+											position = new Point(2, 2)
+											text = 'Foo'
+										]
+									]
+								]
+							]
+						]
+					]
+				]
+			]
+		]
+	}
+	
+	private def createCompoundGraph(String labelText) {
+		new SGraph [
+			id = 'g'
+			children = #[
+				new SNode [
+					id = 'g/node0'
+					position = new Point(10, 10)
+					children = #[
+						new SNode [
+							id = 'g/node0/node0'
+							position = new Point(10, 10)
+							size = new Dimension(20, 20)
+						],
+						new SNode [
+							id = 'g/node0/node1'
+							position = new Point(10, 40)
+							size = new Dimension(20, 20)
+						],
+						new SEdge [
+							id = 'g/node0/edge0'
+							sourceId = 'g/node0/node0'
+							targetId = 'g/node0/node1'
+						]
+					]
+				],
+				new SNode [
+					id = 'g/node1'
+					position = new Point(60, 10)
+					children = #[
+						new SNode [
+							id = 'g/node1/node0'
+							position = new Point(10, 10)
+							size = new Dimension(20, 20)
+							children = #[
+								new SLabel [
+									id = 'g/node1/node0/label'
+									text = labelText
+								]
+							]
+						],
+						new SNode [
+							id = 'g/node1/node1'
+							position = new Point(10, 40)
+							size = new Dimension(20, 20)
+						],
+						new SEdge [
+							id = 'g/node1/edge0'
+							sourceId = 'g/node1/node0'
+							targetId = 'g/node1/node1'
+						]
+					]
+				],
+				new SEdge [
+					id = 'g/edge0'
+					sourceId = 'g/node0'
+					targetId = 'g/node1'
+				]
+			]
+		]
+	}
 	
+	private def getEdge(SModelElement root, String id) {
+		SModelIndex.find(root, id) as SEdge
+	}
 	
-}
\ No newline at end of file
+}
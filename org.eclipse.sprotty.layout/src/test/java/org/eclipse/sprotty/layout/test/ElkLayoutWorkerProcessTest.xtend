@@ -0,0 +1,151 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty.layout.test
+
+import java.util.concurrent.CancellationException
+import org.eclipse.elk.alg.layered.options.LayeredMetaDataProvider
+import org.eclipse.elk.alg.layered.options.LayeredOptions
+import org.eclipse.elk.core.AbstractLayoutProvider
+import org.eclipse.elk.core.RecursiveGraphLayoutEngine
+import org.eclipse.elk.core.data.ILayoutMetaDataProvider
+import org.eclipse.elk.core.data.LayoutAlgorithmData
+import org.eclipse.elk.core.options.CoreOptions
+import org.eclipse.elk.core.util.AlgorithmFactory
+import org.eclipse.elk.core.util.BasicProgressMonitor
+import org.eclipse.elk.core.util.IElkProgressMonitor
+import org.eclipse.elk.graph.ElkEdge
+import org.eclipse.elk.graph.ElkNode
+import org.eclipse.elk.graph.util.ElkGraphUtil
+import org.eclipse.sprotty.layout.ElkLayoutEngine
+import org.eclipse.sprotty.layout.ElkLayoutWorkerProcess
+import org.junit.After
+import org.junit.BeforeClass
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+class ElkLayoutWorkerProcessTest {
+
+	static val SLEEPING = 'org.eclipse.sprotty.layout.test.sleeping'
+
+	ElkLayoutWorkerProcess process
+
+	@BeforeClass
+	def static void initializeLayered() {
+		ElkLayoutEngine.initialize(new LayeredMetaDataProvider)
+	}
+
+	@After
+	def void closeProcess() {
+		process?.close()
+	}
+
+	@Test
+	def void testLayeredRoundTrip() {
+		val expected = createGraph(LayeredOptions.ALGORITHM_ID)
+		new RecursiveGraphLayoutEngine().layout(expected, new BasicProgressMonitor)
+
+		process = new ElkLayoutWorkerProcess(LayeredMetaDataProvider.name)
+		val graph = createGraph(LayeredOptions.ALGORITHM_ID)
+		assertTrue(process.layout(graph, 0, [false]))
+		assertTrue(process.alive)
+		assertFalse(graph.allEdges.exists[sections.empty])
+		assertEquals(expected.toGeometry, graph.toGeometry)
+
+		// The running worker is reused for the next layout
+		val again = createGraph(LayeredOptions.ALGORITHM_ID)
+		process.layout(again)
+		assertEquals(expected.toGeometry, again.toGeometry)
+	}
+
+	@Test
+	def void testTimeout() {
+		process = new ElkLayoutWorkerProcess(SleepingMetaDataProvider.name)
+		val graph = createGraph(SLEEPING)
+		val geometry = graph.toGeometry
+		assertFalse(process.layout(graph, 200, [false]))
+		assertFalse(process.alive)
+		assertEquals(geometry, graph.toGeometry)
+	}
+
+	@Test
+	def void testCancel() {
+		process = new ElkLayoutWorkerProcess(SleepingMetaDataProvider.name)
+		val graph = createGraph(SLEEPING)
+		val start = System.currentTimeMillis
+		try {
+			process.layout(graph, 0, [System.currentTimeMillis - start > 200])
+			fail('Expected a CancellationException')
+		} catch (CancellationException exception) {
+			assertFalse(process.alive)
+		}
+	}
+
+	private def createGraph(String algorithm) {
+		val graph = ElkGraphUtil.createGraph
+		graph.setProperty(CoreOptions.ALGORITHM, algorithm)
+		val nodes = (0 ..< 4).map[ i |
+			val node = ElkGraphUtil.createNode(graph)
+			node.setDimensions(10 * (i + 1), 20)
+			node
+		].toList
+		val compound = nodes.last
+		compound.setProperty(CoreOptions.ALGORITHM, algorithm)
+		val inner0 = ElkGraphUtil.createNode(compound) => [ setDimensions(10, 10) ]
+		val inner1 = ElkGraphUtil.createNode(compound) => [ setDimensions(10, 10) ]
+		ElkGraphUtil.createSimpleEdge(inner0, inner1)
+		val edge = ElkGraphUtil.createSimpleEdge(nodes.get(0), nodes.get(1))
+		ElkGraphUtil.createLabel(edge).setDimensions(15, 5)
+		ElkGraphUtil.createSimpleEdge(nodes.get(0), nodes.get(2))
+		ElkGraphUtil.createSimpleEdge(nodes.get(1), compound)
+		ElkGraphUtil.createSimpleEdge(nodes.get(2), compound)
+		return graph
+	}
+
+	private def Iterable<ElkEdge> getAllEdges(ElkNode node) {
+		node.containedEdges + node.children.map[allEdges].flatten
+	}
+
+	private def String toGeometry(ElkNode node) '''
+		«node.x»,«node.y» «node.width»x«node.height»
+		«FOR edge : node.containedEdges»
+			edge«FOR section : edge.sections» «section.startX»,«section.startY»«FOR bend : section.bendPoints» «bend.x»,«bend.y»«ENDFOR» «section.endX»,«section.endY»«ENDFOR»
+			«FOR label : edge.labels»
+				label «label.x»,«label.y»
+			«ENDFOR»
+		«ENDFOR»
+		«FOR child : node.children»
+			«child.toGeometry»
+		«ENDFOR»
+	'''
+
+	static class SleepingMetaDataProvider implements ILayoutMetaDataProvider {
+		override apply(ILayoutMetaDataProvider.Registry registry) {
+			registry.register(new LayoutAlgorithmData.Builder()
+				.id(SLEEPING)
+				.name('Sleeping')
+				.providerFactory(new AlgorithmFactory(SleepingLayoutProvider, ''))
+				.create)
+		}
+	}
+
+	static class SleepingLayoutProvider extends AbstractLayoutProvider {
+		override layout(ElkNode layoutGraph, IElkProgressMonitor progressMonitor) {
+			Thread.sleep(60_000)
+		}
+	}
+
+}
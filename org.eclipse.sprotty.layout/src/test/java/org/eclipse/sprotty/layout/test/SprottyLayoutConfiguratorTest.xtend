@@ -0,0 +1,80 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty.layout.test
+
+import java.util.regex.Pattern
+import org.eclipse.sprotty.layout.SprottyLayoutConfigurator
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+import static extension org.eclipse.sprotty.layout.SprottyLayoutConfigurator.*
+
+class SprottyLayoutConfiguratorTest {
+
+	/** The pattern used by earlier versions of {@link SprottyLayoutConfigurator#toElkId(String)}. */
+	static val ID_REPLACE_PATTERN = Pattern.compile('\\W|^\\d')
+
+	@Test
+	def void testValidIds() {
+		for (id : #['node', 'Node_1', '_0', 'a0b1c2', '_']) {
+			assertSame(id, id.toElkId)
+			assertEquals(id.toRegexId, id.toElkId)
+		}
+	}
+
+	@Test
+	def void testNullAndEmpty() {
+		assertNull(toElkId(null))
+		assertNull(toElkId(''))
+	}
+
+	@Test
+	def void testLeadingDigit() {
+		assertSameAsRegex('0', '1node', '9_a', '00')
+	}
+
+	@Test
+	def void testLeadingNonWordCharacter() {
+		assertSameAsRegex('-node', '.a', ' ', '$0', '--')
+	}
+
+	@Test
+	def void testInnerNonWordCharacters() {
+		assertSameAsRegex('graph/node0', 'a.b-c d', 'node0#label', 'a__-')
+	}
+
+	@Test
+	def void testNonAscii() {
+		assertSameAsRegex('Größe', 'ä', 'node٣', '٣node', 'αβγ')
+	}
+
+	@Test
+	def void testSurrogatePairs() {
+		assertSameAsRegex('😀', 'a😀b', '😀😀', '0😀', 'a\uD83D', '\uDE00a')
+	}
+
+	private def void assertSameAsRegex(String... ids) {
+		for (id : ids) {
+			assertEquals(id, id.toRegexId, id.toElkId)
+		}
+	}
+
+	private def toRegexId(String id) {
+		ID_REPLACE_PATTERN.matcher(id).replaceAll('_')
+	}
+
+}
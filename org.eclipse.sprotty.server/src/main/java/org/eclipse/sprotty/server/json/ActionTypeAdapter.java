@@ -63,6 +63,7 @@ public class ActionTypeAdapter extends PropertyBasedTypeAdapter<Action> {
 	public static GsonBuilder configureGson(GsonBuilder gsonBuilder) {
 		gsonBuilder
 				.registerTypeAdapterFactory(new ActionTypeAdapter.Factory())
+				.registerTypeAdapterFactory(new SModelElementTypeAdapter.Factory())
 				.registerTypeAdapterFactory(new EnumTypeAdapter.Factory());
 		return gsonBuilder;
 	}
@@ -119,6 +120,17 @@ public class ActionTypeAdapter extends PropertyBasedTypeAdapter<Action> {
 		}
 	}
 	
+	private static final ClassValue<Constructor<?>> CONSTRUCTORS = new ClassValue<Constructor<?>>() {
+		@Override
+		protected Constructor<?> computeValue(Class<?> type) {
+			try {
+				return type.getConstructor();
+			} catch (NoSuchMethodException e) {
+				throw new RuntimeException("Action class does not have a default constructor.", e);
+			}
+		}
+	};
+	
 	private final Map<String, Class<? extends Action>> actionKinds;
 	
 	public ActionTypeAdapter(Gson gson, Map<String, Class<? extends Action>> actionKinds) {
@@ -132,10 +144,9 @@ public class ActionTypeAdapter extends PropertyBasedTypeAdapter<Action> {
 		if (clazz == null)
 			throw new IllegalArgumentException("Unknown action kind: " + kind);
 		try {
-			Constructor<? extends Action> constructor = clazz.getConstructor();
-			return constructor.newInstance();
-		} catch (NoSuchMethodException e) {
-			throw new RuntimeException("Action class does not have a default constructor.", e);
+			return (Action) CONSTRUCTORS.get(clazz).newInstance();
+		} catch (RuntimeException e) {
+			throw e;
 		} catch (Exception e) {
 			throw new RuntimeException("Unable to invoke action constructor", e);
 		}
@@ -0,0 +1,108 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty.server.json;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.sprotty.server.json.PropertyTable.Property;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Reads and writes the properties listed in a {@link PropertyTable}. The Gson type adapter for the
+ * declared type of each property is looked up once and reused. When writing, values whose class
+ * differs from the declared type are serialized according to their runtime class.
+ */
+final class PropertyAdapters {
+	
+	private final Gson gson;
+	
+	private final Map<Property, TypeAdapter<Object>> adapters = new ConcurrentHashMap<>();
+	
+	PropertyAdapters(Gson gson) {
+		this.gson = gson;
+	}
+	
+	@SuppressWarnings("unchecked")
+	TypeAdapter<Object> getAdapter(Property property) {
+		TypeAdapter<Object> adapter = adapters.get(property);
+		if (adapter == null) {
+			// Not using computeIfAbsent here, as creating an adapter may create further adapters recursively
+			adapter = (TypeAdapter<Object>) gson.getAdapter(TypeToken.get(property.genericType));
+			adapters.put(property, adapter);
+		}
+		return adapter;
+	}
+	
+	void writeProperties(JsonWriter out, Object instance) throws IOException, IllegalAccessException {
+		for (Property property : PropertyTable.of(instance.getClass()).getProperties()) {
+			writeProperty(out, instance, property);
+		}
+	}
+	
+	void writeProperty(JsonWriter out, Object instance, Property property) throws IOException, IllegalAccessException {
+		out.name(property.name);
+		Object value = property.get(instance);
+		if (value == null)
+			out.nullValue();
+		else if (value == instance)
+			throw new RuntimeException("Object has a reference to itself.");
+		else if (property.rawType.isPrimitive() || value.getClass() == property.rawType)
+			getAdapter(property).write(out, value);
+		else
+			gson.toJson(value, value.getClass(), out);
+	}
+	
+	/**
+	 * Write the given field. Fields that are listed in the property table of their declaring class
+	 * use the cached adapters, other fields are serialized according to the runtime class of their value.
+	 */
+	void writeProperty(JsonWriter out, Object instance, Field field) throws IOException, IllegalAccessException {
+		Property property = PropertyTable.of(field.getDeclaringClass()).get(field.getName());
+		if (property != null && property.field.equals(field)) {
+			writeProperty(out, instance, property);
+		} else {
+			field.setAccessible(true);
+			out.name(field.getName());
+			Object value = field.get(instance);
+			if (value == null)
+				out.nullValue();
+			else if (value == instance)
+				throw new RuntimeException("Object has a reference to itself.");
+			else
+				gson.toJson(value, value.getClass(), out);
+		}
+	}
+	
+	void readProperty(JsonReader in, Object instance, Property property) throws IOException, IllegalAccessException {
+		Object value = getAdapter(property).read(in);
+		property.set(instance, value);
+	}
+	
+	void readProperty(JsonElement element, Object instance, Property property) throws IllegalAccessException {
+		Object value = getAdapter(property).fromJsonTree(element);
+		property.set(instance, value);
+	}
+	
+}
@@ -17,12 +17,13 @@ package org.eclipse.sprotty.server.json;
 
 import java.io.IOException;
 import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
+import org.eclipse.sprotty.server.json.PropertyTable.Property;
+
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonParser;
@@ -32,17 +33,18 @@ import com.google.gson.stream.JsonWriter;
 
 /**
  * Gson type adapter that can determine the actual Java class to use for a JSON object based
- * on a discriminator property.
+ * on a discriminator property. The fields of each class are determined only once, and the Gson
+ * adapters for their declared types are reused.
  */
 public abstract class PropertyBasedTypeAdapter<T> extends TypeAdapter<T> {
 	
-	private final Gson gson;
-	
 	private final String discriminator;
 	
+	private final PropertyAdapters propertyAdapters;
+	
 	public PropertyBasedTypeAdapter(Gson gson, String discriminator) {
-		this.gson = gson;
 		this.discriminator = discriminator;
+		this.propertyAdapters = new PropertyAdapters(gson);
 	}
 
 	@Override
@@ -80,38 +82,25 @@ public abstract class PropertyBasedTypeAdapter<T> extends TypeAdapter<T> {
 	protected abstract T createInstance(String parameter);
 	
 	protected void assignProperty(T instance, String propertyName, JsonReader in) throws IllegalAccessException, IOException {
-		try {
-			Field field = findField(instance.getClass(), propertyName);
-			Object value = gson.fromJson(in, field.getGenericType());
-			field.set(instance, value);
-		} catch (NoSuchFieldException e) {
+		Property property = PropertyTable.of(instance.getClass()).get(propertyName);
+		if (property != null)
+			propertyAdapters.readProperty(in, instance, property);
+		else
 			// Ignore this property
 			in.skipValue();
-		}
 	}
 	
 	protected void assignProperty(T instance, String propertyName, JsonElement element) throws IllegalAccessException {
-		try {
-			Field field = findField(instance.getClass(), propertyName);
-			Object value = gson.fromJson(element, field.getGenericType());
-			field.set(instance, value);
-		} catch (NoSuchFieldException e) {
-			// Ignore this property
-		}
+		Property property = PropertyTable.of(instance.getClass()).get(propertyName);
+		if (property != null)
+			propertyAdapters.readProperty(element, instance, property);
 	}
 	
 	protected Field findField(Class<?> type, String propertyName) throws NoSuchFieldException {
-		try {
-			Field field = type.getDeclaredField(propertyName);
-			field.setAccessible(true);
-			return field;
-		} catch (NoSuchFieldException e) {
-			Class<?> superType = type.getSuperclass();
-			if (superType != null)
-				return findField(superType, propertyName);
-			else
-				throw e;
-		}
+		Property property = PropertyTable.of(type).get(propertyName);
+		if (property == null)
+			throw new NoSuchFieldException(propertyName);
+		return property.field;
 	}
 	
 	protected JsonElement toTree(JsonReader in) throws IOException {
@@ -136,31 +125,20 @@ public abstract class PropertyBasedTypeAdapter<T> extends TypeAdapter<T> {
 		}
 	}
 	
+	/**
+	 * Write the serializable fields of the given type and its superclasses. Fields whose name is
+	 * already contained in {@code written} are skipped.
+	 */
 	protected void writeProperties(JsonWriter out, T instance, Class<?> type, Set<String> written)
 			throws IOException, IllegalAccessException {
-		for (Field field : type.getDeclaredFields()) {
-			int modifiers = field.getModifiers();
-			if (!Modifier.isTransient(modifiers) && !Modifier.isStatic(modifiers)
-					&& written.add(field.getName())) {
-				writeProperty(out, instance, field);
-			}
-		}
-		Class<?> superType = type.getSuperclass();
-		if (superType != null) {
-			writeProperties(out, instance, superType, written);
+		for (Property property : PropertyTable.of(type).getProperties()) {
+			if (written.add(property.name))
+				writeProperty(out, instance, property.field);
 		}
 	}
 	
 	protected void writeProperty(JsonWriter out, T instance, Field field) throws IOException, IllegalAccessException {
-		field.setAccessible(true);
-		out.name(field.getName());
-		Object value = field.get(instance);
-		if (value == null)
-			out.nullValue();
-		else if (value == instance)
-			throw new RuntimeException("Object has a reference to itself.");
-		else
-			gson.toJson(value, value.getClass(), out);
+		propertyAdapters.writeProperty(out, instance, field);
 	}
 
 }
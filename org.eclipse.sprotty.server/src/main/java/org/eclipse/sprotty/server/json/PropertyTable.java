@@ -0,0 +1,100 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty.server.json;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The serializable fields of a class, computed once per class. Fields declared in subclasses come first
+ * and hide fields with the same name declared in superclasses. Static and transient fields are excluded.
+ */
+final class PropertyTable {
+	
+	static final class Property {
+		
+		final String name;
+		final Field field;
+		final Type genericType;
+		final Class<?> rawType;
+		
+		Property(Field field) {
+			field.setAccessible(true);
+			this.name = field.getName();
+			this.field = field;
+			this.genericType = field.getGenericType();
+			this.rawType = field.getType();
+		}
+		
+		Object get(Object instance) throws IllegalAccessException {
+			return field.get(instance);
+		}
+		
+		void set(Object instance, Object value) throws IllegalAccessException {
+			field.set(instance, value);
+		}
+	}
+	
+	private static final ClassValue<PropertyTable> TABLES = new ClassValue<PropertyTable>() {
+		@Override
+		protected PropertyTable computeValue(Class<?> type) {
+			return new PropertyTable(type);
+		}
+	};
+	
+	static PropertyTable of(Class<?> type) {
+		return TABLES.get(type);
+	}
+	
+	private final Property[] properties;
+	
+	private final Map<String, Property> nameToProperty = new HashMap<>();
+	
+	private PropertyTable(Class<?> type) {
+		List<Property> list = new ArrayList<>();
+		Class<?> currentClass = type;
+		while (currentClass != null) {
+			for (Field field : currentClass.getDeclaredFields()) {
+				int modifiers = field.getModifiers();
+				if (!Modifier.isTransient(modifiers) && !Modifier.isStatic(modifiers)
+						&& !nameToProperty.containsKey(field.getName())) {
+					Property property = new Property(field);
+					nameToProperty.put(property.name, property);
+					list.add(property);
+				}
+			}
+			currentClass = currentClass.getSuperclass();
+		}
+		this.properties = list.toArray(new Property[list.size()]);
+	}
+	
+	Property[] getProperties() {
+		return properties;
+	}
+	
+	/**
+	 * Returns the property with the given name, or {@code null} if there is no such property.
+	 */
+	Property get(String name) {
+		return nameToProperty.get(name);
+	}
+	
+}
@@ -0,0 +1,91 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty.server.json;
+
+import java.io.IOException;
+
+import org.eclipse.sprotty.SModelElement;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Gson type adapter for sprotty model elements. Elements are written according to their runtime class
+ * using a field table that is computed once per class. Reading is delegated to the adapter Gson would
+ * use otherwise.
+ * 
+ * <p>The field table bypasses the field naming policy, the exclusion strategies and the
+ * {@link com.google.gson.annotations.SerializedName} and {@link com.google.gson.annotations.Expose}
+ * annotations configured for the Gson instance: all non-static, non-transient fields are written
+ * with their Java name. Reading is done by Gson's own adapter, which does honour these settings.</p>
+ * 
+ * <p>Element classes annotated with {@link com.google.gson.annotations.JsonAdapter} are left to that
+ * adapter. Other custom adapters for element classes take precedence only if they are registered
+ * <em>after</em> the {@link Factory}, e.g. with
+ * {@link com.google.gson.GsonBuilder#registerTypeAdapter(java.lang.reflect.Type, Object)} or
+ * {@link com.google.gson.GsonBuilder#registerTypeAdapterFactory(TypeAdapterFactory)}. Type hierarchy
+ * adapters always have a lower priority than this factory; use a type adapter factory instead.</p>
+ */
+public class SModelElementTypeAdapter<T extends SModelElement> extends TypeAdapter<T> {
+	
+	public static class Factory implements TypeAdapterFactory {
+
+		@Override
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> typeToken) {
+			Class<? super T> rawType = typeToken.getRawType();
+			if (!SModelElement.class.isAssignableFrom(rawType) || rawType.isAnnotationPresent(JsonAdapter.class))
+				return null;
+			return new SModelElementTypeAdapter(gson, gson.getDelegateAdapter(this, typeToken));
+		}
+		
+	}
+	
+	private final TypeAdapter<T> readDelegate;
+	
+	private final PropertyAdapters propertyAdapters;
+	
+	public SModelElementTypeAdapter(Gson gson, TypeAdapter<T> readDelegate) {
+		this.readDelegate = readDelegate;
+		this.propertyAdapters = new PropertyAdapters(gson);
+	}
+
+	@Override
+	public void write(JsonWriter out, T value) throws IOException {
+		if (value == null) {
+			out.nullValue();
+		} else {
+			try {
+				out.beginObject();
+				propertyAdapters.writeProperties(out, value);
+				out.endObject();
+			} catch (IllegalAccessException e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+
+	@Override
+	public T read(JsonReader in) throws IOException {
+		return readDelegate.read(in);
+	}
+
+}
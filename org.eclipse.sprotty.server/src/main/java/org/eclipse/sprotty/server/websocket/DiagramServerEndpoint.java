@@ -15,9 +15,14 @@
  ********************************************************************************/
 package org.eclipse.sprotty.server.websocket;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
 import java.util.function.Consumer;
 
 import jakarta.inject.Inject;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.CloseReason.CloseCodes;
 import jakarta.websocket.Endpoint;
 import jakarta.websocket.EndpointConfig;
 import jakarta.websocket.MessageHandler;
@@ -32,11 +37,27 @@ import com.google.gson.GsonBuilder;
 
 /**
  * A websocket endpoint to connect a diagram server with a sprotty client.
+ * 
+ * <p>By default, each outgoing message is serialized to a string and sent asynchronously. If
+ * {@link #setStreaming(boolean) streaming} is enabled, messages are instead serialized directly into
+ * the send writer of the session, so large models are transmitted in partial frames without ever being
+ * held in memory as a whole. Streaming uses the blocking remote endpoint: the sending thread waits
+ * until the message has been transmitted, which slows down producers that send faster than the
+ * connection can handle. If a message fails to serialize, parts of it may already have been sent,
+ * so the session is closed instead of completing the message.</p>
  */
 public class DiagramServerEndpoint extends Endpoint implements Consumer<ActionMessage> {
 	
+	public static final int DEFAULT_SEND_BUFFER_SIZE = 8192;
+	
 	private Session session;
 	
+	private boolean streaming;
+	
+	private int sendBufferSize = DEFAULT_SEND_BUFFER_SIZE;
+	
+	private final Object sendLock = new Object();
+	
 	private Gson gson;
 	
 	@Inject
@@ -60,6 +81,31 @@ public class DiagramServerEndpoint extends Endpoint implements Consumer<ActionMe
 		this.exceptionHandler = exceptionHandler;
 	}
 	
+	public boolean isStreaming() {
+		return streaming;
+	}
+	
+	/**
+	 * Whether outgoing messages are serialized directly into the websocket instead of being converted
+	 * to a string first.
+	 */
+	public void setStreaming(boolean streaming) {
+		this.streaming = streaming;
+	}
+	
+	public int getSendBufferSize() {
+		return sendBufferSize;
+	}
+	
+	/**
+	 * The number of characters buffered before a partial frame is sent in streaming mode.
+	 */
+	public void setSendBufferSize(int sendBufferSize) {
+		if (sendBufferSize <= 0)
+			throw new IllegalArgumentException("The buffer size must be positive.");
+		this.sendBufferSize = sendBufferSize;
+	}
+	
 	@Override
 	public void onOpen(Session session, EndpointConfig config) {
 		this.session = session;
@@ -95,8 +141,46 @@ public class DiagramServerEndpoint extends Endpoint implements Consumer<ActionMe
 	@Override
 	public void accept(ActionMessage message) {
 		initializeGson();
-		String json = gson.toJson(message, ActionMessage.class);
-		session.getAsyncRemote().sendText(json);
+		if (streaming) {
+			sendStreaming(message);
+		} else {
+			String json = gson.toJson(message, ActionMessage.class);
+			session.getAsyncRemote().sendText(json);
+		}
+	}
+	
+	protected void sendStreaming(ActionMessage message) {
+		// The blocking remote endpoint does not allow concurrent messages
+		synchronized (sendLock) {
+			Writer writer;
+			try {
+				writer = new BufferedWriter(session.getBasicRemote().getSendWriter(), sendBufferSize);
+			} catch (IOException exception) {
+				fireError(exception);
+				return;
+			}
+			try {
+				gson.toJson(message, ActionMessage.class, writer);
+			} catch (RuntimeException exception) {
+				// Closing the writer would complete the message with the truncated content
+				fireError(exception);
+				closeSession(new CloseReason(CloseCodes.UNEXPECTED_CONDITION, "Failed to serialize a message."));
+				return;
+			}
+			try {
+				writer.close();
+			} catch (IOException exception) {
+				fireError(exception);
+			}
+		}
+	}
+	
+	protected void closeSession(CloseReason reason) {
+		try {
+			session.close(reason);
+		} catch (IOException exception) {
+			fireError(exception);
+		}
 	}
 	
 	protected class ActionMessageHandler implements MessageHandler.Whole<String> {
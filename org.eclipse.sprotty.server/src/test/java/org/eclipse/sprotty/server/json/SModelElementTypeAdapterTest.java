@@ -0,0 +1,114 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty.server.json;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.sprotty.Action;
+import org.eclipse.sprotty.Point;
+import org.eclipse.sprotty.SGraph;
+import org.eclipse.sprotty.SLabel;
+import org.eclipse.sprotty.SModelElement;
+import org.eclipse.sprotty.SNode;
+import org.eclipse.sprotty.SetModelAction;
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import static org.junit.Assert.*;
+
+public class SModelElementTypeAdapterTest {
+	
+	@Test
+	public void testWriteSubclassProperties() {
+		Gson gson = ActionTypeAdapter.configureGson(new GsonBuilder()).create();
+		SGraph graph = new SGraph();
+		graph.setType("graph");
+		graph.setId("graph");
+		SNode node = new SNode();
+		node.setType("node");
+		node.setId("node");
+		node.setPosition(new Point(1, 2));
+		SLabel label = new SLabel();
+		label.setType("label");
+		label.setId("label");
+		label.setText("foo");
+		List<SModelElement> nodeChildren = new ArrayList<>();
+		nodeChildren.add(label);
+		node.setChildren(nodeChildren);
+		List<SModelElement> graphChildren = new ArrayList<>();
+		graphChildren.add(node);
+		graph.setChildren(graphChildren);
+		
+		String json = gson.toJson(new SetModelAction(graph), Action.class);
+		assertTrue(json, json.contains("\"position\":{\"x\":1.0,\"y\":2.0}"));
+		assertTrue(json, json.contains("\"text\":\"foo\""));
+	}
+	
+	@Test
+	public void testCustomAdapterRegisteredAfter() {
+		Gson gson = ActionTypeAdapter.configureGson(new GsonBuilder())
+				.registerTypeAdapter(SLabel.class, new LabelAdapter())
+				.create();
+		SGraph graph = new SGraph();
+		graph.setType("graph");
+		graph.setId("graph");
+		SLabel label = new SLabel();
+		label.setType("label");
+		label.setId("label");
+		label.setText("foo");
+		List<SModelElement> graphChildren = new ArrayList<>();
+		graphChildren.add(label);
+		graph.setChildren(graphChildren);
+		
+		String json = gson.toJson(new SetModelAction(graph), Action.class);
+		assertTrue(json, json.contains("\"children\":[\"label:foo\"]"));
+	}
+	
+	@Test
+	public void testJsonAdapterAnnotation() {
+		Gson gson = ActionTypeAdapter.configureGson(new GsonBuilder()).create();
+		AnnotatedLabel label = new AnnotatedLabel();
+		label.setId("label");
+		label.setText("foo");
+		
+		assertEquals("\"label:foo\"", gson.toJson(label));
+	}
+	
+	@JsonAdapter(LabelAdapter.class)
+	private static class AnnotatedLabel extends SLabel {
+	}
+	
+	private static class LabelAdapter extends TypeAdapter<SLabel> {
+		@Override
+		public void write(JsonWriter out, SLabel value) throws IOException {
+			out.value(value.getId() + ":" + value.getText());
+		}
+		
+		@Override
+		public SLabel read(JsonReader in) throws IOException {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+}
@@ -0,0 +1,201 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty.server.websocket;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.Session;
+
+import org.eclipse.sprotty.ActionMessage;
+import org.eclipse.sprotty.SGraph;
+import org.eclipse.sprotty.SLabel;
+import org.eclipse.sprotty.SModelElement;
+import org.eclipse.sprotty.SNode;
+import org.eclipse.sprotty.SetModelAction;
+import org.eclipse.sprotty.server.json.ActionTypeAdapter;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import static org.junit.Assert.*;
+
+public class DiagramServerEndpointTest {
+
+	private final List<String> asyncMessages = new ArrayList<>();
+
+	private final List<RecordingWriter> sendWriters = new ArrayList<>();
+
+	private final List<CloseReason> closeReasons = new ArrayList<>();
+
+	private final List<Exception> errors = new ArrayList<>();
+
+	private DiagramServerEndpoint endpoint;
+
+	@Before
+	public void setup() {
+		endpoint = new DiagramServerEndpoint();
+		endpoint.setExceptionHandler(errors::add);
+		endpoint.onOpen(createSession(), null);
+	}
+
+	@Test
+	public void testAsync() {
+		ActionMessage message = createMessage(20);
+		endpoint.accept(message);
+		assertEquals(1, asyncMessages.size());
+		assertEquals(toJson(message), asyncMessages.get(0));
+		assertTrue(sendWriters.isEmpty());
+	}
+
+	@Test
+	public void testStreaming() {
+		endpoint.setStreaming(true);
+		endpoint.setSendBufferSize(16);
+		ActionMessage message = createMessage(20);
+		endpoint.accept(message);
+		assertTrue(asyncMessages.isEmpty());
+		assertEquals(1, sendWriters.size());
+		RecordingWriter writer = sendWriters.get(0);
+		assertTrue(writer.closed);
+		assertTrue(writer.writes > 1);
+		assertEquals(toJson(message), writer.toString());
+		assertTrue(closeReasons.isEmpty());
+		assertTrue(errors.isEmpty());
+	}
+
+	@Test
+	public void testStreamingSerializationFailure() {
+		endpoint.setGson(ActionTypeAdapter.configureGson(new GsonBuilder())
+				.registerTypeAdapter(SLabel.class, new FailingLabelAdapter())
+				.create());
+		endpoint.setStreaming(true);
+		endpoint.setSendBufferSize(16);
+		ActionMessage message = createMessage(20);
+		((SGraph) ((SetModelAction) message.getAction()).getNewRoot()).getChildren().add(new SLabel());
+		endpoint.accept(message);
+		assertEquals(1, sendWriters.size());
+		RecordingWriter writer = sendWriters.get(0);
+		assertTrue(writer.toString().length() > 0);
+		assertFalse(writer.closed);
+		assertEquals(1, closeReasons.size());
+		assertEquals(CloseReason.CloseCodes.UNEXPECTED_CONDITION, closeReasons.get(0).getCloseCode());
+		assertEquals(1, errors.size());
+	}
+
+	private ActionMessage createMessage(int nodeCount) {
+		SGraph graph = new SGraph();
+		graph.setType("graph");
+		graph.setId("graph");
+		List<SModelElement> children = new ArrayList<>();
+		for (int i = 0; i < nodeCount; i++) {
+			SNode node = new SNode();
+			node.setType("node");
+			node.setId("node" + i);
+			children.add(node);
+		}
+		graph.setChildren(children);
+		ActionMessage message = new ActionMessage();
+		message.setClientId("client");
+		message.setAction(new SetModelAction(graph));
+		return message;
+	}
+
+	private String toJson(ActionMessage message) {
+		Gson gson = ActionTypeAdapter.configureGson(new GsonBuilder()).create();
+		return gson.toJson(message, ActionMessage.class);
+	}
+
+	private Session createSession() {
+		RemoteEndpoint.Async asyncRemote = createProxy(RemoteEndpoint.Async.class, (method, args) -> {
+			if (method.equals("sendText"))
+				asyncMessages.add((String) args[0]);
+			return null;
+		});
+		RemoteEndpoint.Basic basicRemote = createProxy(RemoteEndpoint.Basic.class, (method, args) -> {
+			if (method.equals("getSendWriter")) {
+				RecordingWriter writer = new RecordingWriter();
+				sendWriters.add(writer);
+				return writer;
+			}
+			return null;
+		});
+		return createProxy(Session.class, (method, args) -> {
+			switch (method) {
+				case "getAsyncRemote":
+					return asyncRemote;
+				case "getBasicRemote":
+					return basicRemote;
+				case "close":
+					closeReasons.add((CloseReason) args[0]);
+					return null;
+				default:
+					return null;
+			}
+		});
+	}
+
+	private interface MethodHandler {
+		Object invoke(String method, Object[] args);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T createProxy(Class<T> type, MethodHandler handler) {
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+				(proxy, method, args) -> handler.invoke(method.getName(), args));
+	}
+
+	private static class RecordingWriter extends StringWriter {
+		boolean closed;
+		int writes;
+
+		@Override
+		public void write(char[] cbuf, int off, int len) {
+			if (closed)
+				throw new IllegalStateException("The writer is closed.");
+			super.write(cbuf, off, len);
+			writes++;
+		}
+
+		@Override
+		public void close() throws IOException {
+			closed = true;
+		}
+	}
+
+	private static class FailingLabelAdapter extends TypeAdapter<SLabel> {
+		@Override
+		public void write(JsonWriter out, SLabel value) throws IOException {
+			throw new IllegalStateException("Cannot serialize labels.");
+		}
+
+		@Override
+		public SLabel read(JsonReader in) throws IOException {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+}
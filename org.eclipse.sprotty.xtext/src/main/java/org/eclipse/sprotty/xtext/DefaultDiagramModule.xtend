@@ -15,6 +15,7 @@
  ********************************************************************************/
 package org.eclipse.sprotty.xtext
 
+import org.eclipse.sprotty.IBoundsEstimator
 import org.eclipse.sprotty.IDiagramExpansionListener
 import org.eclipse.sprotty.IDiagramOpenListener
 import org.eclipse.sprotty.IDiagramSelectionListener
@@ -42,6 +43,10 @@ abstract class DefaultDiagramModule extends AbstractGenericModule {
 		ILayoutEngine.NullImpl
 	}
 	
+	def Class<? extends IBoundsEstimator> bindIBoundsEstimator() {
+		IBoundsEstimator.NullImpl
+	}
+	
 	def Class<? extends IPopupModelFactory> bindIPopupModelFactory() {
 		PopupModelFactory
 	}
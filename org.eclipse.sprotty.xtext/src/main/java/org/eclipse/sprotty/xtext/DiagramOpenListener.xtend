@@ -21,7 +21,6 @@ import org.eclipse.lsp4j.Range
 import org.eclipse.sprotty.IDiagramOpenListener
 import org.eclipse.sprotty.IDiagramServer
 import org.eclipse.sprotty.OpenAction
-import org.eclipse.sprotty.SModelIndex
 import org.eclipse.sprotty.xtext.ls.OpenInTextEditorMessage
 import org.eclipse.sprotty.xtext.ls.SyncDiagramClient
 import org.eclipse.sprotty.xtext.tracing.ITraceProvider
@@ -40,7 +39,7 @@ class DiagramOpenListener implements IDiagramOpenListener {
 		if (server instanceof ILanguageAwareDiagramServer) {
 			val diagramLanguageClient = server.diagramLanguageServer.client
 			if (diagramLanguageClient instanceof SyncDiagramClient) {
-				val selectedElement = new SModelIndex(server.model).get(action.elementId)
+				val selectedElement = server.diagramState.currentModelIndex.get(action.elementId)
 				if (selectedElement?.trace !== null) {
 					selectedElement.withSource(server) [ element, context |
 						if (element !== null) {
@@ -22,7 +22,6 @@ import org.eclipse.lsp4j.Range
 import org.eclipse.sprotty.Action
 import org.eclipse.sprotty.IDiagramSelectionListener
 import org.eclipse.sprotty.IDiagramServer
-import org.eclipse.sprotty.SModelIndex
 import org.eclipse.sprotty.SelectAction
 import org.eclipse.sprotty.xtext.ls.OpenInTextEditorMessage
 import org.eclipse.sprotty.xtext.ls.SyncDiagramClient
@@ -51,7 +50,7 @@ class DiagramSelectionListener implements IDiagramSelectionListener {
 		if (diagramLanguageClient instanceof SyncDiagramClient) {
 			if (action.selectedElementsIDs !== null && action.selectedElementsIDs.size === 1)  {
 				val id = action.selectedElementsIDs.head
-				val selectedElement = new SModelIndex(server.model).get(id)
+				val selectedElement = server.diagramState.currentModelIndex.get(id)
 				if (selectedElement?.trace !== null) {
 					selectedElement.withSource(server) [ element, context |
 						if (element !== null) {
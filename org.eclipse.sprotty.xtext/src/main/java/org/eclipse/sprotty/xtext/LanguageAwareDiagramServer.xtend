@@ -16,6 +16,7 @@
 package org.eclipse.sprotty.xtext
 
 import com.google.inject.Inject
+import java.util.Map
 import org.apache.log4j.Logger
 import org.eclipse.emf.ecore.EObject
 import org.eclipse.sprotty.DefaultDiagramServer
@@ -26,6 +27,7 @@ import org.eclipse.sprotty.SModelRoot
 import org.eclipse.sprotty.ServerStatus
 import org.eclipse.sprotty.util.IdCache
 import org.eclipse.sprotty.xtext.ls.DiagramLanguageServer
+import org.eclipse.sprotty.xtext.ls.DiagramServerManager
 import org.eclipse.sprotty.xtext.ls.DiagramUpdater
 import org.eclipse.sprotty.xtext.ls.IssueProvider
 import org.eclipse.xtend.lib.annotations.Accessors
@@ -62,6 +64,25 @@ class LanguageAwareDiagramServer extends DefaultDiagramServer implements ILangua
 		}
 	}
 	
+	override protected copyOptions(RequestModelAction request) {
+		super.copyOptions(request)
+		updateSourceUriIndex()
+	}
+	
+	override protected setOptions(Map<String, String> options) {
+		super.setOptions(options)
+		updateSourceUriIndex()
+	}
+	
+	/**
+	 * Notify the diagram server manager that the source URI option may have changed.
+	 */
+	protected def void updateSourceUriIndex() {
+		val diagramServerManager = diagramLanguageServer?.diagramServerManager
+		if (diagramServerManager instanceof DiagramServerManager)
+			diagramServerManager.updateSourceUri(this)
+	}
+	
 	override getSourceUri() {
 		options.get(DiagramOptions.OPTION_SOURCE_URI)
 	}
@@ -21,6 +21,7 @@ import com.google.inject.Module
 import org.eclipse.lsp4j.services.LanguageClient
 import org.eclipse.sprotty.server.json.ActionTypeAdapter
 import org.eclipse.sprotty.server.json.EnumTypeAdapter
+import org.eclipse.sprotty.server.json.SModelElementTypeAdapter
 import org.eclipse.sprotty.xtext.ls.DiagramServerModule
 import org.eclipse.xtext.ide.server.ServerModule
 import org.eclipse.xtext.util.Modules2
@@ -33,6 +34,7 @@ abstract class DiagramLanguageServerSetup {
 		val factory = new ActionTypeAdapter.Factory()
 		gsonBuilder
 			.registerTypeAdapterFactory(factory)
+			.registerTypeAdapterFactory(new SModelElementTypeAdapter.Factory())
 			.registerTypeAdapterFactory(new EnumTypeAdapter.Factory())
 	}
 	
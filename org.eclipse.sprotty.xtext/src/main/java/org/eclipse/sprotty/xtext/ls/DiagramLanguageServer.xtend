@@ -18,7 +18,12 @@ package org.eclipse.sprotty.xtext.ls
 
 import com.google.inject.Inject
 import com.google.inject.Singleton
+import java.util.List
 import org.eclipse.emf.common.util.URI
+import org.eclipse.lsp4j.DidChangeTextDocumentParams
+import org.eclipse.lsp4j.DidChangeWatchedFilesParams
+import org.eclipse.lsp4j.DidCloseTextDocumentParams
+import org.eclipse.lsp4j.DidOpenTextDocumentParams
 import org.eclipse.lsp4j.DocumentHighlightParams
 import org.eclipse.lsp4j.InitializeParams
 import org.eclipse.lsp4j.VersionedTextDocumentIdentifier
@@ -34,6 +39,7 @@ import org.eclipse.xtend.lib.annotations.Accessors
 import org.eclipse.xtext.ide.server.LanguageServerImpl
 import org.eclipse.xtext.ide.server.UriExtensions
 import org.eclipse.xtext.util.internal.Log
+import org.eclipse.xtext.validation.Issue
 
 /**
  * An extended language server that adds diagram-related messages to the
@@ -60,6 +66,10 @@ class DiagramLanguageServer extends LanguageServerImpl implements DiagramServerE
 	@Accessors(PUBLIC_GETTER)
 	DiagramUpdater diagramUpdater
 	
+	@Inject
+	@Accessors(PUBLIC_GETTER)
+	IssueCache issueCache
+	
 	protected DiagramEndpoint _client 
 	
 	override initialize(InitializeParams params) {
@@ -100,6 +110,45 @@ class DiagramLanguageServer extends LanguageServerImpl implements DiagramServerE
 	
 	
 	
+	/**
+	 * Remember the issues found by the build, so the diagram updates triggered by it can reuse them
+	 * instead of validating the resource again.
+	 */
+	override protected publishDiagnostics(URI uri, Iterable<? extends Issue> issues) {
+		val version = if (workspaceManager.isDocumentOpen(uri))
+				workspaceManager.doRead(uri) [ doc, resource | doc.version ]
+		val List<Issue> issueList = newArrayList
+		issueList += issues
+		issueCache.put(uri, version, issueList)
+		super.publishDiagnostics(uri, issues)
+	}
+	
+	override didOpen(DidOpenTextDocumentParams params) {
+		issueCache.invalidate(params.textDocument.uri.toUri)
+		super.didOpen(params)
+	}
+	
+	override didChange(DidChangeTextDocumentParams params) {
+		issueCache.invalidate(params.textDocument.uri.toUri)
+		super.didChange(params)
+	}
+	
+	override didClose(DidCloseTextDocumentParams params) {
+		issueCache.invalidate(params.textDocument.uri.toUri)
+		super.didClose(params)
+	}
+	
+	/**
+	 * Files that are not open in the editor are recorded without a document version, so their entries are
+	 * discarded when the client reports an external change.
+	 */
+	override didChangeWatchedFiles(DidChangeWatchedFilesParams params) {
+		for (change : params.changes) {
+			issueCache.invalidate(change.uri.toUri)
+		}
+		super.didChangeWatchedFiles(params)
+	}
+	
 	override getLanguageServerAccess() {
 		super.languageServerAccess
 	}
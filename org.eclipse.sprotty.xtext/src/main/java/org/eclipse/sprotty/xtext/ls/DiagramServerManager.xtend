@@ -17,10 +17,12 @@
 package org.eclipse.sprotty.xtext.ls
 
 import com.google.common.collect.HashMultimap
+import com.google.common.collect.ImmutableList
 import com.google.inject.Inject
 import com.google.inject.Singleton
 import java.util.List
-import java.util.Map
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentMap
 import org.eclipse.sprotty.IDiagramServer
 import org.eclipse.sprotty.xtext.IDiagramServerFactory
 import org.eclipse.sprotty.xtext.ILanguageAwareDiagramServer
@@ -38,7 +40,20 @@ class DiagramServerManager implements IDiagramServerManager {
 
 	@Inject extension IResourceServiceProvider.Registry languagesRegistry
 
-	Map<String, IDiagramServer> clientId2diagramServer = newLinkedHashMap
+	val clientId2diagramServer = new ConcurrentHashMap<String, IDiagramServer>
+
+	// All diagram servers in the order of their creation, replaced on every modification
+	volatile List<IDiagramServer> orderedDiagramServers = emptyList
+
+	val sourceUri2diagramServers = new ConcurrentHashMap<String, List<ILanguageAwareDiagramServer>>
+
+	val diagramType2diagramServers = new ConcurrentHashMap<String, List<IDiagramServer>>
+
+	// The source URI under which each diagram server is currently indexed
+	val indexedSourceUris = new ConcurrentHashMap<IDiagramServer, String>
+
+	// Guards all modifications of the indexes; reading them does not require a lock
+	val lock = new Object
 	
 	List<IDiagramServerFactory> diagramServerFactories
 
@@ -46,41 +61,127 @@ class DiagramServerManager implements IDiagramServerManager {
 		this.languageServer = languageServer
 	}
 
+	/**
+	 * Find the diagram servers showing the given URI. The result is taken from the source URI index, so
+	 * {@link #updateSourceUri(IDiagramServer)} must be called whenever the source URI option of a server
+	 * is modified. {@link LanguageAwareDiagramServer} does that automatically when its options are set.
+	 * Servers whose source URI has changed since they were indexed are excluded.
+	 */
 	override findDiagramServersByUri(String uri) {
-		synchronized (clientId2diagramServer)
-			clientId2diagramServer.values.filter(ILanguageAwareDiagramServer).filter[sourceUri == uri].toList
+		if (uri === null)
+			return emptyList
+		val indexedServers = sourceUri2diagramServers.get(uri)
+		if (indexedServers === null)
+			return emptyList
+		indexedServers.filter[sourceUri == uri].toList
+	}
+
+	def List<? extends IDiagramServer> findDiagramServersByType(String diagramType) {
+		(if (diagramType !== null) diagramType2diagramServers.get(diagramType)) ?: emptyList
 	}
 
 	override getDiagramServer(String diagramType, String clientId) {
-		synchronized (clientId2diagramServer) {
-			val existingDiagramServer = clientId2diagramServer.get(clientId)
-			if (existingDiagramServer !== null) {
-				return existingDiagramServer
-			} else {
-				val diagramService = getDiagramServerFactory(diagramType)
-				if (diagramService === null) {
-					LOG.error("No diagram service for type '" + diagramType + "'")
-					return null					
+		if (clientId === null) {
+			LOG.error("Missing client id for diagram type '" + diagramType + "'")
+			return null
+		}
+		val existingDiagramServer = clientId2diagramServer.get(clientId)
+		if (existingDiagramServer !== null)
+			return existingDiagramServer
+		synchronized (lock) {
+			val concurrentDiagramServer = clientId2diagramServer.get(clientId)
+			if (concurrentDiagramServer !== null)
+				return concurrentDiagramServer
+			val diagramService = getDiagramServerFactory(diagramType)
+			if (diagramService === null) {
+				LOG.error("No diagram service for type '" + diagramType + "'")
+				return null					
+			}
+			val newDiagramServer = diagramService.createDiagramServer(diagramType, clientId)
+			if (newDiagramServer instanceof LanguageAwareDiagramServer)
+				newDiagramServer.diagramLanguageServer = languageServer
+			newDiagramServer.remoteEndpoint = [ message |
+				languageServer.client?.accept(message)
+			]
+			clientId2diagramServer.put(clientId, newDiagramServer)
+			orderedDiagramServers = ImmutableList.<IDiagramServer>builder.addAll(orderedDiagramServers).add(newDiagramServer).build
+			if (newDiagramServer instanceof ILanguageAwareDiagramServer)
+				diagramType2diagramServers.addToIndex(newDiagramServer.diagramType ?: diagramType, newDiagramServer)
+			else
+				diagramType2diagramServers.addToIndex(diagramType, newDiagramServer)
+			updateSourceUri(newDiagramServer)
+			return newDiagramServer
+		}
+	}
+
+	/**
+	 * Update the source URI index for the given diagram server. This must be called whenever the
+	 * {@link org.eclipse.sprotty.DiagramOptions#OPTION_SOURCE_URI source URI} option of the server changes.
+	 */
+	def void updateSourceUri(IDiagramServer diagramServer) {
+		if (diagramServer instanceof ILanguageAwareDiagramServer) {
+			synchronized (lock) {
+				if (clientId2diagramServer.get(diagramServer.clientId) !== diagramServer)
+					return
+				val oldUri = indexedSourceUris.get(diagramServer)
+				val newUri = diagramServer.sourceUri
+				if (oldUri != newUri) {
+					sourceUri2diagramServers.removeFromIndex(oldUri, diagramServer)
+					sourceUri2diagramServers.addToIndex(newUri, diagramServer)
+					if (newUri !== null)
+						indexedSourceUris.put(diagramServer, newUri)
+					else
+						indexedSourceUris.remove(diagramServer)
 				}
-				val newDiagramServer = diagramService.createDiagramServer(diagramType, clientId)
-				if (newDiagramServer instanceof LanguageAwareDiagramServer)
-					newDiagramServer.diagramLanguageServer = languageServer
-				newDiagramServer.remoteEndpoint = [ message |
-					languageServer.client?.accept(message)
-				]
-				clientId2diagramServer.put(clientId, newDiagramServer)
-				return newDiagramServer
 			}
 		}
 	}
 	
 	override removeDiagramServer(String clientId) {
-		synchronized (clientId2diagramServer)
-			clientId2diagramServer.remove(clientId)
+		if (clientId === null)
+			return
+		synchronized (lock) {
+			val diagramServer = clientId2diagramServer.remove(clientId)
+			if (diagramServer !== null) {
+				orderedDiagramServers = orderedDiagramServers.filter[it !== diagramServer].toImmutableList
+				for (diagramType : diagramType2diagramServers.keySet) {
+					diagramType2diagramServers.removeFromIndex(diagramType, diagramServer)
+				}
+				sourceUri2diagramServers.removeFromIndex(indexedSourceUris.remove(diagramServer), diagramServer)
+			}
+		}
 	}
 	
+	/**
+	 * Return all diagram servers in the order of their creation.
+	 */
 	override getDiagramServers() {
-		clientId2diagramServer.values
+		orderedDiagramServers
+	}
+
+	/**
+	 * Add a diagram server to an index. The lists in the index are immutable and replaced on every
+	 * modification, so they can be read concurrently.
+	 */
+	protected def <T> void addToIndex(ConcurrentMap<String, List<T>> index, String key, T diagramServer) {
+		if (key !== null) {
+			index.compute(key) [ k, diagramServers |
+				ImmutableList.<T>builder.addAll(diagramServers ?: emptyList).add(diagramServer).build
+			]
+		}
+	}
+
+	protected def <T> void removeFromIndex(ConcurrentMap<String, List<T>> index, String key, T diagramServer) {
+		if (key !== null) {
+			index.computeIfPresent(key) [ k, diagramServers |
+				val remaining = diagramServers.filter[it !== diagramServer].toImmutableList
+				if (remaining.empty) null else remaining
+			]
+		}
+	}
+
+	private def <T> List<T> toImmutableList(Iterable<T> elements) {
+		ImmutableList.copyOf(elements)
 	}
 	
 	@Data
@@ -19,15 +19,25 @@ package org.eclipse.sprotty.xtext.ls
 import com.google.inject.Inject
 import com.google.inject.Singleton
 import java.util.Collection
+import java.util.HashMap
+import java.util.HashSet
+import java.util.LinkedHashMap
 import java.util.List
+import java.util.Map
 import java.util.Set
-import java.util.Timer
 import java.util.TimerTask
 import java.util.concurrent.CompletableFuture
-import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Future
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.ScheduledThreadPoolExecutor
+import java.util.concurrent.TimeUnit
 import org.apache.log4j.Logger
 import org.eclipse.emf.common.util.URI
 import org.eclipse.sprotty.Action
+import org.eclipse.sprotty.DefaultDiagramServer
+import org.eclipse.sprotty.SModelCloner
 import org.eclipse.sprotty.xtext.ILanguageAwareDiagramServer
 import org.eclipse.sprotty.xtext.LanguageAwareDiagramServer
 import org.eclipse.xtend.lib.annotations.Accessors
@@ -36,6 +46,7 @@ import org.eclipse.xtext.ide.server.UriExtensions
 import org.eclipse.xtext.resource.IResourceServiceProvider
 import org.eclipse.xtext.validation.CheckMode
 import org.eclipse.xtext.validation.IResourceValidator
+import org.eclipse.xtext.validation.Issue
 
 @Singleton
 class DiagramUpdater {
@@ -51,11 +62,28 @@ class DiagramUpdater {
 
 	@Inject extension UriExtensions
 
+	@Inject
+	@Accessors(PROTECTED_GETTER)
+	SModelCloner smodelCloner
+
+	@Inject
+	@Accessors(PROTECTED_GETTER)
+	IssueCache issueCache
+
+	/**
+	 * Whether diagram servers that show the same URI with the same diagram type, options and expanded
+	 * elements share a single generated model. Each server receives its own copy of the model, so layout
+	 * and per-client state such as the selection are still handled by each server separately. Use a
+	 * shared layout cache to avoid computing the same layout several times.
+	 */
+	@Accessors
+	boolean shareGeneratedModels
+
 	DeferredDiagramUpdater updater
 
 	def void initialize(DiagramLanguageServer languageServer) {
 		this.languageServer = languageServer
-		updater = new DeferredDiagramUpdater([it | doUpdateDiagrams(it)])
+		updater = new DeferredDiagramUpdater([doUpdateDiagrams(it)], DeferredDiagramUpdater.sharedExecutor)
 		languageServer.languageServerAccess.addBuildListener [ deltas |
 			updateDiagrams(deltas.map[uri].toSet)
 		]
@@ -114,61 +142,357 @@ class DiagramUpdater {
 	protected def CompletableFuture<Void> doUpdateDiagrams(String path, List<? extends ILanguageAwareDiagramServer> diagramServers) {
 		languageServer.languageServerAccess.doRead(path) [ context |
 			val issueProvider = validate(context)
-			diagramServers.forEach [
-				val root = generate(context, issueProvider)
-				if (root !== null)
-					updateModel(root)
-			]
+			if (shareGeneratedModels) {
+				diagramServers.groupBy[generationKey].values.forEach [ group |
+					generateShared(context, issueProvider, group)
+				]
+			} else {
+				diagramServers.forEach [
+					val root = generate(context, issueProvider)
+					if (root !== null)
+						updateModel(root)
+				]
+			}
 			null
 		]
 	}
 
+	/**
+	 * Return a key that is equal for two diagram servers exactly if the diagram generator produces the same
+	 * model for both of them.
+	 */
+	protected def Object getGenerationKey(ILanguageAwareDiagramServer diagramServer) {
+		val state = diagramServer.diagramState
+		newArrayList(diagramServer.diagramType, new HashMap(state.options), new HashSet(state.expandedElements))
+	}
+
+	/**
+	 * Generate the model once with the first of the given diagram servers and update all of them
+	 * with copies of the result.
+	 */
+	protected def void generateShared(ILanguageServerAccess.Context context, IssueProvider issueProvider,
+			List<? extends ILanguageAwareDiagramServer> diagramServers) {
+		val generatingServer = diagramServers.head
+		val root = generatingServer.generate(context, issueProvider)
+		if (generatingServer instanceof DefaultDiagramServer) {
+			val status = generatingServer.status
+			diagramServers.tail.forEach[setStatus(status)]
+		}
+		if (root !== null) {
+			// Copy the model before any server modifies it, e.g. by applying a layout
+			val copies = diagramServers.tail.map[it -> smodelCloner.clone(root)].toList
+			generatingServer.updateModel(root)
+			copies.forEach[key.updateModel(value)]
+		}
+	}
+
+	/**
+	 * Return the issues of the resource. The issues published by the build for the current document
+	 * version are reused; the resource is only validated if there is no such result.
+	 */
 	protected def IssueProvider validate(ILanguageServerAccess.Context context) {
 		if (context.resource === null)
 			return null
+		val version = if (context.documentOpen) context.document?.version
+		val publishedIssues = issueCache.get(context.resource.URI, version)
+		if (publishedIssues !== null)
+			return new IssueProvider(publishedIssues)
+		new IssueProvider(doValidate(context))
+	}
+
+	/**
+	 * Validate the resource, which is done only if the build has not published issues for it.
+	 */
+	protected def List<Issue> doValidate(ILanguageServerAccess.Context context) {
 		val issues = resourceServiceProviderRegistry
 			.getResourceServiceProvider(context.resource.URI)
 			?.get(IResourceValidator)
 			?.validate(context.resource, CheckMode.NORMAL_AND_FAST, context.cancelChecker)
-		new IssueProvider(issues ?: emptyList)
+		issues ?: emptyList
 	}
 }
 
+/**
+ * Debounces diagram updates per URI. Each change of a URI restarts the debounce window of that URI, and when
+ * the window has elapsed without further changes, the diagrams of that URI are regenerated. Distinct URIs
+ * are regenerated independently of each other, while updates of the same URI never overlap: a change during
+ * a running update triggers exactly one further update afterwards.
+ * 
+ * <p>The debounce window adapts to the measured generation time of each URI, so diagrams that are
+ * expensive to generate are not regenerated continuously while the user is typing. All updaters created
+ * without an explicit executor share a single scheduler thread, which only starts the updates.</p>
+ *
+ * <p>The state of a URI is discarded as soon as it is idle, i.e. no update is pending or running. Only the
+ * average generation time is remembered for the {@link #MAX_REMEMBERED_URIS} most recently updated URIs.</p>
+ */
 class DeferredDiagramUpdater {
 
-	Timer currentTimer
+	static val LOG = Logger.getLogger(DeferredDiagramUpdater)
 
-	val uris = new LinkedBlockingQueue<URI>
+	/**
+	 * The minimal debounce window in milliseconds.
+	 */
+	public static val long DEFAULT_DELAY = 200
 
-	val lock = new Object
+	/**
+	 * The maximal debounce window in milliseconds.
+	 */
+	public static val long MAX_DELAY = 2000
+
+	/**
+	 * The maximal number of idle URIs whose average generation time is remembered.
+	 */
+	public static val int MAX_REMEMBERED_URIS = 1000
+
+	/**
+	 * Weight of the most recent generation time in the average that determines the debounce window.
+	 */
+	static val SMOOTHING = 0.3
 
-	val (Set<? extends URI>)=>void updateFunction
+	static ScheduledExecutorService sharedExecutor
+
+	/**
+	 * The scheduler that is shared by all updaters created without an explicit executor.
+	 */
+	static synchronized def ScheduledExecutorService getSharedExecutor() {
+		if (sharedExecutor === null) {
+			val executor = new ScheduledThreadPoolExecutor(1) [ runnable |
+				val thread = new Thread(runnable, 'Diagram updater')
+				thread.daemon = true
+				thread
+			]
+			// Cancelled debounce tasks would otherwise stay in the queue until their delay elapses
+			executor.removeOnCancelPolicy = true
+			sharedExecutor = executor
+		}
+		sharedExecutor
+	}
+
+	@Accessors(PROTECTED_GETTER)
+	val Map<URI, UriState> states = new ConcurrentHashMap
+
+	/**
+	 * Average generation times of idle URIs in access order. Guarded by the map instance.
+	 */
+	val Map<URI, Double> idleAverages = new LinkedHashMap<URI, Double>(16, 0.75f, true) {
+		override protected removeEldestEntry(Map.Entry<URI, Double> eldest) {
+			size > MAX_REMEMBERED_URIS
+		}
+	}
+
+	val (Set<? extends URI>)=>CompletableFuture<?> updateFunction
+
+	val ScheduledExecutorService executor
 
 	new((Set<? extends URI>)=>void updateFunction) {
+		this([ uris |
+			updateFunction.apply(uris)
+			CompletableFuture.completedFuture(null)
+		], getSharedExecutor)
+	}
+
+	/**
+	 * Create an updater with an asynchronous update function. The returned future is used to measure
+	 * the generation time and to prevent overlapping updates of the same URI.
+	 */
+	new((Set<? extends URI>)=>CompletableFuture<?> updateFunction, ScheduledExecutorService executor) {
 		this.updateFunction = updateFunction
+		this.executor = executor
 	}
 
 	def void updateLater(Collection<? extends URI> newUris) {
-		uris.addAll(newUris)
-		schedule(200)
+		for (uri : newUris) {
+			schedule(uri)
+		}
+	}
+
+	/**
+	 * Restart the debounce window of the given URI.
+	 */
+	protected def void schedule(URI uri) {
+		while (true) {
+			val state = states.computeIfAbsent(uri) [ createState(uri) ]
+			synchronized (state) {
+				// Retry if the state has been discarded concurrently, so updates of the URI never overlap
+				if (!state.discarded) {
+					if (state.running) {
+						state.dirty = true
+					} else {
+						state.pending?.cancel(false)
+						state.pending = scheduleUpdate(uri, state, getDelay(state))
+					}
+					return
+				}
+			}
+		}
+	}
+
+	/**
+	 * Schedule an update of the given URI. Must be called while holding the lock of the state.
+	 */
+	private def ScheduledFuture<?> scheduleUpdate(URI uri, UriState state, long delay) {
+		val task = new UpdateTask(this, uri, state)
+		// The task needs the lock of the state before it reads its own future
+		task.future = executor.schedule(task, delay, TimeUnit.MILLISECONDS)
+		task.future
+	}
+
+	private def UriState createState(URI uri) {
+		val state = new UriState
+		synchronized (idleAverages) {
+			state.averageMillis = idleAverages.remove(uri) ?: -1.0
+		}
+		state
+	}
+
+	/**
+	 * Discard the state of an idle URI. Must be called while holding the lock of the state.
+	 */
+	protected def void discard(URI uri, UriState state) {
+		state.discarded = true
+		states.remove(uri, state)
+		if (state.averageMillis >= 0) {
+			synchronized (idleAverages) {
+				idleAverages.put(uri, state.averageMillis)
+			}
+		}
 	}
 
+	/**
+	 * Restart the debounce window of all URIs with a pending update, using the given delay.
+	 * 
+	 * @deprecated The updater no longer uses a single timer for all URIs, so this method is not called
+	 *     anymore. Override {@link #schedule(URI)} or {@link #getDelay(UriState)} instead.
+	 */
+	@Deprecated
 	protected def void schedule(long delay) {
-		synchronized(lock) {
-			if(currentTimer !== null)
-				currentTimer.cancel
-			currentTimer = new Timer('Diagram updater', true)
-			currentTimer.schedule(createTimerTask, delay)
+		for (entry : states.entrySet) {
+			val uri = entry.key
+			val state = entry.value
+			synchronized (state) {
+				if (state.pending !== null && state.pending.cancel(false))
+					state.pending = scheduleUpdate(uri, state, delay)
+			}
 		}
 	}
 
+	/**
+	 * Return a task that updates all URIs with a pending update.
+	 * 
+	 * @deprecated The updater no longer uses a {@link java.util.Timer}, so this method is not called anymore.
+	 */
+	@Deprecated
 	protected def TimerTask createTimerTask() {
 		[ this.update() ]
 	}
 
+	/**
+	 * Update all URIs with a pending update immediately.
+	 * 
+	 * @deprecated The updater no longer updates all URIs at once, so this method is not called anymore.
+	 *     Override {@link #update(URI, UriState)} instead.
+	 */
+	@Deprecated
 	protected def void update() {
-		val processUris = <URI>newHashSet
-		uris.drainTo(processUris)
-		updateFunction.apply(processUris)
+		for (entry : states.entrySet) {
+			val uri = entry.key
+			val state = entry.value
+			val cancelled = synchronized (state) {
+				state.pending !== null && state.pending.cancel(false)
+			}
+			if (cancelled)
+				update(uri, state)
+		}
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Return the debounce window for a URI: the average generation time, but at least
+	 * {@link #DEFAULT_DELAY} and at most {@link #MAX_DELAY}.
+	 */
+	protected def long getDelay(UriState state) {
+		if (state.averageMillis < 0)
+			return DEFAULT_DELAY
+		Math.min(MAX_DELAY, Math.max(DEFAULT_DELAY, state.averageMillis as long))
+	}
+
+	/**
+	 * Update the given URI after its pending update has been cancelled.
+	 */
+	protected def void update(URI uri, UriState state) {
+		update(uri, state, null)
+	}
+
+	/**
+	 * Update the given URI. {@code task} is the scheduled update that is being executed. It may have
+	 * started before a further change scheduled another update, so the pending update is cleared only
+	 * if it is this task or if it has been cancelled.
+	 */
+	protected def void update(URI uri, UriState state, Future<?> task) {
+		synchronized (state) {
+			if (state.discarded)
+				return
+			if (state.pending === task || state.pending !== null && state.pending.cancelled)
+				state.pending = null
+			if (state.running) {
+				state.dirty = true
+				return
+			}
+			state.running = true
+		}
+		val startTime = System.nanoTime
+		var CompletableFuture<?> future
+		try {
+			future = updateFunction.apply(#{uri})
+		} catch (Exception exc) {
+			LOG.error("Failed to update diagrams for URI " + uri, exc)
+		}
+		(future ?: CompletableFuture.completedFuture(null)).whenComplete [ result, exc |
+			finished(uri, state, (System.nanoTime - startTime) / 1_000_000.0)
+		]
+	}
+
+	protected def void finished(URI uri, UriState state, double millis) {
+		synchronized (state) {
+			state.averageMillis = if (state.averageMillis < 0)
+					millis
+				else
+					SMOOTHING * millis + (1 - SMOOTHING) * state.averageMillis
+			state.running = false
+			if (state.dirty) {
+				state.dirty = false
+				state.pending = scheduleUpdate(uri, state, getDelay(state))
+			} else if (state.pending === null) {
+				discard(uri, state)
+			}
+		}
+	}
+
+	private static class UpdateTask implements Runnable {
+		val DeferredDiagramUpdater updater
+		val URI uri
+		val UriState state
+		package ScheduledFuture<?> future
+
+		new(DeferredDiagramUpdater updater, URI uri, UriState state) {
+			this.updater = updater
+			this.uri = uri
+			this.state = state
+		}
+
+		override run() {
+			val future = synchronized (state) { this.future }
+			updater.update(uri, state, future)
+		}
+	}
+
+	/**
+	 * The update state of a single URI. All fields are guarded by the state instance.
+	 */
+	protected static class UriState {
+		package ScheduledFuture<?> pending
+		package boolean running
+		package boolean dirty
+		package double averageMillis = -1
+		package boolean discarded
+	}
+}
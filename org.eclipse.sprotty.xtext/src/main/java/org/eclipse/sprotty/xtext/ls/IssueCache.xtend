@@ -0,0 +1,69 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty.xtext.ls
+
+import com.google.inject.Singleton
+import java.util.List
+import java.util.Objects
+import java.util.concurrent.ConcurrentHashMap
+import org.eclipse.emf.common.util.URI
+import org.eclipse.xtend.lib.annotations.Data
+import org.eclipse.xtext.validation.Issue
+
+/**
+ * Remembers the issues published by the workspace build, so diagram updates triggered by the same build
+ * don't have to validate the resource again. An entry is only returned for the document version it was
+ * recorded for, and it is discarded as soon as the document changes.
+ */
+@Singleton
+class IssueCache {
+
+	val entries = new ConcurrentHashMap<URI, Entry>
+
+	/**
+	 * Record the issues of the given resource. The version is the version of the open document, or
+	 * {@code null} if the document is not open.
+	 */
+	def void put(URI uri, Integer version, List<Issue> issues) {
+		entries.put(uri, new Entry(version, issues))
+	}
+
+	/**
+	 * Return the issues recorded for the given resource and document version, or {@code null} if
+	 * there is no fresh result.
+	 */
+	def List<Issue> get(URI uri, Integer version) {
+		val entry = entries.get(uri)
+		if (entry !== null && Objects.equals(entry.version, version))
+			entry.issues
+		else
+			null
+	}
+
+	def void invalidate(URI uri) {
+		entries.remove(uri)
+	}
+
+	def void clear() {
+		entries.clear
+	}
+
+	@Data
+	protected static class Entry {
+		Integer version
+		List<Issue> issues
+	}
+}
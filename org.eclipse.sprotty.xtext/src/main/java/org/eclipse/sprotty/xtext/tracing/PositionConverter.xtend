@@ -16,41 +16,76 @@
 
 package org.eclipse.sprotty.xtext.tracing
 
+import java.util.Arrays
 import org.eclipse.emf.ecore.EObject
 import org.eclipse.lsp4j.Position
 import org.eclipse.xtext.resource.XtextResource
 import org.eclipse.lsp4j.Range
 import org.eclipse.xtext.util.ITextRegion
 
+/**
+ * Converts text offsets of Xtext resources to LSP positions. The start offsets of all lines are computed
+ * once per parse result and cached in the resource, so each conversion is a binary search.
+ */
 class PositionConverter {
 	
+	static val LINE_STARTS_KEY = PositionConverter.name + '.lineStarts'
+	
 	def toPosition(int offset, EObject context) {
 		val resource = context.eResource
 		if(resource instanceof XtextResource) {
-			val contents = resource.parseResult.rootNode.text
-	        val l = contents.length
-	        if (offset < 0 || offset > l)
-	            throw new IndexOutOfBoundsException("Offset: " + offset)
-	        val char NL = '\n'
-	        var line = 0
-	        var column = 0
-	        for (var i = 0; i < l; i++) {
-	            val ch = contents.charAt(i)
-	            if (i === offset) {
-	                return new Position(line, column)
-	            }
-	            if (ch === NL) {
-	                line++
-	                column = 0
-	            } else {
-	                column++
-	            }
-	        }
-	        return new Position(line, column)
+			val lineStarts = getLineStarts(resource)
+			if (offset < 0 || offset > lineStarts.text.length)
+				throw new IndexOutOfBoundsException("Offset: " + offset)
+			return lineStarts.toPosition(offset)
 		}
 		throw new IllegalArgumentException(resource?.class?.simpleName + ' is not an XtextResource');
 	}
 	
+	protected def LineStarts getLineStarts(XtextResource resource) {
+		val contents = resource.parseResult.rootNode.text
+		val cached = resource.cache.get(LINE_STARTS_KEY, resource) [ new LineStarts(contents) ]
+		// The cache is cleared when the resource changes, but don't rely on that for the correct text
+		if (cached.text === contents)
+			cached
+		else
+			new LineStarts(contents)
+	}
+	
+	/**
+	 * The start offsets of the lines of a text.
+	 */
+	protected static class LineStarts {
+		
+		public val String text
+		
+		val int[] offsets
+		
+		new(String text) {
+			this.text = text
+			val char NL = '\n'
+			val l = text.length
+			var lineCount = 1
+			for (var i = 0; i < l; i++) {
+				if (text.charAt(i) === NL)
+					lineCount++
+			}
+			offsets = newIntArrayOfSize(lineCount)
+			var line = 1
+			for (var i = 0; i < l; i++) {
+				if (text.charAt(i) === NL)
+					offsets.set(line++, i + 1)
+			}
+		}
+		
+		def Position toPosition(int offset) {
+			val index = Arrays.binarySearch(offsets, offset)
+			// A negative result encodes the insertion point; the offset is on the line before it
+			val line = if (index >= 0) index else -index - 2
+			return new Position(line, offset - offsets.get(line))
+		}
+	}
+	
 	def toRange(ITextRegion region, EObject context) {
 		toRange(region.offset, region.length, context)
 	}
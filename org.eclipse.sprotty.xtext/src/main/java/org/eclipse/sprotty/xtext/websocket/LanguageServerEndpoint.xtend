@@ -49,7 +49,7 @@ class LanguageServerEndpoint extends Endpoint {
 				ActionTypeAdapter.configureGson(super.defaultGsonBuilder)
 			}
 		}
-		val outgoingMessageStream = new WebSocketMessageConsumer(session.asyncRemote, jsonHandler)
+		val outgoingMessageStream = createMessageConsumer(session, jsonHandler)
 		val serverEndpoint = new RemoteEndpoint(outgoingMessageStream, ServiceEndpoints.toEndpoint(languageServer))
 		jsonHandler.setMethodProvider(serverEndpoint)
 		val incomingMessageStream = new StreamMessageProducer(null, jsonHandler)
@@ -60,4 +60,12 @@ class LanguageServerEndpoint extends Endpoint {
 			languageServer.connect(remoteProxy)
 	}
 	
+	/**
+	 * Create the consumer for outgoing messages. Override this to return a consumer for
+	 * {@code session.basicRemote} in order to send large messages in partial frames.
+	 */
+	protected def WebSocketMessageConsumer createMessageConsumer(Session session, MessageJsonHandler jsonHandler) {
+		new WebSocketMessageConsumer(session.asyncRemote, jsonHandler)
+	}
+	
 }
\ No newline at end of file
@@ -16,33 +16,112 @@
 package org.eclipse.sprotty.xtext.websocket
 
 import java.io.ByteArrayOutputStream
+import java.io.IOException
+import java.nio.charset.StandardCharsets
 import jakarta.websocket.RemoteEndpoint
+import org.eclipse.lsp4j.jsonrpc.JsonRpcException
 import org.eclipse.lsp4j.jsonrpc.json.MessageJsonHandler
 import org.eclipse.lsp4j.jsonrpc.json.StreamMessageConsumer
 import org.eclipse.lsp4j.jsonrpc.messages.Message
 
 /**
  * LSP4J message consumer that forwards messages to a web socket.
+ * 
+ * <p>When created with an asynchronous remote endpoint, each message including its header is collected
+ * in a buffer and sent as a string. When created with a blocking remote endpoint, the message is
+ * serialized once and written to the send writer of the endpoint, which transmits it in partial frames.
+ * The sending thread then waits until the message has been transmitted. The message content cannot
+ * be streamed during serialization, since the header states its length.</p>
  */
 class WebSocketMessageConsumer extends StreamMessageConsumer {
 	
 	val RemoteEndpoint.Async remote
 	
+	val RemoteEndpoint.Basic basicRemote
+	
+	val String encoding
+	
+	val MessageJsonHandler jsonHandler
+	
 	new(RemoteEndpoint.Async remote, MessageJsonHandler jsonHandler) {
-		super(new ByteArrayOutputStream, jsonHandler)
-		this.remote = remote
+		this(remote, StandardCharsets.UTF_8.name, jsonHandler)
 	}
 	
 	new(RemoteEndpoint.Async remote, String encoding, MessageJsonHandler jsonHandler) {
 		super(new ByteArrayOutputStream, encoding, jsonHandler)
 		this.remote = remote
+		this.basicRemote = null
+		this.encoding = encoding
+		this.jsonHandler = jsonHandler
+	}
+	
+	new(RemoteEndpoint.Basic basicRemote, MessageJsonHandler jsonHandler) {
+		this(basicRemote, StandardCharsets.UTF_8.name, jsonHandler)
+	}
+	
+	new(RemoteEndpoint.Basic basicRemote, String encoding, MessageJsonHandler jsonHandler) {
+		super(null, encoding, jsonHandler)
+		this.remote = null
+		this.basicRemote = basicRemote
+		this.encoding = encoding
+		this.jsonHandler = jsonHandler
 	}
 	
 	override consume(Message message) {
-		super.consume(message)
-		val out = output as ByteArrayOutputStream
-		remote.sendText(out.toString)
-		out.reset()
+		if (basicRemote !== null) {
+			consumeStreaming(message)
+		} else {
+			super.consume(message)
+			val out = output as ByteArrayOutputStream
+			remote.sendText(out.toString)
+			out.reset()
+		}
+	}
+	
+	protected def void consumeStreaming(Message message) {
+		val content = jsonHandler.serialize(message)
+		val header = getHeader(content.encodedLength)
+		// The blocking remote endpoint does not allow concurrent messages
+		synchronized (basicRemote) {
+			try {
+				val writer = basicRemote.sendWriter
+				try {
+					writer.write(header)
+					writer.write(content)
+				} finally {
+					writer.close()
+				}
+			} catch (IOException exception) {
+				throw new JsonRpcException(exception)
+			}
+		}
+	}
+	
+	/**
+	 * The number of bytes of the given string in the message encoding. For UTF-8 this is computed
+	 * without encoding the string.
+	 */
+	protected def int encodedLength(String content) {
+		if (!StandardCharsets.UTF_8.name.equalsIgnoreCase(encoding))
+			return content.getBytes(encoding).length
+		var length = 0
+		var i = 0
+		while (i < content.length) {
+			val codePoint = content.codePointAt(i)
+			length += if (codePoint < 0x80)
+				1
+			else if (codePoint < 0x800)
+				2
+			else if (codePoint >= 0xD800 && codePoint <= 0xDFFF)
+				// An unpaired surrogate is replaced with '?' by the encoder
+				1
+			else if (codePoint < 0x10000)
+				3
+			else
+				4
+			i += Character.charCount(codePoint)
+		}
+		return length
 	}
 	
-}
\ No newline at end of file
+}
@@ -0,0 +1,277 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty.xtext.test
+
+import java.util.List
+import java.util.Set
+import java.util.concurrent.AbstractExecutorService
+import java.util.concurrent.Callable
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.Delayed
+import java.util.concurrent.Future
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.TimeUnit
+import org.eclipse.emf.common.util.URI
+import org.eclipse.sprotty.xtext.ls.DeferredDiagramUpdater
+import org.eclipse.xtend.lib.annotations.Accessors
+import org.junit.Test
+
+import static org.eclipse.sprotty.xtext.ls.DeferredDiagramUpdater.*
+import static org.junit.Assert.*
+
+class DeferredDiagramUpdaterTest {
+
+	val uri1 = URI.createURI('file:/test1.testlang')
+	val uri2 = URI.createURI('file:/test2.testlang')
+
+	val executor = new ManualScheduledExecutor
+
+	val List<Set<? extends URI>> updates = newArrayList
+
+	val List<CompletableFuture<Void>> futures = newArrayList
+
+	val updater = new TestUpdater([ uris |
+		updates += uris
+		val future = new CompletableFuture<Void>
+		futures += future
+		future
+	], executor)
+
+	@Test
+	def void testDebounce() {
+		updater.updateLater(#[uri1])
+		executor.advance(DEFAULT_DELAY - 1)
+		assertTrue(updates.empty)
+		// A further change restarts the debounce window
+		updater.updateLater(#[uri1])
+		executor.advance(DEFAULT_DELAY - 1)
+		assertTrue(updates.empty)
+		executor.advance(1)
+		assertEquals(#[#{uri1}], updates)
+	}
+
+	@Test
+	def void testDistinctUris() {
+		updater.updateLater(#[uri1])
+		executor.advance(DEFAULT_DELAY / 2)
+		updater.updateLater(#[uri2])
+		executor.advance(DEFAULT_DELAY / 2)
+		assertEquals(#[#{uri1}], updates)
+		// The update of the first URI does not delay the second one
+		executor.advance(DEFAULT_DELAY / 2)
+		assertEquals(#[#{uri1}, #{uri2}], updates)
+	}
+
+	@Test
+	def void testNoOverlap() {
+		updater.updateLater(#[uri1])
+		executor.advance(DEFAULT_DELAY)
+		assertEquals(1, updates.size)
+		// Changes during a running update don't start another update of the same URI
+		updater.updateLater(#[uri1])
+		updater.updateLater(#[uri1])
+		executor.advance(MAX_DELAY)
+		assertEquals(1, updates.size)
+		// A different URI is not blocked
+		updater.updateLater(#[uri2])
+		executor.advance(DEFAULT_DELAY)
+		assertEquals(#[#{uri1}, #{uri2}], updates)
+	}
+
+	@Test
+	def void testDirtyDuringUpdate() {
+		updater.updateLater(#[uri1])
+		executor.advance(DEFAULT_DELAY)
+		updater.updateLater(#[uri1])
+		updater.updateLater(#[uri1])
+		futures.head.complete(null)
+		assertEquals(1, updates.size)
+		// The changes during the update trigger exactly one further update
+		executor.advance(MAX_DELAY)
+		assertEquals(#[#{uri1}, #{uri1}], updates)
+		futures.last.complete(null)
+		executor.advance(MAX_DELAY)
+		assertEquals(2, updates.size)
+	}
+
+	@Test
+	def void testIdleStateDiscarded() {
+		updater.updateLater(#[uri1, uri2])
+		assertEquals(2, updater.stateCount)
+		executor.advance(DEFAULT_DELAY)
+		assertEquals(2, updater.stateCount)
+		futures.head.complete(null)
+		assertEquals(1, updater.stateCount)
+		futures.last.complete(null)
+		assertEquals(0, updater.stateCount)
+		// A discarded URI is updated again on the next change
+		updater.updateLater(#[uri1])
+		executor.advance(DEFAULT_DELAY)
+		assertEquals(3, updates.size)
+		assertEquals(#{uri1}, updates.last)
+	}
+
+	@Test
+	def void testChangeWhileTaskStarting() {
+		// The change arrives after the debounce task has started, so the task cannot be cancelled anymore
+		updater.beforeUpdate = [
+			updater.beforeUpdate = null
+			updater.updateLater(#[uri1])
+		]
+		updater.updateLater(#[uri1])
+		executor.advance(DEFAULT_DELAY)
+		assertEquals(1, updates.size)
+		futures.head.complete(null)
+		// The state is kept for the update scheduled by the change
+		assertEquals(1, updater.stateCount)
+		updater.updateLater(#[uri1])
+		executor.advance(DEFAULT_DELAY)
+		assertEquals(#[#{uri1}, #{uri1}], updates)
+		futures.last.complete(null)
+		assertEquals(0, updater.stateCount)
+	}
+
+	@Test
+	def void testFailedUpdate() {
+		val failingUpdater = new TestUpdater([ uris |
+			updates += uris
+			throw new IllegalStateException('Update failed')
+		], executor)
+		failingUpdater.updateLater(#[uri1])
+		executor.advance(DEFAULT_DELAY)
+		assertEquals(0, failingUpdater.stateCount)
+		failingUpdater.updateLater(#[uri1])
+		executor.advance(DEFAULT_DELAY)
+		assertEquals(2, updates.size)
+	}
+
+	private static class TestUpdater extends DeferredDiagramUpdater {
+		@Accessors(PUBLIC_SETTER)
+		Runnable beforeUpdate
+
+		new((Set<? extends URI>)=>CompletableFuture<?> updateFunction, ScheduledExecutorService executor) {
+			super(updateFunction, executor)
+		}
+
+		def int getStateCount() {
+			states.size
+		}
+
+		override protected update(URI uri, DeferredDiagramUpdater.UriState state, Future<?> task) {
+			beforeUpdate?.run
+			super.update(uri, state, task)
+		}
+	}
+
+	/**
+	 * Executes scheduled tasks in the calling thread when the virtual clock is advanced.
+	 */
+	private static class ManualScheduledExecutor extends AbstractExecutorService implements ScheduledExecutorService {
+		val List<ManualFuture> tasks = newArrayList
+		long now
+
+		def void advance(long millis) {
+			val target = now + millis
+			var next = nextTask(target)
+			while (next !== null) {
+				tasks.remove(next)
+				now = next.time
+				next.run
+				next = nextTask(target)
+			}
+			now = target
+		}
+
+		private def nextTask(long target) {
+			tasks.filter[!cancelled && time <= target].sortBy[time].head
+		}
+
+		override schedule(Runnable command, long delay, TimeUnit unit) {
+			val future = new ManualFuture(this, command, now + unit.toMillis(delay))
+			tasks += future
+			future
+		}
+
+		override <V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+			throw new UnsupportedOperationException
+		}
+
+		override scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+			throw new UnsupportedOperationException
+		}
+
+		override scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+			throw new UnsupportedOperationException
+		}
+
+		override execute(Runnable command) {
+			schedule(command, 0, TimeUnit.MILLISECONDS)
+		}
+
+		override shutdown() {
+		}
+
+		override shutdownNow() {
+			emptyList
+		}
+
+		override isShutdown() {
+			false
+		}
+
+		override isTerminated() {
+			false
+		}
+
+		override awaitTermination(long timeout, TimeUnit unit) {
+			false
+		}
+
+		private static class ManualFuture extends CompletableFuture<Object> implements ScheduledFuture<Object> {
+			val ManualScheduledExecutor executor
+			val Runnable command
+			val long time
+			boolean started
+
+			new(ManualScheduledExecutor executor, Runnable command, long time) {
+				this.executor = executor
+				this.command = command
+				this.time = time
+			}
+
+			def void run() {
+				started = true
+				command.run
+				complete(null)
+			}
+
+			override cancel(boolean mayInterruptIfRunning) {
+				// Like a real scheduled task, a started task cannot be cancelled anymore
+				!started && super.cancel(mayInterruptIfRunning)
+			}
+
+			override getDelay(TimeUnit unit) {
+				unit.convert(time - executor.now, TimeUnit.MILLISECONDS)
+			}
+
+			override compareTo(Delayed other) {
+				Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS))
+			}
+		}
+	}
+
+}
@@ -0,0 +1,125 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty.xtext.test
+
+import com.google.inject.Inject
+import org.eclipse.sprotty.ActionMessage
+import org.eclipse.sprotty.DiagramOptions
+import org.eclipse.sprotty.RequestModelAction
+import org.eclipse.sprotty.xtext.LanguageAwareDiagramServer
+import org.eclipse.sprotty.xtext.ls.DiagramLanguageServer
+import org.eclipse.sprotty.xtext.ls.DiagramServerManager
+import org.eclipse.sprotty.xtext.testlanguage.diagram.TestDiagramServerFactory
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+class DiagramServerManagerTest extends AbstractDiagramServerTest {
+
+	static val DIAGRAM_TYPE = TestDiagramServerFactory.DIAGRAM_TYPE
+
+	@Inject DiagramServerManager diagramServerManager
+
+	@Test
+	def void testCreate() {
+		initialize()
+		val diagramServer = diagramServerManager.getDiagramServer(DIAGRAM_TYPE, 'client1')
+		assertTrue(diagramServer instanceof LanguageAwareDiagramServer)
+		assertEquals('client1', diagramServer.clientId)
+		assertSame(diagramServer, diagramServerManager.getDiagramServer(DIAGRAM_TYPE, 'client1'))
+		assertEquals(#[diagramServer], diagramServerManager.diagramServers.toList)
+		assertEquals(#[diagramServer], diagramServerManager.findDiagramServersByType(DIAGRAM_TYPE))
+		assertNull(diagramServerManager.getDiagramServer(DIAGRAM_TYPE, null))
+	}
+
+	@Test
+	def void testCreationOrder() {
+		initialize()
+		val clientIds = #['c', 'a', 'd', 'b']
+		val diagramServers = clientIds.map[diagramServerManager.getDiagramServer(DIAGRAM_TYPE, it)].toList
+		assertEquals(diagramServers, diagramServerManager.diagramServers.toList)
+		diagramServerManager.removeDiagramServer('a')
+		assertEquals(#[diagramServers.get(0), diagramServers.get(2), diagramServers.get(3)],
+			diagramServerManager.diagramServers.toList)
+	}
+
+	@Test
+	def void testRemove() {
+		val sourceUri = writeFile('graph.testlang', 'node foo')
+		initialize()
+		val diagramServer = requestModel('client1', sourceUri)
+		assertEquals(#[diagramServer], diagramServerManager.findDiagramServersByUri(sourceUri))
+		diagramServerManager.removeDiagramServer('client1')
+		assertTrue(diagramServerManager.diagramServers.empty)
+		assertTrue(diagramServerManager.findDiagramServersByUri(sourceUri).empty)
+		assertTrue(diagramServerManager.findDiagramServersByType(DIAGRAM_TYPE).empty)
+		// Removing an unknown client has no effect
+		diagramServerManager.removeDiagramServer('client1')
+		diagramServerManager.removeDiagramServer(null)
+	}
+
+	@Test
+	def void testFindByUri() {
+		val sourceUri1 = writeFile('graph1.testlang', 'node foo')
+		val sourceUri2 = writeFile('graph2.testlang', 'node bar')
+		initialize()
+		val diagramServer1 = requestModel('client1', sourceUri1)
+		val diagramServer2 = requestModel('client2', sourceUri2)
+		val diagramServer3 = requestModel('client3', sourceUri1)
+		assertEquals(#[diagramServer1, diagramServer3], diagramServerManager.findDiagramServersByUri(sourceUri1))
+		assertEquals(#[diagramServer2], diagramServerManager.findDiagramServersByUri(sourceUri2))
+		assertTrue(diagramServerManager.findDiagramServersByUri('file:/unknown.testlang').empty)
+		assertTrue(diagramServerManager.findDiagramServersByUri(null).empty)
+	}
+
+	@Test
+	def void testReindexOnRequest() {
+		val sourceUri1 = writeFile('graph1.testlang', 'node foo')
+		val sourceUri2 = writeFile('graph2.testlang', 'node bar')
+		initialize()
+		val diagramServer = requestModel('client1', sourceUri1)
+		assertSame(diagramServer, requestModel('client1', sourceUri2))
+		assertTrue(diagramServerManager.findDiagramServersByUri(sourceUri1).empty)
+		assertEquals(#[diagramServer], diagramServerManager.findDiagramServersByUri(sourceUri2))
+	}
+
+	@Test
+	def void testUpdateSourceUri() {
+		val sourceUri1 = writeFile('graph1.testlang', 'node foo')
+		val sourceUri2 = writeFile('graph2.testlang', 'node bar')
+		initialize()
+		val diagramServer = requestModel('client1', sourceUri1)
+		val otherServer = requestModel('client2', sourceUri1)
+		// Modifying the options map directly bypasses the index
+		diagramServer.options.put(DiagramOptions.OPTION_SOURCE_URI, sourceUri2)
+		assertTrue(diagramServerManager.findDiagramServersByUri(sourceUri2).empty)
+		assertEquals(#[otherServer], diagramServerManager.findDiagramServersByUri(sourceUri1))
+		diagramServerManager.updateSourceUri(diagramServer)
+		assertEquals(#[diagramServer], diagramServerManager.findDiagramServersByUri(sourceUri2))
+		assertEquals(#[otherServer], diagramServerManager.findDiagramServersByUri(sourceUri1))
+	}
+
+	private def LanguageAwareDiagramServer requestModel(String clientId, String sourceUri) {
+		(languageServer as DiagramLanguageServer).accept(new ActionMessage(clientId, new RequestModelAction [
+			options = #{
+				DiagramOptions.OPTION_DIAGRAM_TYPE -> DIAGRAM_TYPE,
+				DiagramOptions.OPTION_SOURCE_URI -> sourceUri
+			}
+		]))
+		diagramServerManager.getDiagramServer(DIAGRAM_TYPE, clientId) as LanguageAwareDiagramServer
+	}
+
+}
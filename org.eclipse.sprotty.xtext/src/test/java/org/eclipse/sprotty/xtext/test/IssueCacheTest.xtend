@@ -0,0 +1,95 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty.xtext.test
+
+import com.google.inject.Inject
+import java.util.List
+import org.eclipse.lsp4j.DidChangeWatchedFilesParams
+import org.eclipse.lsp4j.FileChangeType
+import org.eclipse.lsp4j.FileEvent
+import org.eclipse.sprotty.DiagramOptions
+import org.eclipse.sprotty.RequestModelAction
+import org.eclipse.sprotty.xtext.ls.DiagramLanguageServer
+import org.eclipse.sprotty.xtext.testlanguage.diagram.TestDiagramUpdater
+import org.eclipse.xtext.ide.server.UriExtensions
+import org.eclipse.xtext.validation.Issue
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+class IssueCacheTest extends AbstractDiagramServerTest {
+
+	@Inject extension UriExtensions
+
+	@Test
+	def void testPublishedIssuesSkipValidation() {
+		val sourceUri = writeFile('graph.testlang', 'node foo')
+		initialize()
+		waitForBuild(sourceUri)
+		requestModel(sourceUri)
+		waitForUpdates(sourceUri, 1)
+		assertEquals(0, diagramUpdater.getValidationCount(sourceUri))
+	}
+
+	@Test
+	def void testValidationWithoutPublishedIssues() {
+		val sourceUri = writeFile('graph.testlang', 'node foo')
+		initialize()
+		waitForBuild(sourceUri)
+		issueCache.clear
+		requestModel(sourceUri)
+		waitForUpdates(sourceUri, 1)
+		assertEquals(1, diagramUpdater.getValidationCount(sourceUri))
+	}
+
+	@Test
+	def void testWatchedFileChangeInvalidates() {
+		val sourceUri = writeFile('graph.testlang', 'node foo')
+		initialize()
+		waitForBuild(sourceUri)
+		val List<Issue> staleIssues = newArrayList(new Issue.IssueImpl)
+		issueCache.put(sourceUri.toUri, null, staleIssues)
+		languageServer.didChangeWatchedFiles(new DidChangeWatchedFilesParams(#[
+			new FileEvent(sourceUri, FileChangeType.Changed)
+		]))
+		// The build triggered by the change may have published fresh issues in the meantime
+		assertNotSame(staleIssues, issueCache.get(sourceUri.toUri, null))
+	}
+
+	private def void requestModel(String sourceUri) {
+		action(new RequestModelAction[
+			options = #{
+				DiagramOptions.OPTION_SOURCE_URI -> sourceUri
+			}
+		])
+	}
+
+	/**
+	 * Read requests are executed after the pending build, which publishes the issues.
+	 */
+	private def void waitForBuild(String uri) {
+		(languageServer as DiagramLanguageServer).languageServerAccess.doRead(uri) [ null ].get
+	}
+
+	private def getIssueCache() {
+		(languageServer as DiagramLanguageServer).issueCache
+	}
+
+	private def getDiagramUpdater() {
+		(languageServer as DiagramLanguageServer).diagramUpdater as TestDiagramUpdater
+	}
+
+}
@@ -0,0 +1,148 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty.xtext.test
+
+import org.eclipse.emf.common.util.URI
+import org.eclipse.lsp4j.Position
+import org.eclipse.sprotty.xtext.testlanguage.TestLanguageStandaloneSetup
+import org.eclipse.sprotty.xtext.tracing.PositionConverter
+import org.eclipse.xtext.resource.XtextResource
+import org.eclipse.xtext.resource.XtextResourceSet
+import org.eclipse.xtext.util.OnChangeEvictingCache
+import org.eclipse.xtext.util.StringInputStream
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+class PositionConverterTest {
+
+	val injector = new TestLanguageStandaloneSetup().createInjectorAndDoEMFRegistration
+
+	val converter = new PositionConverter
+
+	@Test
+	def void testSingleLine() {
+		assertSameAsLinearScan('node a')
+	}
+
+	@Test
+	def void testMultipleLines() {
+		assertSameAsLinearScan('node a\nnode b\n\nnode c')
+	}
+
+	@Test
+	def void testTrailingLineFeed() {
+		val resource = createResource('node a\n')
+		assertEquals(new Position(0, 0), converter.toPosition(0, resource.contents.head))
+		assertEquals(new Position(1, 0), converter.toPosition(7, resource.contents.head))
+		assertSameAsLinearScan('node a\n')
+		assertSameAsLinearScan('node a\n\n')
+	}
+
+	@Test
+	def void testCarriageReturn() {
+		// Only line feeds start a new line, a carriage return counts as a column
+		val resource = createResource('node a\r\nnode b')
+		assertEquals(new Position(0, 6), converter.toPosition(6, resource.contents.head))
+		assertEquals(new Position(0, 7), converter.toPosition(7, resource.contents.head))
+		assertEquals(new Position(1, 0), converter.toPosition(8, resource.contents.head))
+		assertSameAsLinearScan('node a\r\nnode b\r\n')
+		assertSameAsLinearScan('node a\rnode b')
+	}
+
+	@Test
+	def void testOutOfBounds() {
+		val text = 'node a\nnode b'
+		val resource = createResource(text)
+		for (offset : #[-1, text.length + 1]) {
+			try {
+				converter.toPosition(offset, resource.contents.head)
+				fail('Expected an IndexOutOfBoundsException for offset ' + offset)
+			} catch (IndexOutOfBoundsException exception) {
+				assertEquals('Offset: ' + offset, exception.message)
+			}
+		}
+	}
+
+	@Test
+	def void testRange() {
+		val resource = createResource('node a\nnode b')
+		val range = converter.toRange(5, 8, resource.contents.head)
+		assertEquals(new Position(0, 5), range.start)
+		assertEquals(new Position(1, 6), range.end)
+	}
+
+	@Test
+	def void testTextChanged() {
+		val resource = createResource('node a\nnode b')
+		assertPositions(resource, 'node a\nnode b')
+		val newText = 'node a\r\n\r\nnode bb\n'
+		resource.reparse(newText)
+		assertPositions(resource, newText)
+	}
+
+	@Test
+	def void testStaleCacheEntry() {
+		val resource = createResource('node a\nnode b')
+		assertPositions(resource, 'node a\nnode b')
+		// Keep the cached line starts of the previous text
+		val newText = 'node a\r\n\r\nnode bb\n'
+		(resource.cache as OnChangeEvictingCache).execWithoutCacheClear(resource) [
+			reparse(newText)
+			null
+		]
+		assertPositions(resource, newText)
+	}
+
+	private def void assertSameAsLinearScan(String text) {
+		assertPositions(createResource(text), text)
+	}
+
+	private def void assertPositions(XtextResource resource, String text) {
+		val context = resource.contents.head
+		for (offset : 0 .. text.length) {
+			assertEquals('Offset ' + offset, linearScan(text, offset), converter.toPosition(offset, context))
+		}
+	}
+
+	/**
+	 * The conversion used by earlier versions of {@link PositionConverter}.
+	 */
+	private def Position linearScan(String contents, int offset) {
+		val char NL = '\n'
+		var line = 0
+		var column = 0
+		for (var i = 0; i < contents.length; i++) {
+			if (i === offset)
+				return new Position(line, column)
+			if (contents.charAt(i) === NL) {
+				line++
+				column = 0
+			} else {
+				column++
+			}
+		}
+		return new Position(line, column)
+	}
+
+	private def createResource(String text) {
+		val resourceSet = injector.getInstance(XtextResourceSet)
+		val resource = resourceSet.createResource(URI.createURI('test.testlang')) as XtextResource
+		resource.load(new StringInputStream(text), emptyMap)
+		resource
+	}
+
+}
@@ -0,0 +1,128 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty.xtext.test
+
+import com.google.inject.Inject
+import java.util.Map
+import org.eclipse.lsp4j.DidChangeWatchedFilesParams
+import org.eclipse.lsp4j.FileChangeType
+import org.eclipse.lsp4j.FileEvent
+import org.eclipse.sprotty.ActionMessage
+import org.eclipse.sprotty.DiagramOptions
+import org.eclipse.sprotty.RequestModelAction
+import org.eclipse.sprotty.SModelRoot
+import org.eclipse.sprotty.ServerStatus
+import org.eclipse.sprotty.xtext.LanguageAwareDiagramServer
+import org.eclipse.sprotty.xtext.ls.DiagramLanguageServer
+import org.eclipse.sprotty.xtext.ls.DiagramServerManager
+import org.eclipse.sprotty.xtext.testlanguage.diagram.TestDiagramServerFactory
+import org.eclipse.sprotty.xtext.testlanguage.diagram.TestDiagramUpdater
+import org.eclipse.sprotty.xtext.testlanguage.diagram.TestLanguageDiagramGenerator
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+class SharedDiagramGenerationTest extends AbstractDiagramServerTest {
+
+	static val FILE_NAME = 'graph.testlang'
+
+	@Inject DiagramServerManager diagramServerManager
+
+	@Test
+	def void testGenerateOnce() {
+		initialize()
+		// The file is written after the initial build, so only the change below triggers a build
+		val sourceUri = writeFile(FILE_NAME, 'node foo')
+		diagramUpdater.shareGeneratedModels = true
+		val diagramServer1 = requestModel('client1', sourceUri, emptyMap)
+		val diagramServer2 = requestModel('client2', sourceUri, emptyMap)
+		waitForUpdates(sourceUri, 2)
+		val diagramGenerator = getServiceProvider(sourceUri).get(TestLanguageDiagramGenerator)
+		val generatedBefore = diagramGenerator.results.size
+		changeFile('node foo node bar')
+		waitForUpdates(sourceUri, 3)
+		assertEquals(#[#['client1', 'client2']], diagramUpdater.sharedGroups)
+		assertEquals(generatedBefore + 1, diagramGenerator.results.size)
+		// Each server receives its own copy of the model
+		val model1 = diagramServer1.model
+		val model2 = diagramServer2.model
+		assertNotSame(model1, model2)
+		assertEquals(#['foo', 'bar'], model1.childIds)
+		assertEquals(#['foo', 'bar'], model2.childIds)
+		assertNotSame(model1.children.head, model2.children.head)
+	}
+
+	@Test
+	def void testGroupByOptionsAndExpandedElements() {
+		initialize()
+		val sourceUri = writeFile(FILE_NAME, 'node foo')
+		diagramUpdater.shareGeneratedModels = true
+		requestModel('client1', sourceUri, emptyMap)
+		requestModel('client2', sourceUri, #{'custom' -> 'value'})
+		requestModel('client3', sourceUri, emptyMap)
+		val diagramServer4 = requestModel('client4', sourceUri, emptyMap)
+		requestModel('client5', sourceUri, emptyMap)
+		waitForUpdates(sourceUri, 5)
+		diagramServer4.diagramState.expandedElements += 'foo'
+		changeFile('node foo node bar')
+		waitForUpdates(sourceUri, 6)
+		assertEquals(#{#['client1', 'client3', 'client5'], #['client2'], #['client4']},
+			diagramUpdater.sharedGroups.toSet)
+	}
+
+	@Test
+	def void testStatusPropagated() {
+		initialize()
+		val sourceUri = writeFile(FILE_NAME, 'node foo')
+		diagramUpdater.shareGeneratedModels = true
+		val diagramServer1 = requestModel('client1', sourceUri, emptyMap)
+		val diagramServer2 = requestModel('client2', sourceUri, emptyMap)
+		waitForUpdates(sourceUri, 2)
+		changeFile('node')
+		waitForUpdates(sourceUri, 3)
+		assertEquals(new ServerStatus(ServerStatus.Severity.FATAL, 'Cannot update diagram: Model has syntax/linking errors'),
+			diagramServer1.status)
+		// The second server does not generate on its own, so its status is taken from the first one
+		assertSame(diagramServer1.status, diagramServer2.status)
+	}
+
+	private def LanguageAwareDiagramServer requestModel(String clientId, String sourceUri, Map<String, String> options) {
+		(languageServer as DiagramLanguageServer).accept(new ActionMessage(clientId, new RequestModelAction [
+			it.options = newHashMap => [
+				putAll(options)
+				put(DiagramOptions.OPTION_DIAGRAM_TYPE, TestDiagramServerFactory.DIAGRAM_TYPE)
+				put(DiagramOptions.OPTION_SOURCE_URI, sourceUri)
+			]
+		]))
+		diagramServerManager.getDiagramServer(TestDiagramServerFactory.DIAGRAM_TYPE, clientId) as LanguageAwareDiagramServer
+	}
+
+	private def void changeFile(String content) {
+		val sourceUri = writeFile(FILE_NAME, content)
+		languageServer.didChangeWatchedFiles(new DidChangeWatchedFilesParams(#[
+			new FileEvent(sourceUri, FileChangeType.Changed)
+		]))
+	}
+
+	private def getChildIds(SModelRoot root) {
+		root.children.map[id].toList
+	}
+
+	private def getDiagramUpdater() {
+		(languageServer as DiagramLanguageServer).diagramUpdater as TestDiagramUpdater
+	}
+
+}
@@ -0,0 +1,130 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty.xtext.test
+
+import jakarta.websocket.RemoteEndpoint
+import java.io.IOException
+import java.io.Writer
+import java.lang.reflect.Proxy
+import java.nio.charset.StandardCharsets
+import java.util.List
+import org.eclipse.lsp4j.jsonrpc.JsonRpcException
+import org.eclipse.lsp4j.jsonrpc.json.MessageJsonHandler
+import org.eclipse.lsp4j.jsonrpc.messages.NotificationMessage
+import org.eclipse.sprotty.xtext.websocket.WebSocketMessageConsumer
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+class WebSocketMessageConsumerTest {
+
+	val jsonHandler = new MessageJsonHandler(emptyMap)
+
+	@Test
+	def void testAsyncRemote() {
+		val List<String> messages = newArrayList
+		val remote = createProxy(RemoteEndpoint.Async) [ method, args |
+			if (method == 'sendText')
+				messages += args.head as String
+			null
+		]
+		val consumer = new WebSocketMessageConsumer(remote, jsonHandler)
+		consumer.consume(createMessage)
+		consumer.consume(createMessage)
+		assertEquals(2, messages.size)
+		assertEquals(expectedText, messages.head)
+		assertEquals(expectedText, messages.last)
+	}
+
+	@Test
+	def void testBasicRemote() {
+		val List<RecordingWriter> writers = newArrayList
+		val remote = createProxy(RemoteEndpoint.Basic) [ method, args |
+			if (method == 'getSendWriter') {
+				val writer = new RecordingWriter
+				writers += writer
+				return writer
+			}
+			null
+		]
+		val consumer = new WebSocketMessageConsumer(remote, jsonHandler)
+		consumer.consume(createMessage)
+		consumer.consume(createMessage)
+		assertEquals(2, writers.size)
+		for (writer : writers) {
+			assertTrue(writer.closed)
+			assertEquals(expectedText, writer.toString)
+		}
+	}
+
+	@Test
+	def void testBasicRemoteFailure() {
+		val writer = new RecordingWriter
+		writer.failing = true
+		val remote = createProxy(RemoteEndpoint.Basic) [ method, args |
+			if (method == 'getSendWriter') writer else null
+		]
+		try {
+			new WebSocketMessageConsumer(remote, jsonHandler).consume(createMessage)
+			fail('Expected a JsonRpcException')
+		} catch (JsonRpcException exception) {
+			assertTrue(exception.cause instanceof IOException)
+		}
+		assertTrue(writer.closed)
+	}
+
+	private def createMessage() {
+		new NotificationMessage => [
+			method = 'test/notify'
+			params = #['Grüße', '😀']
+		]
+	}
+
+	private def getExpectedText() {
+		val content = jsonHandler.serialize(createMessage)
+		'Content-Length: ' + content.getBytes(StandardCharsets.UTF_8).length + '\r\n\r\n' + content
+	}
+
+	private def <T> T createProxy(Class<T> type, (String, Object[])=>Object handler) {
+		Proxy.newProxyInstance(type.classLoader, #[type], [ proxy, method, args |
+			handler.apply(method.name, args)
+		]) as T
+	}
+
+	private static class RecordingWriter extends Writer {
+		val builder = new StringBuilder
+		boolean closed
+		boolean failing
+
+		override write(char[] cbuf, int off, int len) throws IOException {
+			if (failing)
+				throw new IOException('Connection lost')
+			builder.append(cbuf, off, len)
+		}
+
+		override flush() {
+		}
+
+		override close() {
+			closed = true
+		}
+
+		override toString() {
+			builder.toString
+		}
+	}
+
+}
@@ -15,6 +15,7 @@
  ********************************************************************************/
 package org.eclipse.sprotty.xtext.testlanguage.diagram
 
+import com.google.inject.Inject
 import com.google.inject.Singleton
 import java.util.HashMap
 import java.util.List
@@ -25,13 +26,24 @@ import org.eclipse.sprotty.Action
 import org.eclipse.sprotty.xtext.ILanguageAwareDiagramServer
 import org.eclipse.sprotty.xtext.LanguageAwareDiagramServer
 import org.eclipse.sprotty.xtext.ls.DiagramUpdater
+import org.eclipse.sprotty.xtext.ls.IssueProvider
+import org.eclipse.xtext.ide.server.ILanguageServerAccess
+import org.eclipse.xtext.ide.server.UriExtensions
 
 @Singleton
 class TestDiagramUpdater extends DiagramUpdater {
 	
+	@Inject extension UriExtensions
+	
 	// uri -> (number of updates, last update future)
 	val updateFutures = new HashMap<String, Pair<Integer, CompletableFuture<Void>>>
 	
+	// uri -> number of validations
+	val validationCounts = new HashMap<String, Integer>
+	
+	// client ids of the diagram servers that received a shared model, one list per generation
+	val sharedGroups = <List<String>>newArrayList
+	
 	override updateDiagram(LanguageAwareDiagramServer diagramServer, Action cause) {
 		super.updateDiagram(diagramServer, cause) => [future |
 			internalUpdate(diagramServer.sourceUri, future)
@@ -44,6 +56,34 @@ class TestDiagramUpdater extends DiagramUpdater {
 		]
 	}
 	
+	override protected doValidate(ILanguageServerAccess.Context context) {
+		synchronized (validationCounts) {
+			val uri = context.resource.URI.toUriString
+			validationCounts.put(uri, getValidationCount(uri) + 1)
+		}
+		super.doValidate(context)
+	}
+	
+	override protected generateShared(ILanguageServerAccess.Context context, IssueProvider issueProvider,
+			List<? extends ILanguageAwareDiagramServer> diagramServers) {
+		synchronized (sharedGroups) {
+			sharedGroups += diagramServers.map[clientId].toList
+		}
+		super.generateShared(context, issueProvider, diagramServers)
+	}
+	
+	def List<List<String>> getSharedGroups() {
+		synchronized (sharedGroups) {
+			newArrayList(sharedGroups)
+		}
+	}
+	
+	def int getValidationCount(String uri) {
+		synchronized (validationCounts) {
+			validationCounts.get(uri) ?: 0
+		}
+	}
+	
 	private def internalUpdate(String path, CompletableFuture<Void> future) {
 		synchronized (updateFutures) {
 			val lastValue = updateFutures.get(path)
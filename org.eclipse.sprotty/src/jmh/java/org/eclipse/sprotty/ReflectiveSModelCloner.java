@@ -0,0 +1,64 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The former implementation of {@link SModelCloner}, which accesses all fields via reflection for every
+ * copied object. Kept as the baseline for {@link SModelClonerBenchmark}.
+ */
+public class ReflectiveSModelCloner {
+
+	public SModelRoot clone(SModelRoot root) {
+		return (SModelRoot) doClone(root);
+	}
+
+	protected Object doClone(Object obj) {
+		if (obj instanceof String || obj instanceof Boolean || obj instanceof Number)
+			return obj;
+		if (obj instanceof List<?>) {
+			List<Object> clone = new ArrayList<>();
+			for (Object element : (List<?>) obj) {
+				clone.add(doClone(element));
+			}
+			return clone;
+		}
+		try {
+			Object clone = obj.getClass().getConstructor().newInstance();
+			Class<?> currentClass = obj.getClass();
+			do {
+				for (Field field : currentClass.getDeclaredFields()) {
+					field.setAccessible(true);
+					if (field.get(obj) != null && !Modifier.isFinal(field.getModifiers())) {
+						if (field.getType().isPrimitive())
+							field.set(clone, field.get(obj));
+						else
+							field.set(clone, doClone(field.get(obj)));
+					}
+				}
+				currentClass = currentClass.getSuperclass();
+			} while (currentClass != Object.class && currentClass != null);
+			return clone;
+		} catch (ReflectiveOperationException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+}
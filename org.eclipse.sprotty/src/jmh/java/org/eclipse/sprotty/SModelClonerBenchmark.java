@@ -0,0 +1,109 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the {@link SModelCloner} with the former reflective implementation on graphs of
+ * different sizes. Each node has a label and a port and is connected to its predecessor by an
+ * edge with two routing points.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SModelClonerBenchmark {
+
+	@Param({ "100", "1000", "10000" })
+	public int nodeCount;
+
+	private SModelRoot root;
+
+	private final SModelCloner cloner = new SModelCloner();
+
+	private final ReflectiveSModelCloner reflectiveCloner = new ReflectiveSModelCloner();
+
+	@Setup
+	public void createGraph() {
+		SGraph graph = new SGraph();
+		graph.setType("graph");
+		graph.setId("graph");
+		List<SModelElement> children = new ArrayList<>();
+		for (int i = 0; i < nodeCount; i++) {
+			SNode node = new SNode();
+			node.setType("node");
+			node.setId("node" + i);
+			node.setPosition(new Point(i * 10, i * 20));
+			node.setSize(new Dimension(50, 30));
+			node.setLayout("vbox");
+			SLabel label = new SLabel();
+			label.setType("label");
+			label.setId("label" + i);
+			label.setText("Node " + i);
+			SPort port = new SPort();
+			port.setType("port");
+			port.setId("port" + i);
+			port.setSize(new Dimension(5, 5));
+			List<SModelElement> nodeChildren = new ArrayList<>();
+			nodeChildren.add(label);
+			nodeChildren.add(port);
+			node.setChildren(nodeChildren);
+			children.add(node);
+			if (i > 0) {
+				SEdge edge = new SEdge();
+				edge.setType("edge");
+				edge.setId("edge" + i);
+				edge.setSourceId("port" + (i - 1));
+				edge.setTargetId("port" + i);
+				List<Point> routingPoints = new ArrayList<>();
+				routingPoints.add(new Point(i, i));
+				routingPoints.add(new Point(i + 5, i + 5));
+				edge.setRoutingPoints(routingPoints);
+				children.add(edge);
+			}
+		}
+		graph.setChildren(children);
+		root = graph;
+	}
+
+	@Benchmark
+	public SModelRoot clonePlanBased() {
+		return cloner.clone(root);
+	}
+
+	@Benchmark
+	public SModelRoot cloneReflective() {
+		return reflectiveCloner.clone(root);
+	}
+
+}
@@ -0,0 +1,316 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact array-based representation of a sprotty model for layout computations. The elements are numbered
+ * in depth-first order, so the index of a parent is always smaller than the indices of its children, and the
+ * root has index 0. Positions, sizes and parent indices are stored in parallel arrays, and edges are numbered
+ * separately with the element indices of their source and target.
+ *
+ * <p>A layout engine can read the input from the arrays, set the computed bounds and routes with
+ * {@link #setBounds(int, double, double, double, double)} and {@link #setRoute(int, double[])} or their absolute
+ * variants, and finally write the result back to the model with {@link #apply()}. Only the elements whose
+ * layout has been set are modified.</p>
+ */
+public class CompactGraph {
+
+	/**
+	 * Create a compact representation of the given model in a single traversal.
+	 */
+	public static CompactGraph create(SModelRoot root) {
+		CompactGraph graph = new CompactGraph();
+		graph.add(root, -1);
+		graph.resolveEdges();
+		return graph;
+	}
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private int size;
+	private SModelElement[] elements = new SModelElement[INITIAL_CAPACITY];
+	private int[] parents = new int[INITIAL_CAPACITY];
+	private double[] x = new double[INITIAL_CAPACITY];
+	private double[] y = new double[INITIAL_CAPACITY];
+	private double[] width = new double[INITIAL_CAPACITY];
+	private double[] height = new double[INITIAL_CAPACITY];
+	private final BitSet boundsAware = new BitSet();
+
+	private int edgeCount;
+	private int[] edgeElements = new int[INITIAL_CAPACITY];
+	private int[] edgeSources;
+	private int[] edgeTargets;
+	private double[][] routes;
+
+	private final Map<String, Integer> indices = new HashMap<>();
+
+	private final BitSet boundsChanged = new BitSet();
+	private final BitSet absolute = new BitSet();
+
+	protected CompactGraph() {
+	}
+
+	private void add(SModelElement element, int parent) {
+		if (size == elements.length)
+			grow();
+		int index = size++;
+		elements[index] = element;
+		parents[index] = parent;
+		if (element.getId() != null)
+			indices.put(element.getId(), index);
+		if (element instanceof BoundsAware) {
+			boundsAware.set(index);
+			Point position = ((BoundsAware) element).getPosition();
+			x[index] = position != null ? position.getX() : 0;
+			y[index] = position != null ? position.getY() : 0;
+			Dimension size = ((BoundsAware) element).getSize();
+			width[index] = size != null ? size.getWidth() : -1;
+			height[index] = size != null ? size.getHeight() : -1;
+		} else {
+			width[index] = -1;
+			height[index] = -1;
+		}
+		if (element instanceof SEdge) {
+			if (edgeCount == edgeElements.length)
+				edgeElements = Arrays.copyOf(edgeElements, 2 * edgeCount);
+			edgeElements[edgeCount++] = index;
+		}
+		if (element.getChildren() != null) {
+			for (SModelElement child : element.getChildren()) {
+				add(child, index);
+			}
+		}
+	}
+
+	private void grow() {
+		int capacity = 2 * elements.length;
+		elements = Arrays.copyOf(elements, capacity);
+		parents = Arrays.copyOf(parents, capacity);
+		x = Arrays.copyOf(x, capacity);
+		y = Arrays.copyOf(y, capacity);
+		width = Arrays.copyOf(width, capacity);
+		height = Arrays.copyOf(height, capacity);
+	}
+
+	private void resolveEdges() {
+		edgeSources = new int[edgeCount];
+		edgeTargets = new int[edgeCount];
+		routes = new double[edgeCount][];
+		for (int e = 0; e < edgeCount; e++) {
+			SEdge edge = (SEdge) elements[edgeElements[e]];
+			edgeSources[e] = indexOf(edge.getSourceId());
+			edgeTargets[e] = indexOf(edge.getTargetId());
+		}
+	}
+
+	/**
+	 * The number of model elements.
+	 */
+	public int size() {
+		return size;
+	}
+
+	public SModelElement getElement(int index) {
+		return elements[index];
+	}
+
+	/**
+	 * Return the index of the element with the given id, or -1 if there is none.
+	 */
+	public int indexOf(String id) {
+		Integer index = id != null ? indices.get(id) : null;
+		return index != null ? index : -1;
+	}
+
+	/**
+	 * Return the index of the parent of the given element, or -1 for the root.
+	 */
+	public int getParent(int index) {
+		return parents[index];
+	}
+
+	/**
+	 * Whether the given element has a position and size. The bounds of other elements are ignored.
+	 */
+	public boolean isBoundsAware(int index) {
+		return boundsAware.get(index);
+	}
+
+	/**
+	 * The x coordinate of the given element relative to its parent.
+	 */
+	public double getX(int index) {
+		return x[index];
+	}
+
+	/**
+	 * The y coordinate of the given element relative to its parent.
+	 */
+	public double getY(int index) {
+		return y[index];
+	}
+
+	/**
+	 * The width of the given element, or -1 if it is unknown.
+	 */
+	public double getWidth(int index) {
+		return width[index];
+	}
+
+	/**
+	 * The height of the given element, or -1 if it is unknown.
+	 */
+	public double getHeight(int index) {
+		return height[index];
+	}
+
+	/**
+	 * Compute the absolute positions of the coordinate systems that the elements define for their children.
+	 * The result contains the x and y coordinates of element {@code i} at {@code 2i} and {@code 2i + 1}.
+	 * The root defines the origin, and elements without bounds share the coordinate system of their parent.
+	 */
+	public double[] computeFrames() {
+		double[] frames = new double[2 * size];
+		for (int i = 1; i < size; i++) {
+			int parent = parents[i];
+			frames[2 * i] = frames[2 * parent] + x[i];
+			frames[2 * i + 1] = frames[2 * parent + 1] + y[i];
+		}
+		return frames;
+	}
+
+	/**
+	 * The number of edges.
+	 */
+	public int getEdgeCount() {
+		return edgeCount;
+	}
+
+	/**
+	 * Return the element index of the given edge.
+	 */
+	public int getEdgeElement(int edge) {
+		return edgeElements[edge];
+	}
+
+	/**
+	 * Return the element index of the source of the given edge, or -1 if it cannot be resolved.
+	 */
+	public int getEdgeSource(int edge) {
+		return edgeSources[edge];
+	}
+
+	/**
+	 * Return the element index of the target of the given edge, or -1 if it cannot be resolved.
+	 */
+	public int getEdgeTarget(int edge) {
+		return edgeTargets[edge];
+	}
+
+	/**
+	 * Set the computed bounds of an element, with the position relative to its parent. This has no effect
+	 * if the element is not {@link #isBoundsAware(int) bounds-aware}.
+	 */
+	public void setBounds(int index, double x, double y, double width, double height) {
+		if (!boundsAware.get(index))
+			return;
+		this.x[index] = x;
+		this.y[index] = y;
+		this.width[index] = width;
+		this.height[index] = height;
+		boundsChanged.set(index);
+		absolute.clear(index);
+	}
+
+	/**
+	 * Set the computed bounds of an element, with the position relative to the root. The position is
+	 * converted when the layout is applied, taking the computed positions of the ancestors into account.
+	 */
+	public void setAbsoluteBounds(int index, double x, double y, double width, double height) {
+		setBounds(index, x, y, width, height);
+		absolute.set(index);
+	}
+
+	/**
+	 * Set the computed routing points of an edge as a sequence of x and y coordinates relative to the
+	 * parent of the edge.
+	 */
+	public void setRoute(int edge, double[] points) {
+		routes[edge] = points;
+		absolute.clear(edgeElements[edge]);
+	}
+
+	/**
+	 * Set the computed routing points of an edge as a sequence of x and y coordinates relative to the root.
+	 */
+	public void setAbsoluteRoute(int edge, double[] points) {
+		routes[edge] = points;
+		absolute.set(edgeElements[edge]);
+	}
+
+	/**
+	 * Write the computed bounds and routes back to the model elements. The elements are processed top-down,
+	 * so absolute positions are converted using the already computed positions of their ancestors.
+	 */
+	public void apply() {
+		double[] frames = new double[2 * size];
+		int edge = 0;
+		for (int i = 0; i < size; i++) {
+			int parent = parents[i];
+			double frameX = parent >= 0 ? frames[2 * parent] : 0;
+			double frameY = parent >= 0 ? frames[2 * parent + 1] : 0;
+			if (boundsChanged.get(i)) {
+				if (absolute.get(i)) {
+					x[i] -= frameX;
+					y[i] -= frameY;
+					absolute.clear(i);
+				}
+				if (boundsAware.get(i)) {
+					BoundsAware element = (BoundsAware) elements[i];
+					element.setPosition(new Point(x[i], y[i]));
+					element.setSize(new Dimension(width[i], height[i]));
+				}
+			}
+			if (i > 0) {
+				// The root defines the origin, regardless of its own position
+				frames[2 * i] = frameX + x[i];
+				frames[2 * i + 1] = frameY + y[i];
+			}
+			if (edge < edgeCount && edgeElements[edge] == i) {
+				double[] route = routes[edge];
+				if (route != null)
+					applyRoute((SEdge) elements[i], route, absolute.get(i) ? frameX : 0, absolute.get(i) ? frameY : 0);
+				edge++;
+			}
+		}
+	}
+
+	private void applyRoute(SEdge edge, double[] route, double frameX, double frameY) {
+		List<Point> routingPoints = new ArrayList<>(route.length / 2);
+		for (int i = 0; i + 1 < route.length; i += 2) {
+			routingPoints.add(new Point(route[i] - frameX, route[i + 1] - frameY));
+		}
+		edge.setRoutingPoints(routingPoints);
+	}
+
+}
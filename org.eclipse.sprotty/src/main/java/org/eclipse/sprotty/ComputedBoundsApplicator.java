@@ -28,7 +28,14 @@ public class ComputedBoundsApplicator {
 	 * Apply the computed bounds from the given action to the model.
 	 */
 	public void applyBounds(SModelRoot root, ComputedBoundsAction action) {
-		SModelIndex index = new SModelIndex(root);
+		applyBounds(root, new SModelIndex(root), action);
+	}
+	
+	/**
+	 * Apply the computed bounds from the given action to the model, using an already existing index
+	 * of the model to look up the elements.
+	 */
+	public void applyBounds(SModelRoot root, SModelIndex index, ComputedBoundsAction action) {
 		for (ElementAndBounds b : action.getBounds()) {
 			SModelElement element = index.get(b.getElementId());
 			if (element instanceof BoundsAware) {
@@ -15,12 +15,23 @@
  ********************************************************************************/
 package org.eclipse.sprotty;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
@@ -41,6 +52,18 @@ public class DefaultDiagramServer implements IDiagramServer {
 	
 	private static final Logger LOG = Logger.getLogger(DefaultDiagramServer.class);
 	
+	/**
+	 * The maximal number of queued messages processed in one task of the action executor
+	 * before the remaining messages are passed to a new task.
+	 */
+	protected static final int MAX_ACTION_BATCH_SIZE = 64;
+	
+	/**
+	 * The default time in milliseconds after which a request sent to the client fails if no response
+	 * has been received.
+	 */
+	public static final long DEFAULT_REQUEST_TIMEOUT = TimeUnit.MINUTES.toMillis(5);
+	
 	protected static AtomicLong nextRequestId = new AtomicLong();
 	
 	private String clientId;
@@ -57,6 +80,8 @@ public class DefaultDiagramServer implements IDiagramServer {
 	
 	private ComputedBoundsApplicator computedBoundsApplicator;
 	
+	private IBoundsEstimator boundsEstimator;
+	
 	private IPopupModelFactory popupModelFactory;
 	
 	private IDiagramSelectionListener diagramSelectionListener;
@@ -67,7 +92,13 @@ public class DefaultDiagramServer implements IDiagramServer {
 
 	private SModelCloner smodelCloner;
 	
-	private final Map<String, CompletableFuture<ResponseAction>> requests = new HashMap<>();
+	private SModelDiffer smodelDiffer;
+	
+	private final Map<String, CompletableFuture<ResponseAction>> requests = new ConcurrentHashMap<>();
+	
+	private long requestTimeout = DEFAULT_REQUEST_TIMEOUT;
+	
+	private final AtomicLong expiredRequestCount = new AtomicLong();
 	
 	private final Set<String> expandedElements = new HashSet<>();
 
@@ -75,11 +106,33 @@ public class DefaultDiagramServer implements IDiagramServer {
 	
 	private Object modelLock = new Object();
 
-	private int revision = 0;
+	private volatile int revision = 0;
 	
 	private ServerStatus status;
 	
 	private String lastSubmittedModelType;
+	
+	private SModelRoot lastSubmittedRoot;
+	
+	/**
+	 * A copy of the current model that does not share any elements with {@link #lastSubmittedRoot},
+	 * so it can be modified in place without copying it again.
+	 */
+	private SModelRoot unsharedRoot;
+	
+	private SModelIndex currentIndex;
+	
+	private Executor actionExecutor;
+	
+	private final Queue<ActionMessage> actionQueue = new ConcurrentLinkedQueue<>();
+	
+	private final AtomicInteger actionQueueDepth = new AtomicInteger();
+	
+	private boolean coalesceSubmissions;
+	
+	private boolean boundsRequestInFlight;
+	
+	private PendingSubmission pendingSubmission;
 
 	public DefaultDiagramServer() {
 		currentRoot = new SModelRoot();
@@ -143,6 +196,15 @@ public class DefaultDiagramServer implements IDiagramServer {
 		this.computedBoundsApplicator = computedBoundsApplicator;
 	}
 	
+	protected IBoundsEstimator getBoundsEstimator() {
+		return boundsEstimator;
+	}
+	
+	@Inject
+	public void setBoundsEstimator(IBoundsEstimator boundsEstimator) {
+		this.boundsEstimator = boundsEstimator;
+	}
+	
 	protected IPopupModelFactory getPopupModelFactory() {
 		return popupModelFactory;
 	}
@@ -188,6 +250,42 @@ public class DefaultDiagramServer implements IDiagramServer {
 		this.smodelCloner = smodelCloner;
 	}
 	
+	protected SModelDiffer getSModelDiffer() {
+		return this.smodelDiffer;
+	}
+	
+	@Inject
+	protected void setSModelDiffer(SModelDiffer smodelDiffer) {
+		this.smodelDiffer = smodelDiffer;
+	}
+	
+	public Executor getActionExecutor() {
+		return actionExecutor;
+	}
+	
+	/**
+	 * Set an executor for processing incoming messages. If an executor is set, {@link #accept(ActionMessage)}
+	 * only puts the message into a queue and returns immediately, so the calling thread (usually a
+	 * connection thread) is not blocked by generating or layouting diagrams. The messages are processed
+	 * in the order they were received, and never concurrently. Multiple servers can share the same executor.
+	 * 
+	 * <p>Since responses to requests are queued as well, action handlers must not block while waiting
+	 * for the result of {@link #request(RequestAction)}.</p>
+	 * 
+	 * <p>If no executor is set (the default), messages are processed synchronously.</p>
+	 */
+	public void setActionExecutor(Executor actionExecutor) {
+		this.actionExecutor = actionExecutor;
+	}
+	
+	/**
+	 * The number of received messages that have not been processed completely yet. This is always zero
+	 * if no {@link #setActionExecutor(Executor) action executor} is set.
+	 */
+	public int getActionQueueDepth() {
+		return actionQueueDepth.get();
+	}
+	
 	@Override
 	public void dispatch(Action action) {
 		Consumer<ActionMessage> remoteEndpoint = getRemoteEndpoint();
@@ -201,16 +299,69 @@ public class DefaultDiagramServer implements IDiagramServer {
 		}
 	}
 	
+	public boolean isCoalesceSubmissions() {
+		return coalesceSubmissions;
+	}
+	
+	/**
+	 * Enable or disable coalescing of model submissions that require the client to compute bounds.
+	 * In coalescing mode at most one {@link RequestBoundsAction} is in flight at any time. Models submitted
+	 * while waiting for the response are not sent immediately; only the newest of them is submitted when
+	 * the response has been processed, and the others are dropped. Requests from the client that caused
+	 * a dropped submission are rejected, unless the newest submission can answer them.
+	 */
+	public void setCoalesceSubmissions(boolean coalesceSubmissions) {
+		this.coalesceSubmissions = coalesceSubmissions;
+	}
+	
+	public long getRequestTimeout() {
+		return requestTimeout;
+	}
+	
+	/**
+	 * Set the time after which the future returned by {@link #request(RequestAction)} is completed with a
+	 * {@link TimeoutException} if no response has been received, e.g. because the client has disconnected.
+	 * A value of zero or less disables the timeout.
+	 */
+	public void setRequestTimeout(long timeout, TimeUnit unit) {
+		this.requestTimeout = unit.toMillis(timeout);
+	}
+	
+	/**
+	 * The number of requests sent to the client for which no response has been received yet.
+	 */
+	public int getOutstandingRequestCount() {
+		return requests.size();
+	}
+	
+	/**
+	 * The number of requests that have failed because no response was received within the
+	 * {@link #getRequestTimeout() request timeout}.
+	 */
+	public long getExpiredRequestCount() {
+		return expiredRequestCount.get();
+	}
+	
 	@SuppressWarnings("unchecked")
 	@Override
 	public <Res extends ResponseAction> CompletableFuture<Res> request(RequestAction<Res> action) {
 		if (Strings.isNullOrEmpty(action.getRequestId())) {
 			action.setRequestId(generateRequestId());
 		}
-		CompletableFuture<Res> future = new CompletableFuture<>();
-		this.requests.put(action.getRequestId(), (CompletableFuture<ResponseAction>) future);
+		String requestId = action.getRequestId();
+		CompletableFuture<ResponseAction> future = new CompletableFuture<>();
+		this.requests.put(requestId, future);
+		long timeout = getRequestTimeout();
+		if (timeout > 0) {
+			future.orTimeout(timeout, TimeUnit.MILLISECONDS).whenComplete((response, exception) -> {
+				if (exception instanceof TimeoutException && requests.remove(requestId, future)) {
+					expiredRequestCount.incrementAndGet();
+					LOG.warn("Request with id " + requestId + " timed out.");
+				}
+			});
+		}
 		this.dispatch(action);
-		return future;
+		return (CompletableFuture<Res>) (CompletableFuture<?>) future;
 	}
 	
 	public void rejectRemoteRequest(Action action, Throwable exception) {
@@ -237,6 +388,30 @@ public class DefaultDiagramServer implements IDiagramServer {
 		return currentRoot;
 	}
 	
+	/**
+	 * An index of the current model. The index is built on first access and shared by all subsequent
+	 * lookups until the model is replaced, so it must not be used to find elements that have been
+	 * added to the current model by modifying it in place.
+	 */
+	public SModelIndex getModelIndex() {
+		synchronized(modelLock) {
+			if (currentIndex == null || currentIndex.getRoot() != currentRoot)
+				currentIndex = new SModelIndex(currentRoot);
+			return currentIndex;
+		}
+	}
+	
+	/**
+	 * Returns the cached index if the given root is the current model, otherwise a new index.
+	 */
+	protected SModelIndex getModelIndex(SModelRoot root) {
+		synchronized(modelLock) {
+			if (root == currentRoot)
+				return getModelIndex();
+		}
+		return new SModelIndex(root);
+	}
+	
 	@Override
 	public CompletableFuture<Void> setModel(SModelRoot newRoot) {
 		if (newRoot == null)
@@ -244,6 +419,7 @@ public class DefaultDiagramServer implements IDiagramServer {
 		synchronized(modelLock) {
 			newRoot.setRevision(++revision);
 			currentRoot = newRoot;
+			currentIndex = null;
 		}
 		return submitModel(newRoot, false, null);
 	}
@@ -254,6 +430,7 @@ public class DefaultDiagramServer implements IDiagramServer {
 			throw new IllegalArgumentException("updateModel() cannot be called with null");
 		synchronized(modelLock) {
 			currentRoot = newRoot;
+			currentIndex = null;
 			newRoot.setRevision(++revision);
 		}
 		return submitModel(newRoot, true, null);
@@ -264,11 +441,21 @@ public class DefaultDiagramServer implements IDiagramServer {
 			throw new IllegalArgumentException("updateModel() cannot be called with null");
 		synchronized(modelLock) {
 			currentRoot = newRoot;
+			currentIndex = null;
 			newRoot.setRevision(++revision);
 		}
 		return submitModel(newRoot, true, cause);
 	}
 	
+	/**
+	 * Derive a new revision of the current model in which the element with the given id is modified by
+	 * the given function, and send it to the client as an update. The revision is derived with the
+	 * {@link SModelCloner} of this server, see {@link SModelRoot#edit(String, SModelCloner, Consumer)}.
+	 */
+	public CompletableFuture<Void> updateModel(String elementId, Consumer<? super SModelElement> modification) {
+		return updateModel(getModel().edit(elementId, getSModelCloner(), modification));
+	}
+	
 	public ServerStatus getStatus() {
 		return status;
 	}
@@ -331,35 +518,81 @@ public class DefaultDiagramServer implements IDiagramServer {
 		}
 		return false;
 	}
+	
+	/**
+	 * Whether model updates should be sent to the client as a list of {@link Match}es computed by the
+	 * {@link SModelDiffer} instead of the complete new model. This affects the behavior of
+	 * {@link #submitModel(SModelRoot, boolean, Action)} whenever an {@link UpdateModelAction} is sent.
+	 * 
+	 * <p>This setting is determined by the <code>ViewerOptions</code> that are received with the
+	 * {@link RequestModelAction} from the client. If the client does not specify whether it accepts
+	 * model differences, the default value is <code>false</code>.</p>
+	 * 
+	 * <p>Subclasses can override this method to obtain different behavior depending on the given
+	 * model and action.</p>
+	 */
+	protected boolean needsModelDiff(SModelRoot root, Action cause) {
+		String needsModelDiff = getOptions().get(OPTION_MODEL_DIFF);
+		if (needsModelDiff != null && !needsModelDiff.isEmpty()) {
+			boolean value = Boolean.parseBoolean(needsModelDiff);
+			if (value && getSModelDiffer() == null) {
+				LOG.error("Client demands model differences but the SModelDiffer is not set. Sending complete models.");
+				value = false;
+			}
+			return value;
+		}
+		return false;
+	}
 		
 	/**
 	 * Submit a new or updated model to the client. If client layout is required, a {@link RequestBoundsAction}
-	 * is sent, otherwise either a {@link SetModelAction} or an {@link UpdateModelAction} is sent depending on
-	 * the {@code update} parameter.
+	 * is sent unless server layout is required as well and the {@link IBoundsEstimator} can compute the bounds.
+	 * Otherwise either a {@link SetModelAction} or an {@link UpdateModelAction} is sent depending on the
+	 * {@code update} parameter.
 	 */
 	protected CompletableFuture<Void> submitModel(SModelRoot newRoot, boolean update, Action cause) {
 		if (needsClientLayout(newRoot)) {
 			if (!needsServerLayout(newRoot, cause)) {
 				// In this case the client won't send us the computed bounds
 				dispatch(new RequestBoundsAction(newRoot));
+				synchronized (modelLock) {
+					// The client updates its model on its own, so we can't compute differences to it anymore
+					lastSubmittedRoot = null;
+					unsharedRoot = null;
+				}
 				updateSelection(newRoot, update, cause);
 				IModelUpdateListener listener = getModelUpdateListener();
 				if (listener != null)
 					listener.modelSubmitted(newRoot, this);
 			} else {
+				ComputedBoundsAction estimatedBounds = estimateBounds(newRoot);
+				if (estimatedBounds != null) {
+					SModelRoot model = handle(estimatedBounds);
+					if (model != null)
+						doSubmitModel(model, update, cause);
+					return CompletableFuture.completedFuture(null);
+				}
+				boolean coalescing = isCoalesceSubmissions();
+				if (coalescing && !beginBoundsRequest(newRoot, update, cause))
+					return CompletableFuture.completedFuture(null);
 				return request(new RequestBoundsAction(newRoot)).handle((response, exception) -> {
-					if (exception != null) {
-						rejectRemoteRequest(cause, exception);
-						LOG.error("RequestBoundsAction failed with an exception.", exception);
-					} else {
-						try {
-							SModelRoot model = handle(response);
-							if (model != null)
-								doSubmitModel(model, update, cause);
-						} catch (Exception exc) {
-							rejectRemoteRequest(cause, exc);
-							LOG.error("Exception while processing ComputedBoundsAction.", exc);
+					try {
+						if (exception != null) {
+							rejectRemoteRequest(cause, exception);
+							LOG.error("RequestBoundsAction failed with an exception.", exception);
+						} else {
+							try {
+								SModelRoot model = handle(response);
+								if (model != null)
+									doSubmitModel(model, update, cause);
+							} catch (Exception exc) {
+								rejectRemoteRequest(cause, exc);
+								LOG.error("Exception while processing ComputedBoundsAction.", exc);
+							}
 						}
+					} finally {
+						if (coalescing)
+							endBoundsRequest();
 					}
 					return null;
 				});
@@ -370,10 +603,95 @@ public class DefaultDiagramServer implements IDiagramServer {
 		return CompletableFuture.completedFuture(null);
 	}
 	
+	/**
+	 * Compute the bounds of the given model on the server. Returns {@code null} if the bounds need to be
+	 * computed by the client.
+	 */
+	protected ComputedBoundsAction estimateBounds(SModelRoot root) {
+		IBoundsEstimator estimator = getBoundsEstimator();
+		if (estimator != null)
+			return estimator.estimateBounds(root);
+		return null;
+	}
+	
+	/**
+	 * Returns {@code true} if a bounds request for the given model may be sent now. Otherwise the model
+	 * replaces any pending submission and is submitted by {@link #endBoundsRequest()}.
+	 */
+	private boolean beginBoundsRequest(SModelRoot newRoot, boolean update, Action cause) {
+		synchronized (modelLock) {
+			if (!boundsRequestInFlight) {
+				boundsRequestInFlight = true;
+				return true;
+			}
+			PendingSubmission previous = pendingSubmission;
+			if (previous == null) {
+				pendingSubmission = new PendingSubmission(newRoot, update, cause);
+			} else if (previous.root.getRevision() > newRoot.getRevision()) {
+				rejectSuperseded(cause);
+			} else if (isRemoteRequest(cause) || !isRemoteRequest(previous.cause)) {
+				pendingSubmission = new PendingSubmission(newRoot, update && previous.update, cause);
+				rejectSuperseded(previous.cause);
+			} else {
+				// Keep the request of the previous submission, which is answered by the new one
+				pendingSubmission = new PendingSubmission(newRoot, update && previous.update, previous.cause);
+			}
+			return false;
+		}
+	}
+	
+	private void endBoundsRequest() {
+		PendingSubmission next;
+		synchronized (modelLock) {
+			next = pendingSubmission;
+			pendingSubmission = null;
+			boundsRequestInFlight = false;
+			if (next != null && next.root.getRevision() != revision) {
+				// The model has been replaced without a bounds request, e.g. by a LayoutAction
+				rejectSuperseded(next.cause);
+				next = null;
+			}
+		}
+		if (next != null)
+			submitModel(next.root, next.update, next.cause);
+	}
+	
+	private boolean isRemoteRequest(Action action) {
+		return action instanceof RequestAction
+				&& !Strings.isNullOrEmpty(((RequestAction<?>) action).getRequestId());
+	}
+	
+	private void rejectSuperseded(Action cause) {
+		rejectRemoteRequest(cause, new IllegalStateException("The model has been superseded by a newer revision."));
+	}
+	
+	private static class PendingSubmission {
+		final SModelRoot root;
+		final boolean update;
+		final Action cause;
+		
+		PendingSubmission(SModelRoot root, boolean update, Action cause) {
+			this.root = root;
+			this.update = update;
+			this.cause = cause;
+		}
+	}
+	
 	private void doSubmitModel(SModelRoot newRoot, boolean update, Action cause) {
 		ILayoutEngine layoutEngine = getLayoutEngine();
 		if (needsServerLayout(newRoot, cause)) {
-			layoutEngine.layout(newRoot, cause);
+			SModelRoot layoutRoot = unshare(newRoot, cause);
+			try {
+				layoutEngine.layout(layoutRoot, cause, () -> isSuperseded(layoutRoot));
+			} catch (CancellationException exc) {
+				if (!isSuperseded(layoutRoot)) {
+					// E.g. the time budget was exceeded; the client keeps the previously submitted model
+					LOG.warn("Server layout of revision " + layoutRoot.getRevision() + " was aborted: " + exc.getMessage());
+					rejectRemoteRequest(cause, exc);
+				}
+				return;
+			}
+			newRoot = layoutRoot;
 		}
 		synchronized (modelLock) {
 			if (newRoot.getRevision() == revision) {
@@ -384,11 +702,13 @@ public class DefaultDiagramServer implements IDiagramServer {
 					SetModelAction response = new SetModelAction(newRoot, request.getRequestId());
 		            dispatch(response);
 		        } else if (update && modelType != null && modelType.equals(lastSubmittedModelType)) {
-					dispatch(new UpdateModelAction(newRoot, cause));
+					dispatch(createUpdateModelAction(newRoot, cause));
 				} else {
 					dispatch(new SetModelAction(newRoot));
 				}
 				lastSubmittedModelType = modelType;
+				lastSubmittedRoot = newRoot;
+				unsharedRoot = null;
 				updateSelection(newRoot, update, cause);
 				IModelUpdateListener listener = getModelUpdateListener();
 				if (listener != null) {
@@ -398,6 +718,28 @@ public class DefaultDiagramServer implements IDiagramServer {
 		}
 	}
 
+	/**
+	 * Whether the given model has been superseded by a newer revision. Layouts of superseded models
+	 * are cancelled, and superseded models are not sent to the client.
+	 */
+	protected boolean isSuperseded(SModelRoot root) {
+		return root.getRevision() != revision;
+	}
+
+	/**
+	 * Create an action to update the client model from the previously submitted model to the given one.
+	 * If {@link #needsModelDiff(SModelRoot, Action)} is enabled, the action contains only the changed
+	 * parts of the model unless the difference is too large.
+	 */
+	protected UpdateModelAction createUpdateModelAction(SModelRoot newRoot, Action cause) {
+		if (lastSubmittedRoot != null && needsModelDiff(newRoot, cause)) {
+			List<Match> matches = getSModelDiffer().diff(lastSubmittedRoot, newRoot);
+			if (matches != null)
+				return new UpdateModelAction(matches, cause);
+		}
+		return new UpdateModelAction(newRoot, cause);
+	}
+
 	private void updateSelection(SelectAction action) {
 		boolean selectionChanged = false;
 		if (action.getDeselectedElementsIDs() != null) {
@@ -415,7 +757,7 @@ public class DefaultDiagramServer implements IDiagramServer {
 		int previousSize = selectedElements.size();
 		if (action.isSelect()) {
 			selectedElements.clear();
-			selectedElements.addAll(new SModelIndex(getModel()).allIds());
+			selectedElements.addAll(getModelIndex().allIds());
 		} else {
 			selectedElements.clear();
 		}
@@ -427,7 +769,7 @@ public class DefaultDiagramServer implements IDiagramServer {
 	protected void updateSelection(SModelRoot newRoot, boolean update, Action cause) {
 		boolean selectionChanged = false;
 		if (update) {
-			selectionChanged = selectedElements.retainAll(new SModelIndex(newRoot).allIds());
+			selectionChanged = selectedElements.retainAll(getModelIndex(newRoot).allIds());
 		} else {
 			selectedElements.clear();
 		}
@@ -445,6 +787,48 @@ public class DefaultDiagramServer implements IDiagramServer {
 	
 	@Override
 	public void accept(ActionMessage message) {
+		Executor executor = getActionExecutor();
+		if (executor == null) {
+			processMessage(message);
+		} else {
+			actionQueue.add(message);
+			if (actionQueueDepth.getAndIncrement() == 0)
+				scheduleActionQueue(executor);
+		}
+	}
+	
+	private void scheduleActionQueue(Executor executor) {
+		try {
+			executor.execute(this::processActionQueue);
+		} catch (RejectedExecutionException exc) {
+			LOG.warn("Action executor rejected the message queue, processing it synchronously.", exc);
+			processActionQueue();
+		}
+	}
+	
+	private void processActionQueue() {
+		int processed = 0;
+		do {
+			ActionMessage message = actionQueue.poll();
+			try {
+				processMessage(message);
+			} catch (Exception exc) {
+				LOG.error("Exception while processing action message.", exc);
+			}
+			if (++processed >= MAX_ACTION_BATCH_SIZE && actionQueueDepth.get() > 1) {
+				// Give other tasks of the executor a chance before processing further messages
+				actionQueueDepth.decrementAndGet();
+				scheduleActionQueue(getActionExecutor() != null ? getActionExecutor() : Runnable::run);
+				return;
+			}
+		} while (actionQueueDepth.decrementAndGet() > 0);
+	}
+	
+	/**
+	 * Process a received message: complete the matching request if the message contains a response,
+	 * otherwise handle the contained action.
+	 */
+	protected void processMessage(ActionMessage message) {
 		String clientId = message.getClientId();
 		if (clientId == null || clientId.equals(this.getClientId())) {
 			Action action = message.getAction();
@@ -452,9 +836,8 @@ public class DefaultDiagramServer implements IDiagramServer {
 				ResponseAction response = (ResponseAction) action;
 				String id = response.getResponseId();
 				if (!Strings.isNullOrEmpty(id)) {
-					CompletableFuture<ResponseAction> future = requests.get(id);
+					CompletableFuture<ResponseAction> future = requests.remove(id);
 		            if (future != null) {
-		                this.requests.remove(id);
 		                if (response instanceof RejectAction) {
 		                	RejectAction rejectAction = (RejectAction) response;
 		                	future.completeExceptionally(new RejectException(rejectAction));
@@ -529,6 +912,55 @@ public class DefaultDiagramServer implements IDiagramServer {
 		}
 	}
 	
+	/**
+	 * Make sure the given model does not share any elements with the last model sent to the client
+	 * before it is modified in place, e.g. by applying a layout. Models derived with
+	 * {@link SModelRoot#edit(String, SModelCloner, Consumer)} share unchanged elements with their previous
+	 * revision, which must remain unchanged. If the given model is the current model, its copy replaces it.
+	 * A model that has already been copied since the last submission is returned as is.
+	 */
+	protected SModelRoot unshare(SModelRoot root, Action cause) {
+		synchronized(modelLock) {
+			if (lastSubmittedRoot == null || root == lastSubmittedRoot || root == unsharedRoot
+					|| !sharesElements(root, lastSubmittedRoot))
+				return root;
+			SModelRoot copy = getSModelCloner().cloneStructure(root);
+			if (root == currentRoot) {
+				currentRoot = copy;
+				currentIndex = null;
+			}
+			unsharedRoot = copy;
+			return copy;
+		}
+	}
+	
+	private static boolean sharesElements(SModelRoot root, SModelRoot other) {
+		Set<SModelElement> otherElements = Collections.newSetFromMap(new IdentityHashMap<>());
+		collectElements(other, otherElements);
+		return containsAny(root, otherElements);
+	}
+	
+	private static void collectElements(SModelElement element, Set<SModelElement> result) {
+		result.add(element);
+		if (element.getChildren() != null) {
+			for (SModelElement child : element.getChildren()) {
+				collectElements(child, result);
+			}
+		}
+	}
+	
+	private static boolean containsAny(SModelElement element, Set<SModelElement> elements) {
+		if (elements.contains(element))
+			return true;
+		if (element.getChildren() != null) {
+			for (SModelElement child : element.getChildren()) {
+				if (containsAny(child, elements))
+					return true;
+			}
+		}
+		return false;
+	}
+	
 	/**
 	 * Called when a {@link ComputedBoundsAction} is received.
 	 */
@@ -536,7 +968,8 @@ public class DefaultDiagramServer implements IDiagramServer {
 		synchronized(modelLock) {
 			SModelRoot model = getModel();
 			if (model.getRevision() == computedBounds.getRevision()) {
-				getComputedBoundsApplicator().applyBounds(model, computedBounds);
+				model = unshare(model, computedBounds);
+				getComputedBoundsApplicator().applyBounds(model, getModelIndex(), computedBounds);
 				return model;
 			}
 		}
@@ -548,8 +981,7 @@ public class DefaultDiagramServer implements IDiagramServer {
 	 */
 	protected void handle(RequestPopupModelAction request) {
 		try {
-			SModelRoot model = getModel();
-			SModelElement element = SModelIndex.find(model, request.getElementId());
+			SModelElement element = getModelIndex().get(request.getElementId());
 			IPopupModelFactory factory = getPopupModelFactory();
 			if (factory != null) {
 				SModelRoot popupModel = factory.createPopupModel(element, request, this);
@@ -603,7 +1035,7 @@ public class DefaultDiagramServer implements IDiagramServer {
 	 */
 	protected void handle(CollapseExpandAllAction action) {
 		if (action.isExpand())
-			new SModelIndex(getModel()).allIds().forEach(id -> expandedElements.add(id));
+			expandedElements.addAll(getModelIndex().allIds());
 		else
 			expandedElements.clear();
 		
@@ -628,12 +1060,15 @@ public class DefaultDiagramServer implements IDiagramServer {
 	 */
 	protected void handle(LayoutAction action) {
 		if (needsServerLayout(getModel(), action)) {
-			// Clone the current model, as it has already been sent to the client with the old revision
+			// Copy the current model, as it has already been sent to the client with the old revision.
+			// The layout only assigns new property values, so the values themselves can be shared.
 			SModelCloner cloner = getSModelCloner();
-			SModelRoot newRoot = cloner.clone(getModel());
+			SModelRoot newRoot = cloner.cloneStructure(getModel());
 			synchronized(modelLock) {
 				newRoot.setRevision(++revision);
 				currentRoot = newRoot;
+				currentIndex = null;
+				unsharedRoot = newRoot;
 			}
 			// the actual layout is performed in doSubmitModel
 			doSubmitModel(newRoot, true, action);
@@ -663,6 +1098,11 @@ public class DefaultDiagramServer implements IDiagramServer {
 			return server.currentRoot;
 		}
 		
+		@Override
+		public SModelIndex getCurrentModelIndex() {
+			return server.getModelIndex();
+		}
+		
 		@Override
 		public Set<String> getExpandedElements() {
 			return server.expandedElements;
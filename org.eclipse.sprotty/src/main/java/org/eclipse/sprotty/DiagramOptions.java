@@ -20,4 +20,5 @@ public interface DiagramOptions {
 	String OPTION_DIAGRAM_TYPE = "diagramType";
 	String OPTION_NEEDS_CLIENT_LAYOUT = "needsClientLayout";
 	String OPTION_NEEDS_SERVER_LAYOUT = "needsServerLayout";
+	String OPTION_MODEL_DIFF = "modelDiff";
 }
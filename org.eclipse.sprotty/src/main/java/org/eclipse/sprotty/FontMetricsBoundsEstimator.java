@@ -0,0 +1,339 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estimates the bounds of a model in the same way as the client computes them by rendering it, assuming that
+ * labels are rendered with a Helvetica-like font. Labels are measured with a table of character widths.
+ * The {@code vbox}, {@code hbox} and {@code stack} layouts of {@link LayoutContainer}s are computed with the
+ * same {@link LayoutOptions} defaults as in the client, and the options cascade along the containment path.
+ * 
+ * <p>Other elements are measured only if they already have a valid size. The model cannot be estimated if it
+ * contains an element without size that is neither a label nor a layout container, a container with an unknown
+ * layout kind, or a label with characters for which no width is known.</p>
+ * 
+ * <p>Use this estimator only if the styles of your diagram match the configured font metrics.</p>
+ */
+public class FontMetricsBoundsEstimator implements IBoundsEstimator {
+	
+	/**
+	 * Advance widths of the characters 32 to 126 in Helvetica, in units of 1/1000 em.
+	 */
+	private static final short[] ASCII_WIDTHS = {
+		278, 278, 355, 556, 556, 889, 667, 191, 333, 333, 389, 584, 278, 333, 278, 278,	// space to /
+		556, 556, 556, 556, 556, 556, 556, 556, 556, 556, 278, 278, 584, 584, 584, 556,	// 0 to ?
+		1015, 667, 667, 722, 722, 667, 611, 778, 722, 278, 500, 667, 556, 833, 722, 778,	// @ to O
+		667, 778, 722, 667, 611, 722, 667, 944, 667, 667, 611, 278, 278, 278, 469, 556,	// P to _
+		333, 556, 556, 500, 556, 556, 278, 556, 556, 222, 222, 500, 222, 833, 556, 556,	// ` to o
+		556, 556, 333, 500, 278, 556, 500, 722, 500, 500, 500, 334, 260, 334, 584		// p to ~
+	};
+	
+	/**
+	 * Average advance width used for letters of the Latin-1 supplement, in units of 1/1000 em.
+	 */
+	private static final short LATIN1_WIDTH = 556;
+	
+	private double fontSize = 16;
+	
+	private double lineHeight = 1.15;
+	
+	private double ascent = 0.905;
+	
+	/**
+	 * The font size of labels in pixels.
+	 */
+	public double getFontSize() {
+		return fontSize;
+	}
+	
+	public void setFontSize(double fontSize) {
+		this.fontSize = fontSize;
+	}
+	
+	/**
+	 * The height of a label relative to the font size.
+	 */
+	public double getLineHeight() {
+		return lineHeight;
+	}
+	
+	public void setLineHeight(double lineHeight) {
+		this.lineHeight = lineHeight;
+	}
+	
+	/**
+	 * The distance from the top of a label to the text baseline relative to the font size.
+	 */
+	public double getAscent() {
+		return ascent;
+	}
+	
+	public void setAscent(double ascent) {
+		this.ascent = ascent;
+	}
+	
+	@Override
+	public ComputedBoundsAction estimateBounds(SModelRoot root) {
+		Estimation estimation = new Estimation();
+		if (root.getChildren() != null) {
+			for (SModelElement child : root.getChildren()) {
+				if (!measure(child, getLayoutOptions(root), estimation))
+					return null;
+			}
+		}
+		List<ElementAndBounds> bounds = new ArrayList<>(estimation.sizes.size());
+		for (Map.Entry<SModelElement, Dimension> entry : estimation.sizes.entrySet()) {
+			ElementAndBounds elementAndBounds = new ElementAndBounds();
+			elementAndBounds.setElementId(entry.getKey().getId());
+			elementAndBounds.setNewSize(entry.getValue());
+			elementAndBounds.setNewPosition(estimation.positions.get(entry.getKey()));
+			bounds.add(elementAndBounds);
+		}
+		ComputedBoundsAction action = new ComputedBoundsAction();
+		action.setRevision(root.getRevision());
+		action.setBounds(bounds);
+		action.setAlignments(estimation.alignments);
+		return action;
+	}
+	
+	/**
+	 * Measure the given element and its children. Returns {@code false} if the element cannot be measured.
+	 * 
+	 * @param inheritedOptions - the layout options of all ancestors merged with each other, or {@code null}
+	 */
+	protected boolean measure(SModelElement element, LayoutOptions inheritedOptions, Estimation estimation) {
+		LayoutOptions options = merge(inheritedOptions, getLayoutOptions(element));
+		if (element.getChildren() != null) {
+			for (SModelElement child : element.getChildren()) {
+				if (!measure(child, options, estimation))
+					return false;
+			}
+		}
+		if (element instanceof SLabel)
+			return measureLabel((SLabel) element, estimation);
+		if (element instanceof LayoutContainer && ((LayoutContainer) element).getLayout() != null)
+			return layoutContainer((LayoutContainer) element, options, estimation);
+		if (element instanceof BoundsAware) {
+			Dimension size = ((BoundsAware) element).getSize();
+			return size != null && size.isValid();
+		}
+		return true;
+	}
+	
+	protected boolean measureLabel(SLabel label, Estimation estimation) {
+		String text = label.getText() != null ? label.getText() : "";
+		double width = getTextWidth(text);
+		if (Double.isNaN(width))
+			return false;
+		estimation.sizes.put(label, new Dimension(width, fontSize * lineHeight));
+		ElementAndAlignment alignment = new ElementAndAlignment();
+		alignment.setElementId(label.getId());
+		alignment.setNewAlignment(new Point(0, fontSize * ascent));
+		estimation.alignments.add(alignment);
+		return true;
+	}
+	
+	/**
+	 * Compute the width of the given text in pixels. Returns {@link Double#NaN} if the width of a
+	 * character is not known.
+	 */
+	protected double getTextWidth(String text) {
+		double width = 0;
+		for (int i = 0; i < text.length(); i++) {
+			width += getCharWidth(text.charAt(i));
+		}
+		return width * fontSize / 1000;
+	}
+	
+	/**
+	 * The advance width of the given character in units of 1/1000 em, or {@link Double#NaN} if unknown.
+	 */
+	protected double getCharWidth(char c) {
+		if (c >= 32 && c <= 126)
+			return ASCII_WIDTHS[c - 32];
+		if (c >= 0xC0 && c <= 0xFF)
+			return LATIN1_WIDTH;
+		return Double.NaN;
+	}
+	
+	protected boolean layoutContainer(LayoutContainer container, LayoutOptions inheritedOptions, Estimation estimation) {
+		String layout = container.getLayout();
+		LayoutOptions defaults = getDefaultLayoutOptions(layout);
+		if (defaults == null)
+			return false;
+		LayoutOptions options = merge(defaults, inheritedOptions);
+		boolean vertical = "vbox".equals(layout);
+		boolean horizontal = "hbox".equals(layout);
+		
+		// Compute the size of the children
+		List<SModelElement> children = new ArrayList<>();
+		double childrenWidth = 0, childrenHeight = 0;
+		for (SModelElement child : container.getChildren() != null ? container.getChildren() : Collections.<SModelElement>emptyList()) {
+			Dimension childSize = estimation.getSize(child);
+			if (child instanceof LayoutableChild && childSize != null && childSize.isValid()) {
+				if (vertical) {
+					childrenWidth = Math.max(childrenWidth, childSize.getWidth());
+					childrenHeight += (children.isEmpty() ? 0 : options.getVGap()) + childSize.getHeight();
+				} else if (horizontal) {
+					childrenWidth += (children.isEmpty() ? 0 : options.getHGap()) + childSize.getWidth();
+					childrenHeight = Math.max(childrenHeight, childSize.getHeight());
+				} else {
+					childrenWidth = Math.max(childrenWidth, childSize.getWidth());
+					childrenHeight = Math.max(childrenHeight, childSize.getHeight());
+				}
+				children.add(child);
+			}
+		}
+		
+		Dimension currentSize = container.getSize();
+		boolean resize = options.getResizeContainer();
+		if (!resize && (currentSize == null || !currentSize.isValid()))
+			return false;
+		double paddingFactor = options.getPaddingFactor();
+		double maxWidth = paddingFactor * (resize ? childrenWidth
+				: Math.max(0, currentSize.getWidth() - options.getPaddingLeft() - options.getPaddingRight()));
+		double maxHeight = paddingFactor * (resize ? childrenHeight
+				: Math.max(0, currentSize.getHeight() - options.getPaddingTop() - options.getPaddingBottom()));
+		if (maxWidth <= 0 || maxHeight <= 0)
+			// The client keeps the rendered size of the container, which we cannot know
+			return currentSize != null && currentSize.isValid();
+		
+		// Place the children
+		double x = options.getPaddingLeft() + 0.5 * (maxWidth - maxWidth / paddingFactor);
+		double y = options.getPaddingTop() + 0.5 * (maxHeight - maxHeight / paddingFactor);
+		for (SModelElement child : children) {
+			Dimension childSize = estimation.getSize(child);
+			LayoutOptions childOptions = merge(options, getLayoutOptions(child));
+			double dx = vertical || !horizontal ? getDx(childOptions.getHAlign(), childSize, maxWidth) : 0;
+			double dy = horizontal || !vertical ? getDy(childOptions.getVAlign(), childSize, maxHeight) : 0;
+			estimation.positions.put(child, new Point(x + dx, y + dy));
+			estimation.sizes.put(child, childSize);
+			if (vertical)
+				y += childSize.getHeight() + options.getVGap();
+			else if (horizontal)
+				x += childSize.getWidth() + options.getHGap();
+		}
+		
+		estimation.sizes.put((SModelElement) container, new Dimension(
+				Math.max(options.getMinWidth(), maxWidth + options.getPaddingLeft() + options.getPaddingRight()),
+				Math.max(options.getMinHeight(), maxHeight + options.getPaddingTop() + options.getPaddingBottom())));
+		return true;
+	}
+	
+	protected double getDx(String hAlign, Dimension size, double maxWidth) {
+		if ("left".equals(hAlign))
+			return 0;
+		if ("right".equals(hAlign))
+			return maxWidth - size.getWidth();
+		return 0.5 * (maxWidth - size.getWidth());
+	}
+	
+	protected double getDy(String vAlign, Dimension size, double maxHeight) {
+		if ("top".equals(vAlign))
+			return 0;
+		if ("bottom".equals(vAlign))
+			return maxHeight - size.getHeight();
+		return 0.5 * (maxHeight - size.getHeight());
+	}
+	
+	/**
+	 * The default layout options of the client for the given layout kind, or {@code null} if the
+	 * layout kind is not supported.
+	 */
+	protected LayoutOptions getDefaultLayoutOptions(String layout) {
+		LayoutOptions options = new LayoutOptions();
+		options.setResizeContainer(true);
+		options.setPaddingTop(5.0);
+		options.setPaddingBottom(5.0);
+		options.setPaddingLeft(5.0);
+		options.setPaddingRight(5.0);
+		options.setPaddingFactor(1.0);
+		options.setMinWidth(0.0);
+		options.setMinHeight(0.0);
+		switch (layout) {
+			case "vbox":
+				options.setVGap(1.0);
+				options.setHAlign("center");
+				return options;
+			case "hbox":
+				options.setHGap(1.0);
+				options.setVAlign("center");
+				return options;
+			case "stack":
+				options.setHAlign("center");
+				options.setVAlign("center");
+				return options;
+			default:
+				return null;
+		}
+	}
+	
+	private LayoutOptions getLayoutOptions(SModelElement element) {
+		if (element instanceof LayoutableChild)
+			return ((LayoutableChild) element).getLayoutOptions();
+		return null;
+	}
+	
+	/**
+	 * Merge two sets of layout options. The properties of {@code override} take precedence.
+	 */
+	protected LayoutOptions merge(LayoutOptions base, LayoutOptions override) {
+		if (override == null)
+			return base;
+		if (base == null)
+			return override;
+		LayoutOptions result = new LayoutOptions();
+		result.setPaddingLeft(override.getPaddingLeft() != null ? override.getPaddingLeft() : base.getPaddingLeft());
+		result.setPaddingRight(override.getPaddingRight() != null ? override.getPaddingRight() : base.getPaddingRight());
+		result.setPaddingTop(override.getPaddingTop() != null ? override.getPaddingTop() : base.getPaddingTop());
+		result.setPaddingBottom(override.getPaddingBottom() != null ? override.getPaddingBottom() : base.getPaddingBottom());
+		result.setPaddingFactor(override.getPaddingFactor() != null ? override.getPaddingFactor() : base.getPaddingFactor());
+		result.setResizeContainer(override.getResizeContainer() != null ? override.getResizeContainer() : base.getResizeContainer());
+		result.setVGap(override.getVGap() != null ? override.getVGap() : base.getVGap());
+		result.setHGap(override.getHGap() != null ? override.getHGap() : base.getHGap());
+		result.setVAlign(override.getVAlign() != null ? override.getVAlign() : base.getVAlign());
+		result.setHAlign(override.getHAlign() != null ? override.getHAlign() : base.getHAlign());
+		result.setMinWidth(override.getMinWidth() != null ? override.getMinWidth() : base.getMinWidth());
+		result.setMinHeight(override.getMinHeight() != null ? override.getMinHeight() : base.getMinHeight());
+		return result;
+	}
+	
+	/**
+	 * Intermediate state of a bounds estimation.
+	 */
+	protected static class Estimation {
+		final Map<SModelElement, Dimension> sizes = new IdentityHashMap<>();
+		final Map<SModelElement, Point> positions = new IdentityHashMap<>();
+		final List<ElementAndAlignment> alignments = new ArrayList<>();
+		
+		/**
+		 * The estimated size of the given element, or its current size if it has not been estimated.
+		 */
+		Dimension getSize(SModelElement element) {
+			Dimension size = sizes.get(element);
+			if (size == null && element instanceof BoundsAware)
+				size = ((BoundsAware) element).getSize();
+			return size;
+		}
+	}
+
+}
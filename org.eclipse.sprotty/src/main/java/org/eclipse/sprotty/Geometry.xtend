@@ -21,6 +21,8 @@ import org.eclipse.xtend.lib.annotations.ToString
 
 /**
  * A Point is composed of the (x,y) coordinates of an object.
+ * Instances are shared between copies of a model made by the {@link SModelCloner}, so they
+ * should not be modified once they are assigned to a model element.
  */
 @Accessors
 @EqualsHashCode
@@ -42,6 +44,7 @@ class Point {
 
 /**
  * The Dimension of an object is composed of its width and height.
+ * See {@link Point} regarding the modification of instances.
  */
 @Accessors
 @EqualsHashCode
@@ -67,6 +70,7 @@ class Dimension {
 
 /**
  * The bounds are the position (x, y) and dimension (width, height) of an object.
+ * See {@link Point} regarding the modification of instances.
  */
 @Accessors
 @EqualsHashCode
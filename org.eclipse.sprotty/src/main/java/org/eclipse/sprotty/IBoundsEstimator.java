@@ -0,0 +1,43 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty;
+
+/**
+ * Computes the bounds of model elements on the server, so the client does not need to render the model
+ * in order to measure it. Invoked by {@link DefaultDiagramServer} when a model needs both client and server
+ * layout; if the estimator cannot measure the model, a {@link RequestBoundsAction} is sent to the client
+ * instead. Bind {@link NullImpl} if bounds should always be computed by the client.
+ */
+public interface IBoundsEstimator {
+	
+	/**
+	 * Compute the bounds and alignments that the client would compute for the given model. Return
+	 * {@code null} if any element of the model cannot be measured, in which case the bounds are
+	 * requested from the client.
+	 */
+	ComputedBoundsAction estimateBounds(SModelRoot root);
+	
+	/**
+	 * An implementation that does not measure anything, so the bounds are always computed by the client.
+	 */
+	public static class NullImpl implements IBoundsEstimator {
+		@Override
+		public ComputedBoundsAction estimateBounds(SModelRoot root) {
+			return null;
+		}
+	}
+
+}
@@ -80,7 +80,8 @@ public interface IDiagramServer extends Consumer<ActionMessage> {
 	 * animated in the client.
 	 * 
 	 * Since 0.7 the new <code>root</code> should no longer be null. as in-place modifications of the 
-	 * model should be avoid due to concurrency issues.
+	 * model should be avoid due to concurrency issues. Use {@link SModelRoot#edit(String, Consumer)} to
+	 * derive a new root that shares all unchanged elements with the current one.
 	 */
 	CompletableFuture<Void> updateModel(SModelRoot root);
 	
@@ -42,6 +42,13 @@ public interface IDiagramState {
 	 */
 	SModelRoot getCurrentModel();
 	
+	/**
+	 * @return an index of the current model
+	 */
+	default SModelIndex getCurrentModelIndex() {
+		return new SModelIndex(getCurrentModel());
+	}
+	
 	/**
 	 * @return the IDs of the currently expanded {@link SModelElement}s.
 	 */
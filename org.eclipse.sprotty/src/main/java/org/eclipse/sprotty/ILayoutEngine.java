@@ -15,6 +15,8 @@
  ********************************************************************************/
 package org.eclipse.sprotty;
 
+import java.util.function.BooleanSupplier;
+
 /**
  * A layout engine is able to compute layout information for a model. Invoked by {@link DefaultDiagramServer}.
  * The client decides in the {@link RequestModelAction} whether a layout is performed on the server.
@@ -26,6 +28,16 @@ public interface ILayoutEngine {
 	 */
 	public void layout(SModelRoot root, Action cause);
 	
+	/**
+	 * Compute a layout for the given model and modify the model accordingly. The layout should be aborted
+	 * as soon as the given cancel indicator returns {@code true}, e.g. because a newer revision of the model
+	 * is available. An aborted layout is signaled with a {@link java.util.concurrent.CancellationException},
+	 * in which case the model is not sent to the client. The default implementation ignores the cancel indicator.
+	 */
+	public default void layout(SModelRoot root, Action cause, BooleanSupplier cancelIndicator) {
+		layout(root, cause);
+	}
+	
 	/**
 	 * An implementation that does nothing.
 	 */
@@ -0,0 +1,215 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded pool of worker threads for layout computations that is shared by multiple diagram servers.
+ * Each task belongs to a tenant, e.g. a client. The workers take tasks from the tenants in round-robin order,
+ * so a tenant that submits many layouts cannot starve the others. High priority tasks, e.g. layouts requested
+ * interactively by the user, are taken before all normal priority tasks.
+ *
+ * <p>The number of queued tasks is limited per tenant and in total. A submission that exceeds one of
+ * the limits is rejected with a {@link RejectedExecutionException}.</p>
+ */
+public class LayoutWorkerPool {
+
+	public static final int DEFAULT_MAX_QUEUED_PER_TENANT = 4;
+
+	public static final int DEFAULT_MAX_QUEUED = 256;
+
+	private final ExecutorService executor;
+
+	private final int maxQueuedPerTenant;
+
+	private final int maxQueued;
+
+	private final Map<Object, Tenant> tenants = new HashMap<>();
+
+	private final Queue<Tenant> highPriorityRing = new ArrayDeque<>();
+
+	private final Queue<Tenant> normalPriorityRing = new ArrayDeque<>();
+
+	private int queuedCount;
+
+	/**
+	 * Create a pool with one worker per available processor and the default queue limits.
+	 */
+	public LayoutWorkerPool() {
+		this(Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_QUEUED_PER_TENANT, DEFAULT_MAX_QUEUED);
+	}
+
+	public LayoutWorkerPool(int workerCount, int maxQueuedPerTenant, int maxQueued) {
+		if (workerCount <= 0 || maxQueuedPerTenant <= 0 || maxQueued <= 0)
+			throw new IllegalArgumentException("The worker count and queue limits must be positive");
+		this.maxQueuedPerTenant = maxQueuedPerTenant;
+		this.maxQueued = maxQueued;
+		AtomicInteger threadCount = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(workerCount, runnable -> {
+			Thread thread = new Thread(runnable, "sprotty-layout-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Queue a task of the given tenant. The returned future is completed when the task has finished.
+	 *
+	 * @throws RejectedExecutionException if the queue of the tenant or the total queue is full
+	 */
+	public CompletableFuture<Void> submit(Object tenant, boolean highPriority, Runnable task) {
+		CompletableFuture<Void> future = new CompletableFuture<>();
+		synchronized (tenants) {
+			if (queuedCount >= maxQueued)
+				throw new RejectedExecutionException("The layout queue is full.");
+			Tenant t = tenants.get(tenant);
+			if (t == null) {
+				t = new Tenant(tenant);
+				tenants.put(tenant, t);
+			}
+			if (t.size() >= maxQueuedPerTenant)
+				throw new RejectedExecutionException("The layout queue of " + tenant + " is full.");
+			QueuedTask queuedTask = new QueuedTask(task, future);
+			if (highPriority) {
+				if (t.highPriority.isEmpty())
+					highPriorityRing.add(t);
+				t.highPriority.add(queuedTask);
+			} else {
+				if (t.normalPriority.isEmpty())
+					normalPriorityRing.add(t);
+				t.normalPriority.add(queuedTask);
+			}
+			queuedCount++;
+		}
+		try {
+			// Every execution runs the next task in fair order, which is not necessarily the one submitted here
+			executor.execute(this::runNext);
+		} catch (RejectedExecutionException exc) {
+			synchronized (tenants) {
+				// The pool has been shut down; the task is still queued, so remove it again
+				remove(tenant, future);
+			}
+			throw exc;
+		}
+		return future;
+	}
+
+	/**
+	 * The number of tasks that are waiting for a worker.
+	 */
+	public int getQueuedCount() {
+		synchronized (tenants) {
+			return queuedCount;
+		}
+	}
+
+	/**
+	 * The number of tasks of the given tenant that are waiting for a worker.
+	 */
+	public int getQueuedCount(Object tenant) {
+		synchronized (tenants) {
+			Tenant t = tenants.get(tenant);
+			return t != null ? t.size() : 0;
+		}
+	}
+
+	/**
+	 * Stop accepting new tasks. Already queued tasks are still executed.
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	protected void runNext() {
+		QueuedTask task;
+		synchronized (tenants) {
+			task = poll(highPriorityRing, true);
+			if (task == null)
+				task = poll(normalPriorityRing, false);
+			if (task == null)
+				return;
+			queuedCount--;
+		}
+		try {
+			task.runnable.run();
+			task.future.complete(null);
+		} catch (Throwable t) {
+			task.future.completeExceptionally(t);
+		}
+	}
+
+	private QueuedTask poll(Queue<Tenant> ring, boolean highPriority) {
+		Tenant t = ring.poll();
+		if (t == null)
+			return null;
+		Queue<QueuedTask> tasks = highPriority ? t.highPriority : t.normalPriority;
+		QueuedTask task = tasks.poll();
+		if (!tasks.isEmpty())
+			// Move the tenant to the end of the ring
+			ring.add(t);
+		if (t.size() == 0)
+			tenants.remove(t.key);
+		return task;
+	}
+
+	private void remove(Object tenant, CompletableFuture<Void> future) {
+		Tenant t = tenants.get(tenant);
+		if (t != null && (t.highPriority.removeIf(task -> task.future == future)
+				|| t.normalPriority.removeIf(task -> task.future == future))) {
+			queuedCount--;
+			if (t.highPriority.isEmpty())
+				highPriorityRing.remove(t);
+			if (t.normalPriority.isEmpty())
+				normalPriorityRing.remove(t);
+			if (t.size() == 0)
+				tenants.remove(tenant);
+		}
+	}
+
+	private static class Tenant {
+		final Object key;
+		final Queue<QueuedTask> highPriority = new ArrayDeque<>();
+		final Queue<QueuedTask> normalPriority = new ArrayDeque<>();
+
+		Tenant(Object key) {
+			this.key = key;
+		}
+
+		int size() {
+			return highPriority.size() + normalPriority.size();
+		}
+	}
+
+	private static class QueuedTask {
+		final Runnable runnable;
+		final CompletableFuture<Void> future;
+
+		QueuedTask(Runnable runnable, CompletableFuture<Void> future) {
+			this.runnable = runnable;
+			this.future = future;
+		}
+	}
+
+}
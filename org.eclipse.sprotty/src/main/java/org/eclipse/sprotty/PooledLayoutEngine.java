@@ -0,0 +1,95 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A layout engine that runs another layout engine on a shared {@link LayoutWorkerPool}. The calling thread
+ * waits until the layout is finished, but the number of concurrent layouts is limited by the pool, and
+ * the pool schedules the layouts of different tenants fairly.
+ *
+ * <p>By default each instance of this engine is its own tenant. Since a layout engine is usually injected
+ * into each diagram server separately, this means that the diagram servers are scheduled fairly. Layouts
+ * caused by a {@link LayoutAction} have high priority.</p>
+ */
+public class PooledLayoutEngine implements ILayoutEngine {
+
+	private final ILayoutEngine delegate;
+
+	private final LayoutWorkerPool pool;
+
+	public PooledLayoutEngine(ILayoutEngine delegate, LayoutWorkerPool pool) {
+		if (delegate == null || pool == null)
+			throw new NullPointerException();
+		this.delegate = delegate;
+		this.pool = pool;
+	}
+
+	public ILayoutEngine getDelegate() {
+		return delegate;
+	}
+
+	public LayoutWorkerPool getPool() {
+		return pool;
+	}
+
+	@Override
+	public void layout(SModelRoot root, Action cause) {
+		layout(root, cause, () -> false);
+	}
+
+	/**
+	 * Queue the layout in the worker pool and wait for its completion. A layout that is cancelled
+	 * while waiting in the queue is not started.
+	 *
+	 * @throws java.util.concurrent.RejectedExecutionException if the queue is full
+	 */
+	@Override
+	public void layout(SModelRoot root, Action cause, BooleanSupplier cancelIndicator) {
+		try {
+			pool.submit(getTenant(root, cause), isHighPriority(root, cause), () -> {
+				if (cancelIndicator.getAsBoolean())
+					throw new CancellationException("The layout has been cancelled.");
+				delegate.layout(root, cause, cancelIndicator);
+			}).join();
+		} catch (CompletionException exc) {
+			if (exc.getCause() instanceof RuntimeException)
+				throw (RuntimeException) exc.getCause();
+			if (exc.getCause() instanceof Error)
+				throw (Error) exc.getCause();
+			throw exc;
+		}
+	}
+
+	/**
+	 * Return the tenant to which the layout of the given model is attributed.
+	 */
+	protected Object getTenant(SModelRoot root, Action cause) {
+		return this;
+	}
+
+	/**
+	 * Whether the layout of the given model has been requested interactively and should be preferred
+	 * over background layouts.
+	 */
+	protected boolean isHighPriority(SModelRoot root, Action cause) {
+		return cause instanceof LayoutAction;
+	}
+
+}
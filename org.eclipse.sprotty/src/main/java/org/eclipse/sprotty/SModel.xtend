@@ -60,6 +60,23 @@ class SModelRoot extends SModelElement {
 		this()
 		initializer.accept(this)
 	}
+	
+	/**
+	 * Derive a new revision of this model in which the element with the given id is modified by the given
+	 * function. All elements that are not on the path to the modified element are shared with this model,
+	 * which remains unchanged. See {@link SModelCloner#edit(SModelRoot, String, Consumer)}.
+	 */
+	def SModelRoot edit(String elementId, Consumer<? super SModelElement> modification) {
+		edit(elementId, new SModelCloner, modification)
+	}
+	
+	/**
+	 * Like {@link #edit(String, Consumer)}, but uses the given cloner, e.g. the one injected into the
+	 * diagram server.
+	 */
+	def SModelRoot edit(String elementId, SModelCloner cloner, Consumer<? super SModelElement> modification) {
+		cloner.edit(this, elementId, modification)
+	}
 }
 
 /**
@@ -15,8 +15,10 @@
  ********************************************************************************/
 package org.eclipse.sprotty
 
-import java.lang.reflect.Modifier
+import java.util.ArrayList
 import java.util.List
+import java.util.function.Consumer
+import org.eclipse.sprotty.util.ClonePlan
 
 /**
  * Makes a deep copy of an {@link SModelElement}. 
@@ -29,6 +31,19 @@ import java.util.List
  * <li>there are no cross references, i.e. the element and it's fields form a tree.</li>
  * </ul>
  * </p>
+ * 
+ * <p>
+ * The fields of each class are copied according to a {@link ClonePlan} that is computed once per class.
+ * Instances of {@link Point}, {@link Dimension} and {@link Bounds} are treated as values and shared
+ * between the original and the copy. Override the respective {@code doClone} methods if your code
+ * modifies such instances in place.
+ * </p>
+ * 
+ * <p>
+ * Besides deep copies, the cloner supports copy-on-write revisions of a model: {@link #edit(SModelRoot, String, Consumer)}
+ * derives a new root in which only the modified element and its ancestors are copied, while all other
+ * elements are shared with the original root.
+ * </p>
  */
 class SModelCloner {
 	
@@ -37,26 +52,90 @@ class SModelCloner {
 		return clone as SModelRoot
 	}
 	
-	protected def dispatch Object doClone(Object obj) {
-		val clone = obj.class.getConstructor().newInstance()
-		var Class<?> currentClass = obj.class
-		do {
-			for (field : currentClass.declaredFields) {
-				field.accessible = true
-				if (field.get(obj) !== null && !Modifier.isFinal(field.modifiers)) {
-					if (field.type.primitive) 
-						field.set(clone, field.get(obj))
-					else
-						field.set(clone, field.get(obj).doClone)
+	/**
+	 * Copy the given element without copying any of its property values. The list of children is copied,
+	 * but the children themselves are shared with the original element.
+	 */
+	def <T extends SModelElement> T shallowCopy(T element) {
+		val plan = ClonePlan.of(element.class)
+		val copy = plan.newInstance() as T
+		plan.copyFields(element, copy, [it])
+		if (element.children !== null)
+			copy.children = new ArrayList(element.children)
+		return copy
+	}
+	
+	/**
+	 * Copy all elements of the given model, but share their property values with the original model.
+	 * The result can be modified by assigning new property values to its elements without affecting
+	 * the original model, which is sufficient e.g. for applying a layout.
+	 */
+	def SModelRoot cloneStructure(SModelRoot root) {
+		root.copyStructure
+	}
+	
+	protected def <T extends SModelElement> T copyStructure(T element) {
+		val copy = element.shallowCopy
+		if (copy.children !== null) {
+			for (var i = 0; i < copy.children.size; i++) {
+				copy.children.set(i, copy.children.get(i).copyStructure)
+			}
+		}
+		return copy
+	}
+	
+	/**
+	 * Derive a new revision of the given model in which the element with the given id is modified by the
+	 * given function. Only that element and its ancestors are copied (see {@link #shallowCopy(SModelElement)}),
+	 * all other elements are shared with the original model, which remains unchanged. The modification must
+	 * not change elements other than the one it receives. Children may be added to or removed from
+	 * that element, but must not be modified in place.
+	 * 
+	 * @throws IllegalArgumentException if the model does not contain an element with the given id
+	 */
+	def SModelRoot edit(SModelRoot root, String elementId, Consumer<? super SModelElement> modification) {
+		val path = <SModelElement>newArrayList
+		if (!findPath(root, elementId, path))
+			throw new IllegalArgumentException("No element with id " + elementId)
+		var SModelElement copy = path.head.shallowCopy
+		modification.accept(copy)
+		for (var i = 1; i < path.size; i++) {
+			val original = path.get(i - 1)
+			val parentCopy = path.get(i).shallowCopy
+			parentCopy.children.set(parentCopy.children.indexOf(original), copy)
+			copy = parentCopy
+		}
+		return copy as SModelRoot
+	}
+	
+	/**
+	 * Collect the element with the given id and all its ancestors, starting with the element itself.
+	 */
+	protected def boolean findPath(SModelElement element, String elementId, List<SModelElement> path) {
+		if (elementId == element.id) {
+			path.add(element)
+			return true
+		}
+		if (element.children !== null) {
+			for (child : element.children) {
+				if (findPath(child, elementId, path)) {
+					path.add(element)
+					return true
 				}
 			}
-			currentClass = currentClass.superclass
-		} while (currentClass != Object && currentClass !== null)
+		}
+		return false
+	}
+	
+	protected def dispatch Object doClone(Object obj) {
+		val plan = ClonePlan.of(obj.class)
+		val clone = plan.newInstance()
+		plan.copyFields(obj, clone, [doClone])
 		return clone
 	}
 	
 	protected def dispatch List<?> doClone(List<?> c) {
-		val clone = newArrayList
+		val clone = new ArrayList<Object>(c.size)
 		for (var i = c.iterator; i.hasNext; ) 
 			clone.add(i.next.doClone)
 		return clone
@@ -73,4 +152,20 @@ class SModelCloner {
 	protected def dispatch Number doClone(Number n) {
 		n
 	}
+	
+	protected def dispatch Enum<?> doClone(Enum<?> e) {
+		e
+	}
+	
+	protected def dispatch Point doClone(Point p) {
+		p
+	}
+	
+	protected def dispatch Dimension doClone(Dimension d) {
+		d
+	}
+	
+	protected def dispatch Bounds doClone(Bounds b) {
+		b
+	}
 }
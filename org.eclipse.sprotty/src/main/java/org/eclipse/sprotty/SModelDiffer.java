@@ -0,0 +1,267 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Computes the difference between two revisions of a model as a list of {@link Match}es, so the client
+ * can be updated with an {@link UpdateModelAction} that carries only the changed parts of the model
+ * instead of the complete new root. Elements of both revisions are related by their id.
+ *
+ * <p>The matches are applied on the client in the given order: the {@code left} element is removed and the
+ * {@code right} element (including all its children) is added to the element with id {@code rightParentId}.
+ * Therefore an element whose own properties have changed is replaced together with its whole subtree.
+ * All removals are listed before the insertions, so elements that are moved to a different parent do
+ * not collide with their previous instance.</p>
+ *
+ * <p>Elements that are identical in both revisions, e.g. because the new revision has been derived
+ * with {@link SModelRoot#edit(String, java.util.function.Consumer)}, are considered unchanged without
+ * comparing their properties or children.</p>
+ */
+public class SModelDiffer {
+
+	/**
+	 * The default value for {@link #getMaxChangeRatio()}.
+	 */
+	public static final double DEFAULT_MAX_CHANGE_RATIO = 0.5;
+
+	private static final ClassValue<Field[]> PROPERTY_FIELDS = new ClassValue<Field[]>() {
+		@Override
+		protected Field[] computeValue(Class<?> type) {
+			List<Field> result = new ArrayList<>();
+			Class<?> currentClass = type;
+			while (currentClass != null && currentClass != Object.class) {
+				for (Field field : currentClass.getDeclaredFields()) {
+					int modifiers = field.getModifiers();
+					if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
+						field.setAccessible(true);
+						result.add(field);
+					}
+				}
+				currentClass = currentClass.getSuperclass();
+			}
+			return result.toArray(new Field[result.size()]);
+		}
+	};
+
+	private static final ClassValue<Boolean> OVERRIDES_EQUALS = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			try {
+				return type.getMethod("equals", Object.class).getDeclaringClass() != Object.class;
+			} catch (NoSuchMethodException e) {
+				return false;
+			}
+		}
+	};
+
+	private double maxChangeRatio = DEFAULT_MAX_CHANGE_RATIO;
+
+	/**
+	 * The maximal ratio of changed elements to the total number of elements in the new model for which
+	 * matches are computed. If more elements have changed, {@link #diff(SModelRoot, SModelRoot)} returns
+	 * {@code null}, indicating that sending the complete new model is cheaper.
+	 */
+	public double getMaxChangeRatio() {
+		return maxChangeRatio;
+	}
+
+	public void setMaxChangeRatio(double maxChangeRatio) {
+		if (maxChangeRatio < 0)
+			throw new IllegalArgumentException("The change ratio must not be negative.");
+		this.maxChangeRatio = maxChangeRatio;
+	}
+
+	/**
+	 * Compute the matches that transform {@code oldRoot} into {@code newRoot}. Returns {@code null} if the
+	 * models cannot be matched incrementally, e.g. because the properties of the root element have changed,
+	 * or if the matches would cover more elements than allowed by {@link #getMaxChangeRatio()}. In that case
+	 * the complete new model should be sent to the client.
+	 */
+	public List<Match> diff(SModelRoot oldRoot, SModelRoot newRoot) {
+		if (oldRoot == null || newRoot == null || oldRoot == newRoot)
+			return null;
+		if (!Objects.equals(oldRoot.getId(), newRoot.getId()) || !equalProperties(oldRoot, newRoot))
+			return null;
+		DiffResult result = new DiffResult();
+		if (!diffChildren(oldRoot, newRoot, result))
+			return null;
+		int totalCount = result.visitedCount + result.insertedCount;
+		if (result.changedCount > maxChangeRatio * totalCount)
+			return null;
+		List<Match> matches = new ArrayList<>(result.removals.size() + result.insertions.size());
+		matches.addAll(result.removals);
+		matches.addAll(result.insertions);
+		return matches;
+	}
+
+	/**
+	 * Compare the children of two elements that are present in both revisions and have equal properties.
+	 * Returns {@code false} if the children cannot be matched, so the parent must be replaced as a whole.
+	 *
+	 * <p>Elements added by a {@link Match} are appended to the children of their parent on the client.
+	 * Hence a child can be kept in place only if it comes after all other kept children in the old
+	 * revision, and once a child has been inserted or replaced, all following children are replaced
+	 * as well in order to preserve their order.</p>
+	 */
+	protected boolean diffChildren(SModelElement oldParent, SModelElement newParent, DiffResult result) {
+		List<SModelElement> oldChildren = children(oldParent);
+		List<SModelElement> newChildren = children(newParent);
+		if (oldChildren.isEmpty() && newChildren.isEmpty()) {
+			result.visitedCount++;
+			return true;
+		}
+		Map<String, Integer> oldIndices = new HashMap<>();
+		for (int i = 0; i < oldChildren.size(); i++) {
+			String id = oldChildren.get(i).getId();
+			if (id == null || oldIndices.put(id, i) != null)
+				return false;
+		}
+		Set<String> newIds = new HashSet<>();
+		for (SModelElement newChild : newChildren) {
+			if (newChild.getId() == null || !newIds.add(newChild.getId()))
+				return false;
+		}
+
+		result.visitedCount++;
+		for (SModelElement oldChild : oldChildren) {
+			if (!newIds.contains(oldChild.getId())) {
+				result.removals.add(createMatch(oldChild, oldParent, null, null));
+				result.changedCount++;
+			}
+		}
+		int lastKeptIndex = -1;
+		boolean appending = false;
+		for (SModelElement newChild : newChildren) {
+			Integer oldIndex = oldIndices.get(newChild.getId());
+			if (oldIndex != null) {
+				SModelElement oldChild = oldChildren.get(oldIndex);
+				if (!appending && oldIndex > lastKeptIndex && oldChild == newChild) {
+					result.visitedCount += count(newChild);
+					lastKeptIndex = oldIndex;
+					continue;
+				}
+				if (!appending && oldIndex > lastKeptIndex && equalProperties(oldChild, newChild)
+						&& diffChildren(oldChild, newChild, result)) {
+					lastKeptIndex = oldIndex;
+					continue;
+				}
+				result.removals.add(createMatch(oldChild, oldParent, null, null));
+			}
+			result.insertions.add(createMatch(null, null, newChild, newParent));
+			int size = count(newChild);
+			result.insertedCount += size;
+			result.changedCount += size;
+			appending = true;
+		}
+		return true;
+	}
+
+	protected Match createMatch(SModelElement left, SModelElement leftParent, SModelElement right, SModelElement rightParent) {
+		Match match = new Match();
+		if (left != null) {
+			match.setLeft(left);
+			match.setLeftParentId(leftParent.getId());
+		}
+		if (right != null) {
+			match.setRight(right);
+			match.setRightParentId(rightParent.getId());
+		}
+		return match;
+	}
+
+	/**
+	 * Compare all properties of the given elements except their children and, for root elements,
+	 * the revision number.
+	 */
+	protected boolean equalProperties(SModelElement oldElement, SModelElement newElement) {
+		if (oldElement.getClass() != newElement.getClass())
+			return false;
+		try {
+			for (Field field : PROPERTY_FIELDS.get(oldElement.getClass())) {
+				String name = field.getName();
+				if ("children".equals(name) && field.getDeclaringClass() == SModelElement.class
+						|| "revision".equals(name) && field.getDeclaringClass() == SModelRoot.class)
+					continue;
+				if (!deepEquals(field.get(oldElement), field.get(newElement)))
+					return false;
+			}
+			return true;
+		} catch (IllegalAccessException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	protected boolean deepEquals(Object a, Object b) throws IllegalAccessException {
+		if (a == b)
+			return true;
+		if (a == null || b == null || a.getClass() != b.getClass())
+			return false;
+		if (a instanceof List<?>) {
+			List<?> la = (List<?>) a;
+			List<?> lb = (List<?>) b;
+			if (la.size() != lb.size())
+				return false;
+			for (int i = 0; i < la.size(); i++) {
+				if (!deepEquals(la.get(i), lb.get(i)))
+					return false;
+			}
+			return true;
+		}
+		if (a instanceof Map<?, ?> || a instanceof Set<?> || OVERRIDES_EQUALS.get(a.getClass()))
+			return a.equals(b);
+		for (Field field : PROPERTY_FIELDS.get(a.getClass())) {
+			if (!deepEquals(field.get(a), field.get(b)))
+				return false;
+		}
+		return true;
+	}
+
+	protected int count(SModelElement element) {
+		int result = 1;
+		for (SModelElement child : children(element)) {
+			result += count(child);
+		}
+		return result;
+	}
+
+	private List<SModelElement> children(SModelElement element) {
+		List<SModelElement> children = element.getChildren();
+		return children != null ? children : Collections.emptyList();
+	}
+
+	/**
+	 * Intermediate state of a model comparison.
+	 */
+	protected static class DiffResult {
+		final List<Match> removals = new ArrayList<>();
+		final List<Match> insertions = new ArrayList<>();
+		int visitedCount;
+		int insertedCount;
+		int changedCount;
+	}
+
+}
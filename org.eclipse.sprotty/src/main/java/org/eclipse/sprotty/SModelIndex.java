@@ -15,12 +15,17 @@
  ********************************************************************************/
 package org.eclipse.sprotty;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 /**
  * Utility class that stores all model elements by their id. Use this for fast model element lookup.
+ * In addition to the elements themselves, the index stores the parent of each element and groups
+ * the elements by their type.
  */
 public class SModelIndex {
 	
@@ -43,16 +48,32 @@ public class SModelIndex {
 		return null;
 	}
 	
+	private final SModelElement root;
+	
 	private final Map<String, SModelElement> index;
+	
+	private final Map<String, SModelElement> parentIndex;
+	
+	private final Map<String, List<SModelElement>> typeIndex;
 
 	/**
 	 * Build an index from the given parent element. All content of the element is included recursively.
 	 */
 	public SModelIndex(SModelElement parent) {
+		root = parent;
 		index = new HashMap<>();
+		parentIndex = new HashMap<>();
+		typeIndex = new HashMap<>();
 		addToIndex(parent);
 	}
 	
+	/**
+	 * The element from which this index was built.
+	 */
+	public SModelElement getRoot() {
+		return root;
+	}
+	
 	/**
 	 * Get the element with the given id. Returns {@code null} if such an element does not exist.
 	 */
@@ -60,6 +81,33 @@ public class SModelIndex {
 		return index.get(elementId);
 	}
 	
+	/**
+	 * Get the parent of the element with the given id. Returns {@code null} if such an element does
+	 * not exist or if it is the root of this index.
+	 */
+	public SModelElement getParent(String elementId) {
+		return parentIndex.get(elementId);
+	}
+	
+	/**
+	 * Get the parent of the given element. Returns {@code null} if the element is not contained
+	 * in this index or if it is the root of this index.
+	 */
+	public SModelElement getParent(SModelElement element) {
+		return parentIndex.get(element.getId());
+	}
+	
+	/**
+	 * Get all elements with the given type in depth-first order. Returns an empty list if there
+	 * is no such element.
+	 */
+	public List<SModelElement> getAllByType(String type) {
+		List<SModelElement> elements = typeIndex.get(type);
+		if (elements == null)
+			return Collections.emptyList();
+		return Collections.unmodifiableList(elements);
+	}
+	
 	/**
 	 * @return all IDs
 	 */
@@ -67,12 +115,21 @@ public class SModelIndex {
 		return index.keySet();
 	}
 	
+	/**
+	 * @return the number of indexed elements
+	 */
+	public int size() {
+		return index.size();
+	}
+	
 	protected void addToIndex(SModelElement element) {
 		index.put(element.getId(), element);
+		typeIndex.computeIfAbsent(element.getType(), type -> new ArrayList<>()).add(element);
 		if (element.getChildren() != null) {
 			for (SModelElement child : element.getChildren()) {
+				parentIndex.put(child.getId(), element);
 				addToIndex(child);
 			}
 		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,155 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * A precomputed plan for copying instances of a class field by field. The plan is created once per class
+ * and consists of method handles for the default constructor and for reading and writing each instance
+ * field, so copying an object does not involve any reflective lookup or access check.
+ * 
+ * <p>Primitive fields are copied directly. Non-null values of reference fields are passed through a
+ * function that decides whether to copy or share them; {@code null} values are not written, so the
+ * field keeps the value assigned by the constructor. Static and final fields are ignored.</p>
+ */
+public final class ClonePlan {
+	
+	private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+	private static final MethodType COPIER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+	
+	private static final ClassValue<ClonePlan> PLANS = new ClassValue<ClonePlan>() {
+		@Override
+		protected ClonePlan computeValue(Class<?> type) {
+			return new ClonePlan(type);
+		}
+	};
+	
+	/**
+	 * Returns the plan for the given class, creating it on first access.
+	 */
+	public static ClonePlan of(Class<?> type) {
+		return PLANS.get(type);
+	}
+	
+	private final Class<?> type;
+	
+	private final MethodHandle constructor;
+	
+	/** Handles of type (Object source, Object target)void copying one primitive field each. */
+	private final MethodHandle[] primitiveCopiers;
+	
+	/** Handles of type (Object source)Object reading one reference field each. */
+	private final MethodHandle[] referenceGetters;
+	
+	/** Handles of type (Object target, Object value)void writing one reference field each. */
+	private final MethodHandle[] referenceSetters;
+	
+	private ClonePlan(Class<?> type) {
+		this.type = type;
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		List<MethodHandle> primitiveCopiers = new ArrayList<>();
+		List<MethodHandle> referenceGetters = new ArrayList<>();
+		List<MethodHandle> referenceSetters = new ArrayList<>();
+		try {
+			Constructor<?> defaultConstructor = type.getDeclaredConstructor();
+			defaultConstructor.setAccessible(true);
+			this.constructor = lookup.unreflectConstructor(defaultConstructor).asType(CONSTRUCTOR_TYPE);
+			Class<?> currentClass = type;
+			while (currentClass != null && currentClass != Object.class) {
+				for (Field field : currentClass.getDeclaredFields()) {
+					int modifiers = field.getModifiers();
+					if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers))
+						continue;
+					field.setAccessible(true);
+					MethodHandle getter = lookup.unreflectGetter(field);
+					MethodHandle setter = lookup.unreflectSetter(field);
+					if (field.getType().isPrimitive()) {
+						// (target, source) -> target.field = source.field, then swap to (source, target)
+						MethodHandle copier = MethodHandles.filterArguments(setter, 1, getter);
+						copier = MethodHandles.permuteArguments(
+								copier.asType(MethodType.methodType(void.class, Object.class, Object.class)),
+								COPIER_TYPE, 1, 0);
+						primitiveCopiers.add(copier);
+					} else {
+						referenceGetters.add(getter.asType(GETTER_TYPE));
+						referenceSetters.add(setter.asType(SETTER_TYPE));
+					}
+				}
+				currentClass = currentClass.getSuperclass();
+			}
+		} catch (NoSuchMethodException e) {
+			throw new IllegalArgumentException("Class " + type.getName() + " has no default constructor.", e);
+		} catch (IllegalAccessException e) {
+			throw new IllegalArgumentException("Cannot access members of class " + type.getName() + ".", e);
+		}
+		this.primitiveCopiers = primitiveCopiers.toArray(new MethodHandle[primitiveCopiers.size()]);
+		this.referenceGetters = referenceGetters.toArray(new MethodHandle[referenceGetters.size()]);
+		this.referenceSetters = referenceSetters.toArray(new MethodHandle[referenceSetters.size()]);
+	}
+	
+	public Class<?> getType() {
+		return type;
+	}
+	
+	/**
+	 * Create a new instance using the default constructor.
+	 */
+	public Object newInstance() {
+		try {
+			return (Object) constructor.invokeExact();
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable t) {
+			throw new RuntimeException(t);
+		}
+	}
+	
+	/**
+	 * Copy all fields from {@code source} to {@code target}, which must both be instances of
+	 * exactly the class of this plan. Non-null values of reference fields are transformed
+	 * with {@code referenceCopier} before they are assigned.
+	 */
+	public void copyFields(Object source, Object target, UnaryOperator<Object> referenceCopier) {
+		if (source.getClass() != type || target.getClass() != type)
+			throw new IllegalArgumentException("Expected instances of " + type.getName());
+		try {
+			for (MethodHandle copier : primitiveCopiers) {
+				copier.invokeExact(source, target);
+			}
+			for (int i = 0; i < referenceGetters.length; i++) {
+				Object value = (Object) referenceGetters[i].invokeExact(source);
+				if (value != null)
+					referenceSetters[i].invokeExact(target, referenceCopier.apply(value));
+			}
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable t) {
+			throw new RuntimeException(t);
+		}
+	}
+	
+}
@@ -15,7 +15,11 @@
  ********************************************************************************/
 package org.eclipse.sprotty
 
+import java.util.concurrent.CancellationException
 import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+import java.util.function.BooleanSupplier
 import org.apache.log4j.Logger
 import org.eclipse.sprotty.util.RejectException
 import org.eclipse.sprotty.util.TestLogger
@@ -328,6 +332,44 @@ class DefaultDiagramServerTest {
 		}
 	}
 	
+	@Test
+	def void testRequestToClientExpired() {
+		val server = new TestSetup().createServer()
+		server.setRequestTimeout(10, TimeUnit.MILLISECONDS)
+		val future = server.request(new GetSelectionAction)
+		assertEquals(1, server.outstandingRequestCount)
+		try {
+			future.get
+			fail('Expected an ExecutionException')
+		} catch (ExecutionException exc) {
+			assertTrue(exc.cause instanceof TimeoutException)
+		}
+		waitUntil[server.outstandingRequestCount == 0]
+		assertEquals(1, server.expiredRequestCount)
+		assertTrue(logger.toString, logger.toString.contains('WARN: Request with id server_1 timed out.'))
+	}
+	
+	@Test
+	def void testLateResponseIgnored() {
+		val server = new TestSetup().createServer()
+		val messages = newArrayList
+		server.remoteEndpoint = [m | messages.add(m)]
+		server.setRequestTimeout(10, TimeUnit.MILLISECONDS)
+		val future = server.request(new GetSelectionAction)
+		waitUntil[server.expiredRequestCount == 1]
+		server.accept(new ActionMessage[
+			action = new SelectionResult[
+				responseId = 'server_1'
+				selectedElementsIDs = #['1', '2', '3']
+			]
+		])
+		assertTrue(future.completedExceptionally)
+		assertEquals(0, server.outstandingRequestCount)
+		assertEquals(1, server.expiredRequestCount)
+		assertEquals(#[GetSelectionAction.KIND], messages.map[action.kind])
+		assertTrue(logger.toString, logger.toString.contains('INFO: No matching request for response'))
+	}
+	
 	/**
 	 * Selection state should be updated when dispatching and accepting {@link SelectAction}s.
 	 */
@@ -429,8 +471,259 @@ class DefaultDiagramServerTest {
 	}
 	
 	
+	/**
+	 * Model updates should be sent as differences if the client asks for it.
+	 */
+	@Test
+	def void testUpdateModelDiff() {
+		val server = new TestSetup().createServer()
+		val messages = newArrayList
+		server.remoteEndpoint = [m | messages.add(m)]
+		server.accept(new ActionMessage[
+			action = new RequestModelAction[
+				options = #{
+					DiagramOptions.OPTION_NEEDS_CLIENT_LAYOUT -> 'false',
+					DiagramOptions.OPTION_MODEL_DIFF -> 'true'
+				}
+			]
+		])
+		server.model = new SModelRoot[
+			id = "root"
+			children = #[
+				new SNode[id = "node1"],
+				new SNode[id = "node2"],
+				new SNode[id = "node3"],
+				new SNode[id = "node4"]
+			]
+		]
+		server.updateModel(new SModelRoot[
+			id = "root"
+			children = #[
+				new SNode[id = "node1"],
+				new SNode[id = "node3"],
+				new SNode[id = "node4"],
+				new SNode[id = "node5"]
+			]
+		])
+		val update = messages.last.action as UpdateModelAction
+		assertNull(update.newRoot)
+		assertEquals(#['node2', null], update.matches.map[left?.id])
+		assertEquals(#[null, 'node5'], update.matches.map[right?.id])
+	}
+	
+	@Test
+	def void testActionExecutor() {
+		val server = new TestSetup().createServer()
+		val tasks = <Runnable>newArrayList
+		server.actionExecutor = [tasks.add(it)]
+		server.accept(new ActionMessage[
+			action = new SelectAction[
+				selectedElementsIDs = #['node1']
+			]
+		])
+		server.accept(new ActionMessage[
+			action = new SelectAction[
+				selectedElementsIDs = #['node2']
+				deselectedElementsIDs = #['node1']
+			]
+		])
+		assertEquals(2, server.actionQueueDepth)
+		assertEquals(1, tasks.size)
+		assertTrue(server.diagramState.selectedElements.empty)
+		tasks.head.run()
+		assertEquals(0, server.actionQueueDepth)
+		assertEquals(#{'node2'}, server.diagramState.selectedElements)
+	}	
+	@Test
+	def void testCoalesceSubmissions() {
+		val server = new TestSetup[
+			layoutEngine = DummyLayoutEngine
+		].createServer()
+		server.coalesceSubmissions = true
+		server.model = new SModelRoot[
+			type = 'root'
+			id = 'root1'
+		]
+		val messages = newArrayList
+		server.remoteEndpoint = [m | messages.add(m)]
+		server.accept(new ActionMessage[
+			action = new RequestModelAction[
+				options = #{
+					DiagramOptions.OPTION_NEEDS_CLIENT_LAYOUT -> 'true',
+					DiagramOptions.OPTION_NEEDS_SERVER_LAYOUT -> 'true'
+				}
+			]
+		])
+		server.updateModel(new SModelRoot[
+			type = 'root'
+			id = 'root2'
+		])
+		server.updateModel(new SModelRoot[
+			type = 'root'
+			id = 'root3'
+		])
+		assertEquals(#['root1'], messages.map[action].filter(RequestBoundsAction).map[newRoot.id].toList)
+		server.accept(new ActionMessage[
+			action = new ComputedBoundsAction[
+				responseId = 'server_1'
+				revision = 1
+				bounds = emptyList
+				alignments = emptyList
+			]
+		])
+		assertEquals(#['root1', 'root3'], messages.map[action].filter(RequestBoundsAction).map[newRoot.id].toList)
+	}	
+	
+	@Test
+	def void testCancelSupersededLayout() {
+		val server = new TestSetup[
+			layoutEngine = CancellableLayoutEngine
+		].createServer()
+		server.setOptions(#{
+			DiagramOptions.OPTION_NEEDS_CLIENT_LAYOUT -> 'false',
+			DiagramOptions.OPTION_NEEDS_SERVER_LAYOUT -> 'true'
+		})
+		server.remoteEndpoint = [m | ]
+		server.updateModel(new SModelRoot[
+			type = 'root'
+			id = 'root1'
+		])
+		val cancelIndicator = (server.layoutEngine as CancellableLayoutEngine).cancelIndicator
+		assertFalse(cancelIndicator.asBoolean)
+		server.updateModel(new SModelRoot[
+			type = 'root'
+			id = 'root2'
+		])
+		assertTrue(cancelIndicator.asBoolean)
+	}
+	
+	/**
+	 * A model whose layout is aborted without being superseded, e.g. because the layout exceeded its
+	 * time budget, must not be sent to the client.
+	 */
+	@Test
+	def void testAbortedLayout() {
+		val server = new TestSetup[
+			layoutEngine = AbortingLayoutEngine
+		].createServer()
+		server.setOptions(#{
+			DiagramOptions.OPTION_NEEDS_CLIENT_LAYOUT -> 'false',
+			DiagramOptions.OPTION_NEEDS_SERVER_LAYOUT -> 'true'
+		})
+		val messages = newArrayList
+		server.remoteEndpoint = [m | messages.add(m)]
+		server.updateModel(new SModelRoot[
+			type = 'root'
+			id = 'root1'
+		])
+		assertEquals(1, messages.size)
+		
+		(server.layoutEngine as AbortingLayoutEngine).abort = true
+		server.updateModel(new SModelRoot[
+			type = 'root'
+			id = 'root2'
+		])
+		assertEquals(1, messages.size)
+		
+		server.accept(new ActionMessage[
+			action = new RequestModelAction[
+				requestId = 'foo001'
+			]
+		])
+		assertEquals(2, messages.size)
+		val reject = messages.last.action as RejectAction
+		assertEquals('foo001', reject.responseId)
+		assertEquals(AbortingLayoutEngine.MESSAGE, reject.message)
+	}
+	
+	/**
+	 * A layout must copy the model only once, and the copy shares the property values of its elements
+	 * with the previous revision.
+	 */
+	@Test
+	def void testLayoutCopiesModelOnce() {
+		val server = new TestSetup[
+			layoutEngine = DummyLayoutEngine
+		].createServer()
+		val cloner = new CountingCloner
+		server.setSModelCloner(cloner)
+		server.setOptions(#{
+			DiagramOptions.OPTION_NEEDS_CLIENT_LAYOUT -> 'false',
+			DiagramOptions.OPTION_NEEDS_SERVER_LAYOUT -> 'true',
+			DiagramOptions.OPTION_MODEL_DIFF -> 'true'
+		})
+		val messages = newArrayList
+		server.remoteEndpoint = [m | messages.add(m)]
+		server.updateModel(new SModelRoot[
+			type = 'root'
+			id = 'root'
+			children = #[
+				new SNode[
+					id = 'node1'
+					cssClasses = #['highlighted']
+					children = #[new SLabel[id = 'label1' text = 'Node 1']]
+				],
+				new SNode[id = 'node2']
+			]
+		])
+		val submitted = server.model
+		assertEquals(0, cloner.count)
+		server.accept(new ActionMessage[
+			action = new LayoutAction
+		])
+		assertEquals(1, cloner.count)
+		val laidOut = server.model
+		assertNotSame(submitted, laidOut)
+		assertTrue(messages.last.action instanceof UpdateModelAction)
+		val oldNode = submitted.children.head
+		val newNode = laidOut.children.head
+		assertNotSame(oldNode, newNode)
+		assertSame(oldNode.cssClasses, newNode.cssClasses)
+		assertSame((oldNode.children.head as SLabel).text, (newNode.children.head as SLabel).text)
+	}
+	
+	@Test
+	def void testLayoutCopiesEditedModel() {
+		val server = new TestSetup[
+			layoutEngine = DummyLayoutEngine
+		].createServer()
+		val cloner = new CountingCloner
+		server.setSModelCloner(cloner)
+		server.setOptions(#{
+			DiagramOptions.OPTION_NEEDS_CLIENT_LAYOUT -> 'false',
+			DiagramOptions.OPTION_NEEDS_SERVER_LAYOUT -> 'true'
+		})
+		server.updateModel(new SModelRoot[
+			type = 'root'
+			id = 'root'
+			children = #[
+				new SNode[id = 'node1'],
+				new SNode[id = 'node2']
+			]
+		])
+		val submitted = server.model
+		assertEquals(0, cloner.count)
+		// Without model differences, the edited revision must still not modify the submitted model
+		server.updateModel('node1') [
+			cssClasses = #['changed']
+		]
+		assertEquals(1, cloner.count)
+		val laidOut = server.model
+		assertNull(submitted.children.head.cssClasses)
+		assertEquals(#['changed'], laidOut.children.head.cssClasses)
+		assertNotSame(submitted.children.get(1), laidOut.children.get(1))
+	}
+	
 	//-------------------- UTILITY CLASSES --------------------
 	
+	private static class CountingCloner extends SModelCloner {
+		int count
+		override cloneStructure(SModelRoot root) {
+			count++
+			super.cloneStructure(root)
+		}
+	}
+	
 	private static class DummyLayoutEngine implements ILayoutEngine {
 		static val X = 1
 		static val Y = 2
@@ -441,6 +734,33 @@ class DefaultDiagramServerTest {
 		}
 	}
 	
+	private def void waitUntil(BooleanSupplier condition) {
+		val deadline = System.currentTimeMillis + 10000
+		while (!condition.asBoolean) {
+			if (System.currentTimeMillis > deadline)
+				fail('Condition not met within 10 seconds')
+			Thread.sleep(5)
+		}
+	}
+	
+	private static class CancellableLayoutEngine implements ILayoutEngine {
+		BooleanSupplier cancelIndicator
+		override layout(SModelRoot root, Action cause) {
+		}
+		override layout(SModelRoot root, Action cause, BooleanSupplier cancelIndicator) {
+			this.cancelIndicator = cancelIndicator
+		}
+	}
+	
+	private static class AbortingLayoutEngine implements ILayoutEngine {
+		static val MESSAGE = 'The layout exceeded its time budget.'
+		boolean abort
+		override layout(SModelRoot root, Action cause) {
+			if (abort)
+				throw new CancellationException(MESSAGE)
+		}
+	}
+	
 	private static class ThrowingLayoutEngine implements ILayoutEngine {
 		override layout(SModelRoot root, Action cause) {
 			throw new NullPointerException
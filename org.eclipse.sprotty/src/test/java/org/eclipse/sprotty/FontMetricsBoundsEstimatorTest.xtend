@@ -0,0 +1,76 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty
+
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+class FontMetricsBoundsEstimatorTest {
+
+	@Test
+	def void testVBox() {
+		val root = new SGraph [
+			id = 'graph'
+			revision = 2
+			children = #[
+				new SNode [
+					id = 'node'
+					layout = 'vbox'
+					children = #[
+						new SLabel [
+							id = 'label0'
+							text = 'Hi'
+						],
+						new SLabel [
+							id = 'label1'
+							text = 'Hi'
+							layoutOptions = new LayoutOptions [
+								setHAlign('left')
+							]
+						]
+					]
+				]
+			]
+		]
+		val action = new FontMetricsBoundsEstimator().estimateBounds(root)
+		assertEquals(2, action.revision)
+		val bounds = action.bounds.toMap[elementId]
+		// 'H' and 'i' are 0.722 and 0.222 em wide, the font size is 16
+		assertEquals(15.104, bounds.get('label0').newSize.width, 1e-6)
+		assertEquals(18.4, bounds.get('label0').newSize.height, 1e-6)
+		assertEquals(new Point(5, 5), bounds.get('label0').newPosition)
+		assertEquals(new Point(5, 24.4), bounds.get('label1').newPosition)
+		assertEquals(25.104, bounds.get('node').newSize.width, 1e-6)
+		assertEquals(47.8, bounds.get('node').newSize.height, 1e-6)
+		assertNull(bounds.get('node').newPosition)
+		assertEquals(2, action.alignments.size)
+	}
+
+	@Test
+	def void testUnknownSize() {
+		val root = new SGraph [
+			id = 'graph'
+			children = #[
+				new SNode [
+					id = 'node'
+				]
+			]
+		]
+		assertNull(new FontMetricsBoundsEstimator().estimateBounds(root))
+	}
+
+}
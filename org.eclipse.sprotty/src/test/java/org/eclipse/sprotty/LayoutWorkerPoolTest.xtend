@@ -0,0 +1,92 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty
+
+import java.util.Collections
+import java.util.concurrent.CancellationException
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicReference
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+class LayoutWorkerPoolTest {
+
+	@Test
+	def void testFairOrder() {
+		val pool = new LayoutWorkerPool(1, 3, 10)
+		val started = new CountDownLatch(1)
+		val latch = new CountDownLatch(1)
+		val order = Collections.synchronizedList(newArrayList)
+		// Block the single worker until all tasks are queued
+		val blocker = pool.submit('x', false, [| started.countDown(); latch.await ])
+		started.await()
+		val futures = newArrayList
+		for (task : #['a1', 'a2', 'a3']) {
+			futures += pool.submit('a', false, [| order += task ])
+		}
+		futures += pool.submit('b', false, [| order += 'b1' ])
+		futures += pool.submit('c', true, [| order += 'c1' ])
+		try {
+			pool.submit('a', false, [| ])
+			fail('Expected RejectedExecutionException')
+		} catch (RejectedExecutionException exc) {
+			// expected
+		}
+		latch.countDown()
+		blocker.join()
+		futures.forEach[join]
+		assertEquals(#['c1', 'a1', 'b1', 'a2', 'a3'], order)
+		assertEquals(0, pool.queuedCount)
+		pool.shutdown()
+	}
+	
+	@Test
+	def void testCancelledWhileQueued() {
+		val pool = new LayoutWorkerPool(1, 3, 10)
+		val started = new CountDownLatch(1)
+		val latch = new CountDownLatch(1)
+		val blocker = pool.submit('x', false, [| started.countDown(); latch.await ])
+		started.await()
+		
+		val delegateCalls = new AtomicInteger
+		val engine = new PooledLayoutEngine([ root, cause | delegateCalls.incrementAndGet ], pool)
+		val cancelled = new AtomicBoolean
+		val error = new AtomicReference<Throwable>
+		val thread = new Thread [
+			try {
+				engine.layout(new SModelRoot, null, [ cancelled.get ])
+			} catch (Throwable t) {
+				error.set(t)
+			}
+		]
+		thread.start()
+		while (pool.queuedCount == 0) {
+			Thread.yield()
+		}
+		cancelled.set(true)
+		latch.countDown()
+		blocker.join()
+		thread.join()
+		assertTrue(String.valueOf(error.get), error.get instanceof CancellationException)
+		assertEquals(0, delegateCalls.get)
+		pool.shutdown()
+	}
+
+}
@@ -0,0 +1,89 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty
+
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+class SModelClonerTest {
+
+	@Test
+	def void testClone() {
+		val root = new SGraph [
+			id = 'graph'
+			type = 'graph'
+			revision = 3
+			children = #[
+				new SNode [
+					id = 'node0'
+					type = 'node'
+					position = new Point(1, 2)
+					size = new Dimension(3, 4)
+					children = #[
+						new SLabel [
+							id = 'label0'
+							text = 'foo'
+						]
+					]
+				]
+			]
+		]
+		val clone = new SModelCloner().clone(root) as SGraph
+		assertNotSame(root, clone)
+		assertEquals(3, clone.revision)
+		assertNotSame(root.children, clone.children)
+		val node = root.children.head as SNode
+		val clonedNode = clone.children.head as SNode
+		assertNotSame(node, clonedNode)
+		assertEquals('node0', clonedNode.id)
+		assertSame(node.position, clonedNode.position)
+		assertSame(node.size, clonedNode.size)
+		assertEquals('foo', (clonedNode.children.head as SLabel).text)
+	}
+
+	@Test
+	def void testEdit() {
+		val root = new SGraph [
+			id = 'graph'
+			children = #[
+				new SNode [
+					id = 'node0'
+					children = #[
+						new SLabel [
+							id = 'label0'
+							text = 'foo'
+						]
+					]
+				],
+				new SNode [
+					id = 'node1'
+				]
+			]
+		]
+		val newRoot = root.edit('label0') [
+			(it as SLabel).text = 'bar'
+		]
+		assertNotSame(root, newRoot)
+		assertEquals('foo', (root.children.head.children.head as SLabel).text)
+		assertEquals('bar', (newRoot.children.head.children.head as SLabel).text)
+		assertNotSame(root.children.head, newRoot.children.head)
+		assertSame(root.children.last, newRoot.children.last)
+		val matches = new SModelDiffer().diff(root, newRoot)
+		assertEquals(#['label0', 'label0'], matches.map[left?.id ?: right.id])
+	}
+
+}
@@ -0,0 +1,108 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty
+
+import java.util.List
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+class SModelDifferTest {
+
+	@Test
+	def void testUnchanged() {
+		val differ = new SModelDiffer
+		val matches = differ.diff(createGraph('A', 'B', 'C'), createGraph('A', 'B', 'C'))
+		assertEquals('', matches.toText)
+	}
+
+	@Test
+	def void testInsertAndRemove() {
+		val differ = new SModelDiffer
+		val matches = differ.diff(createGraph('A', 'B', 'C', 'D'), createGraph('A', 'B', 'D', 'E'))
+		assertEquals('''
+			-C@graph
+			+E@graph
+		'''.toString, matches.toText)
+	}
+
+	@Test
+	def void testChangedProperty() {
+		val differ = new SModelDiffer
+		val newRoot = createGraph('A', 'B', 'C', 'D')
+		(newRoot.children.last.children.head as SLabel).text = 'changed'
+		val matches = differ.diff(createGraph('A', 'B', 'C', 'D'), newRoot)
+		assertEquals('''
+			-D.label@D
+			+D.label@D
+		'''.toString, matches.toText)
+	}
+
+	@Test
+	def void testChangedOrder() {
+		val differ = new SModelDiffer
+		val matches = differ.diff(createGraph('A', 'B', 'C', 'D'), createGraph('A', 'C', 'B', 'D'))
+		assertEquals('''
+			-B@graph
+			-D@graph
+			+B@graph
+			+D@graph
+		'''.toString, matches.toText)
+	}
+
+	@Test
+	def void testChangedRoot() {
+		val differ = new SModelDiffer
+		val newRoot = createGraph('A', 'B')
+		newRoot.cssClasses = #['changed']
+		assertNull(differ.diff(createGraph('A', 'B'), newRoot))
+	}
+
+	@Test
+	def void testMaxChangeRatio() {
+		val differ = new SModelDiffer
+		differ.maxChangeRatio = 0.2
+		assertNull(differ.diff(createGraph('A', 'B'), createGraph('C', 'D')))
+	}
+
+	private def SGraph createGraph(String... nodeIds) {
+		new SGraph [
+			id = 'graph'
+			children = nodeIds.map[ nodeId |
+				new SNode [
+					id = nodeId
+					position = new Point(1, 2)
+					children = #[
+						new SLabel [
+							id = nodeId + '.label'
+							text = nodeId
+						]
+					]
+				] as SModelElement
+			].toList
+		]
+	}
+
+	private def String toText(List<Match> matches) {
+		matches.map[
+			if (left !== null)
+				'-' + left.id + '@' + leftParentId + '\n'
+			else
+				'+' + right.id + '@' + rightParentId + '\n'
+		].join
+	}
+
+}
@@ -0,0 +1,56 @@
+/********************************************************************************
+ * Copyright (c) 2026 TypeFox and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ ********************************************************************************/
+package org.eclipse.sprotty
+
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+class SModelIndexTest {
+
+	@Test
+	def void testParentsAndTypes() {
+		val root = new SGraph [
+			id = 'graph'
+			type = 'graph'
+			children = #[
+				new SNode [
+					id = 'node0'
+					type = 'node'
+					children = #[
+						new SLabel [
+							id = 'label0'
+							type = 'label'
+						]
+					]
+				],
+				new SNode [
+					id = 'node1'
+					type = 'node'
+				]
+			]
+		]
+		val index = new SModelIndex(root)
+		assertEquals(4, index.size)
+		assertSame(root, index.root)
+		assertNull(index.getParent('graph'))
+		assertEquals('graph', index.getParent('node1').id)
+		assertEquals('node0', index.getParent(index.get('label0')).id)
+		assertEquals(#['node0', 'node1'], index.getAllByType('node').map[id])
+		assertTrue(index.getAllByType('edge').empty)
+	}
+
+}
@@ -19,6 +19,7 @@ import com.google.inject.Guice
 import com.google.inject.Module
 import java.util.function.Consumer
 import org.eclipse.sprotty.DefaultDiagramServer
+import org.eclipse.sprotty.IBoundsEstimator
 import org.eclipse.sprotty.IDiagramExpansionListener
 import org.eclipse.sprotty.IDiagramOpenListener
 import org.eclipse.sprotty.IDiagramSelectionListener
@@ -34,6 +35,7 @@ import org.eclipse.xtend.lib.annotations.ToString
 class TestSetup {
 	Class<? extends IModelUpdateListener> modelUpdateListener = IModelUpdateListener.NullImpl
 	Class<? extends ILayoutEngine> layoutEngine = ILayoutEngine.NullImpl
+	Class<? extends IBoundsEstimator> boundsEstimator = IBoundsEstimator.NullImpl
 	Class<? extends IPopupModelFactory> popupModelFactory = IPopupModelFactory.NullImpl
 	Class<? extends IDiagramOpenListener> diagramOpenListener = IDiagramOpenListener.NullImpl
 	Class<? extends IDiagramSelectionListener> diagramSelectionListener = IDiagramSelectionListener.NullImpl
@@ -50,6 +52,7 @@ class TestSetup {
 			bind(IDiagramServer).to(DefaultDiagramServer)
 			bind(IModelUpdateListener).to(modelUpdateListener)
 			bind(ILayoutEngine).to(layoutEngine)
+			bind(IBoundsEstimator).to(boundsEstimator)
 			bind(IPopupModelFactory).to(popupModelFactory)
 			bind(IDiagramOpenListener).to(diagramOpenListener)
 			bind(IDiagramSelectionListener).to(diagramSelectionListener)